@@ -0,0 +1,26 @@
+package com.guicedee.cdi;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * The built-in interceptor of {@code @ActivateRequestContext}, running the intercepted method in a request context.
+ * <p>
+ * When no context is active, one is bound to the call with {@link RequestScope#call(java.util.concurrent.Callable)}
+ * and ended when the method returns; a context that is already active, including one propagated from a parent task,
+ * is used as is.
+ */
+@Interceptor
+@ActivateRequestContext
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 100)
+final class ActivateRequestContextInterceptor {
+
+    @AroundInvoke
+    Object activateRequestContext(InvocationContext context) throws Exception {
+        RequestScope scope = RequestScope.INSTANCE;
+        return scope.isActive() ? context.proceed() : scope.call(context::proceed);
+    }
+}
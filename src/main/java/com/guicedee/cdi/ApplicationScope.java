@@ -0,0 +1,115 @@
+package com.guicedee.cdi;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.Scope;
+import com.google.inject.Scopes;
+
+import java.util.function.Supplier;
+
+/**
+ * The Guice {@link Scope} of {@code @ApplicationScoped} beans: one instance per binding, reached through a client proxy.
+ * <p>
+ * Each application scoped binding is given a {@link ClientProxy} of its type, created the first time the binding is
+ * injected. The proxy is what gets injected, and the real instance is created by Guice's singleton scope on the first
+ * call of one of its methods, so beans that are injected everywhere but rarely used are no longer created while the
+ * injector starts, and neither is their proxy.
+ * The instance is created by Guice's singleton scope, or by the {@link LockingSingletonScope} for {@link #LOCKING}.
+ * Types that cannot be proxied, such as final classes or classes without a no-argument constructor, are plain
+ * singletons.
+ * <p>
+ * The scope is bound to {@code @ApplicationScoped} by {@link com.guicedee.cdi.implementations.BindScopeProvision}.
+ */
+public final class ApplicationScope implements Scope {
+
+    /**
+     * The application scope, creating instances with Guice's singleton scope.
+     */
+    public static final ApplicationScope INSTANCE = new ApplicationScope(Scopes.SINGLETON);
+
+    /**
+     * The application scope, creating instances with the {@link LockingSingletonScope}.
+     */
+    public static final ApplicationScope LOCKING = new ApplicationScope(LockingSingletonScope.INSTANCE);
+
+    private final Scope singletons;
+
+    private ApplicationScope(Scope singletons) {
+        this.singletons = singletons;
+    }
+
+    @Override
+    public <T> Provider<T> scope(Key<T> key, Provider<T> unscoped) {
+        Provider<T> singleton = singletons.scope(key, unscoped);
+        Class<? super T> type = key.getTypeLiteral().getRawType();
+        if (!ClientProxy.isProxyable(type)) {
+            return singleton;
+        }
+        return new ProxyProvider<>(type, new Contextual<>(singleton), unscoped);
+    }
+
+    @Override
+    public String toString() {
+        return "ApplicationScope[" + singletons + "]";
+    }
+
+    /**
+     * Creates the client proxy of a binding the first time it is injected, since creating it runs the bean type's
+     * no-argument constructor on the proxy.
+     */
+    private static final class ProxyProvider<T> implements Provider<T> {
+        private final Class<? super T> type;
+        private final Contextual<T> target;
+        private final Provider<T> unscoped;
+        private volatile T proxy;
+
+        private ProxyProvider(Class<? super T> type, Contextual<T> target, Provider<T> unscoped) {
+            this.type = type;
+            this.target = target;
+            this.unscoped = unscoped;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get() {
+            T value = proxy;
+            if (value == null) {
+                synchronized (this) {
+                    value = proxy;
+                    if (value == null) {
+                        value = (T) ClientProxy.create(type, target);
+                        proxy = value;
+                    }
+                }
+            }
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return unscoped + "[ApplicationScoped]";
+        }
+    }
+
+    /**
+     * The target of a client proxy, keeping the instance once the singleton provider has created it.
+     */
+    private static final class Contextual<T> implements Supplier<T> {
+        private final Provider<T> singleton;
+        private volatile T instance;
+
+        private Contextual(Provider<T> singleton) {
+            this.singleton = singleton;
+        }
+
+        @Override
+        public T get() {
+            T value = instance;
+            if (value == null) {
+                value = singleton.get();
+                instance = value;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.guicedee.cdi;
+
+import jakarta.enterprise.util.AnnotationLiteral;
+import jakarta.enterprise.util.Nonbinding;
+import jakarta.inject.Qualifier;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Opts an {@link jakarta.enterprise.event.Event} into batched delivery for high-frequency events.
+ * <p>
+ * Events fired through an event selected with this qualifier are buffered per event class and qualifiers, and
+ * delivered once per window: when {@link #windowMillis()} has passed since the first buffered event, or as soon as
+ * {@link #maxSize()} events are buffered. Each delivery notifies
+ * <ul>
+ *     <li>observers of {@code List<E>} with the whole batch, in firing order, and</li>
+ *     <li>observers of the event class {@code E} with the latest event of the batch only.</li>
+ * </ul>
+ * The qualifier itself is not passed on to observers; the other qualifiers of the event are.
+ * <p>
+ * Usage:
+ * {@code Event<CacheInvalidated> events = beanManager.getEvent().select(CacheInvalidated.class, Batched.Literal.of(50, 1000));}
+ */
+@Qualifier
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.PARAMETER, ElementType.FIELD, ElementType.METHOD, ElementType.TYPE})
+public @interface Batched {
+
+    /**
+     * The longest time an event is buffered before its batch is delivered.
+     *
+     * @return The window in milliseconds
+     */
+    @Nonbinding
+    long windowMillis() default 100;
+
+    /**
+     * The number of buffered events that triggers delivery before the window has passed.
+     *
+     * @return The maximum batch size
+     */
+    @Nonbinding
+    int maxSize() default 1024;
+
+    /**
+     * Supports inline instantiation of the {@link Batched} qualifier.
+     */
+    final class Literal extends AnnotationLiteral<Batched> implements Batched {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The qualifier with the default window and size.
+         */
+        public static final Literal INSTANCE = new Literal(100, 1024);
+
+        private final long windowMillis;
+        private final int maxSize;
+
+        private Literal(long windowMillis, int maxSize) {
+            this.windowMillis = windowMillis;
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * Creates the qualifier with the given window and size.
+         *
+         * @param windowMillis The window in milliseconds
+         * @param maxSize      The maximum batch size
+         * @return The qualifier
+         */
+        public static Literal of(long windowMillis, int maxSize) {
+            if (windowMillis <= 0 || maxSize <= 0) {
+                throw new IllegalArgumentException("Batch window and size must be positive");
+            }
+            return new Literal(windowMillis, maxSize);
+        }
+
+        @Override
+        public long windowMillis() {
+            return windowMillis;
+        }
+
+        @Override
+        public int maxSize() {
+            return maxSize;
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package com.guicedee.cdi;
+
+import com.google.inject.Binding;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
+import com.google.inject.spi.ConvertedConstantBinding;
+import com.google.inject.spi.DefaultBindingScopingVisitor;
+import com.google.inject.spi.LinkedKeyBinding;
+import com.google.inject.spi.ProviderBinding;
+import jakarta.decorator.Decorator;
+import jakarta.enterprise.inject.AmbiguousResolutionException;
+import jakarta.enterprise.inject.Default;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.Prioritized;
+import jakarta.interceptor.Interceptor;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * An immutable index of an injector's bindings, built once when the bean manager for that injector is created.
+ * <p>
+ * Every binding is registered under each class in the type closure of its bound type, so all bindings assignable
+ * to a class, qualified or not, are found with a single hash lookup. Multibinder elements are bound under their
+ * element type and are therefore indexed with it.
+ * <p>
+ * Each indexed binding is also described by one shared, immutable {@link GuiceBean}. Beans are registered under
+ * every (raw type, qualifier) pair they satisfy, so CDI style lookups by type and qualifier are a single hash probe
+ * returning a precomputed set. Beans bound with {@code @Named} are additionally indexed by name, and names shared
+ * by more than one bean are reported once while the index is built.
+ * <p>
+ * Ambiguity resolution for every indexed bean set is computed up front, so resolving a set returned by
+ * {@link #getBeans(Type, Annotation...)} is an identity lookup. Other sets of indexed beans are resolved once and memoized.
+ * <p>
+ * Bean qualifiers are registered with the injector's {@link QualifierIds}, and lookups requiring several qualifiers
+ * match each candidate's qualifier mask instead of comparing annotations.
+ */
+final class BeanIndex {
+
+    private static final System.Logger log = System.getLogger(BeanIndex.class.getName());
+
+    private final Map<Class<?>, List<Binding<?>>> bindingsByType;
+    private final Map<BeanKey, Set<Bean<?>>> beansByKey;
+    private final Map<String, Set<Bean<?>>> beansByName;
+    private final QualifierIds qualifierIds;
+
+    /**
+     * Resolutions of the sets held by this index, keyed by set identity. Never modified after construction.
+     */
+    private final Map<Set<Bean<?>>, Resolution> indexedResolutions;
+
+    /**
+     * The beans of this index, by identity. Never modified after construction.
+     */
+    private final Set<Bean<?>> indexedBeans;
+
+    /**
+     * Memoized resolutions of other sets of indexed beans.
+     */
+    private final Map<ResolutionKey, Resolution> resolutions = new ConcurrentHashMap<>();
+
+    /**
+     * Builds the index from all bindings currently known to the injector.
+     *
+     * @param injector     The injector to index
+     * @param qualifierIds The qualifier ids to register bean qualifiers with
+     */
+    BeanIndex(Injector injector, QualifierIds qualifierIds) {
+        this.qualifierIds = qualifierIds;
+        Map<Key<?>, Binding<?>> allBindings = injector.getAllBindings();
+        Map<Class<?>, List<Binding<?>>> byType = new HashMap<>();
+        Set<Bean<?>> indexed = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<BeanKey, Set<Bean<?>>> byKey = new HashMap<>();
+        Map<String, Set<Bean<?>>> byName = new HashMap<>();
+        Set<Key<?>> undecoratedTargets = new HashSet<>();
+        Set<Key<?>> scopedAliasTargets = new HashSet<>();
+        for (Binding<?> binding : allBindings.values()) {
+            if (binding instanceof LinkedKeyBinding<?> linked && binding.getKey().getAnnotationType() == Undecorated.class) {
+                undecoratedTargets.add(linked.getLinkedKey());
+            } else if (isScopedAlias(binding, allBindings)) {
+                scopedAliasTargets.add(((LinkedKeyBinding<?>) binding).getLinkedKey());
+            }
+        }
+        for (Binding<?> binding : allBindings.values()) {
+            if (!isIndexed(binding, allBindings, undecoratedTargets, scopedAliasTargets)) {
+                continue;
+            }
+            // A scoped alias stands for its target, with the target's bean types
+            TypeLiteral<?> beanType = isScopedAlias(binding, allBindings)
+                    ? ((LinkedKeyBinding<?>) binding).getLinkedKey().getTypeLiteral()
+                    : binding.getKey().getTypeLiteral();
+            for (Class<?> type : TypeClosure.of(beanType.getRawType())) {
+                byType.computeIfAbsent(type, t -> new ArrayList<>()).add(binding);
+            }
+            GuiceBean<?> bean = new GuiceBean<>(binding, beanType, qualifierIds);
+            indexed.add(bean);
+            for (Type type : bean.getTypes()) {
+                for (Annotation qualifier : bean.getQualifiers()) {
+                    byKey.computeIfAbsent(new BeanKey(rawType(type), qualifier), k -> new LinkedHashSet<>()).add(bean);
+                }
+            }
+            if (bean.getName() != null) {
+                byName.computeIfAbsent(bean.getName(), k -> new LinkedHashSet<>()).add(bean);
+            }
+        }
+        Map<Class<?>, List<Binding<?>>> frozen = new HashMap<>(byType.size() * 2);
+        byType.forEach((type, bindings) -> frozen.put(type, List.copyOf(bindings)));
+        this.bindingsByType = Map.copyOf(frozen);
+        this.indexedBeans = Collections.unmodifiableSet(indexed);
+        Map<BeanKey, Set<Bean<?>>> frozenBeans = new HashMap<>(byKey.size() * 2);
+        byKey.forEach((key, beans) -> frozenBeans.put(key, Collections.unmodifiableSet(beans)));
+        this.beansByKey = Map.copyOf(frozenBeans);
+        Map<String, Set<Bean<?>>> frozenNames = new HashMap<>(byName.size() * 2);
+        byName.forEach((name, beans) -> {
+            if (beans.size() > 1) {
+                log.log(System.Logger.Level.WARNING, "Bean name ''{0}'' is shared by {1} beans, lookups by name are ambiguous: {2}",
+                        name, beans.size(), beans);
+            }
+            frozenNames.put(name, Collections.unmodifiableSet(beans));
+        });
+        this.beansByName = Map.copyOf(frozenNames);
+
+        Map<Set<Bean<?>>, Resolution> resolved = new IdentityHashMap<>();
+        for (Set<Bean<?>> beans : beansByKey.values()) {
+            resolved.put(beans, new Resolution(select(beans)));
+        }
+        for (Set<Bean<?>> beans : beansByName.values()) {
+            resolved.put(beans, new Resolution(select(beans)));
+        }
+        this.indexedResolutions = resolved;
+    }
+
+    /**
+     * Gets every indexed binding assignable to the given class.
+     *
+     * @param type The class to look up
+     * @return The immutable list of bindings, empty when none are indexed
+     */
+    List<Binding<?>> getBindings(Class<?> type) {
+        return bindingsByType.getOrDefault(type, List.of());
+    }
+
+    /**
+     * Describes a binding that is not indexed, such as a just-in-time binding Guice created after the index was built.
+     *
+     * @param <T>     The type of the bean
+     * @param binding The binding
+     * @return The bean descriptor
+     */
+    <T> Bean<T> beanOf(Binding<T> binding) {
+        return new GuiceBean<>(binding, qualifierIds);
+    }
+
+    /**
+     * Checks whether any indexed binding is assignable to the given class.
+     *
+     * @param type The class to look up
+     * @return true if at least one binding is indexed for the class
+     */
+    boolean contains(Class<?> type) {
+        return bindingsByType.containsKey(type);
+    }
+
+    /**
+     * Gets the beans that have the given bean type and all the given qualifiers.
+     * With no qualifiers, {@code @Default} is required, as in CDI. A {@code jakarta.inject.Named} qualifier
+     * matches beans bound with the equivalent Guice {@code @Named}.
+     *
+     * @param type       The required bean type
+     * @param qualifiers The required qualifiers
+     * @return The immutable set of matching beans, shared between calls when at most one qualifier is given
+     */
+    Set<Bean<?>> getBeans(Type type, Annotation... qualifiers) {
+        Class<?> rawType = rawType(type);
+        Set<Bean<?>> beans;
+        if (qualifiers == null || qualifiers.length == 0) {
+            beans = beansByKey.getOrDefault(new BeanKey(rawType, Default.Literal.INSTANCE), Set.of());
+        } else {
+            beans = beansByKey.getOrDefault(new BeanKey(rawType, QualifierIds.normalize(qualifiers[0])), Set.of());
+            if (qualifiers.length > 1 && !beans.isEmpty()) {
+                long[] required = qualifierIds.required(Arrays.asList(qualifiers));
+                if (required == null) {
+                    // No bean has a qualifier that was never registered
+                    return Set.of();
+                }
+                beans = filter(beans, bean -> QualifierIds.containsAll(((GuiceBean<?>) bean).getQualifierMask(), required));
+            }
+        }
+        if (!(type instanceof Class<?>) && !beans.isEmpty()) {
+            beans = filter(beans, bean -> bean.getTypes().contains(type));
+        }
+        return beans;
+    }
+
+    /**
+     * Gets the beans bound with the given {@code @Named} value.
+     *
+     * @param name The bean name
+     * @return The immutable set of beans with that name, empty when none
+     */
+    Set<Bean<?>> getBeans(String name) {
+        return beansByName.getOrDefault(name, Set.of());
+    }
+
+    /**
+     * Resolves an ambiguous set of beans following the CDI rules: the enabled alternative with the highest
+     * priority wins, otherwise a single non-alternative bean, otherwise the single {@code @Default} bean.
+     * An alternative is enabled by a {@code @Priority}; alternatives without one are never chosen.
+     *
+     * @param beans The candidate beans
+     * @return The resolved bean, or null when the set is null or empty
+     * @throws AmbiguousResolutionException if no single bean can be chosen
+     */
+    Bean<?> resolve(Set<? extends Bean<?>> beans) {
+        if (beans == null || beans.isEmpty()) {
+            return null;
+        }
+        if (beans.size() == 1) {
+            return beans.iterator().next();
+        }
+        Resolution resolution = indexedResolutions.get(beans);
+        if (resolution == null) {
+            ResolutionKey key = ResolutionKey.of(beans, indexedBeans);
+            resolution = key == null ? new Resolution(select(beans)) : resolutions.computeIfAbsent(key, k -> new Resolution(select(beans)));
+        }
+        if (resolution.bean() == null) {
+            throw new AmbiguousResolutionException("Cannot resolve ambiguous beans " + beans);
+        }
+        return resolution.bean();
+    }
+
+    /**
+     * Chooses the bean of a set without sorting, returning null when the set is ambiguous.
+     */
+    private static Bean<?> select(Collection<? extends Bean<?>> beans) {
+        if (beans.size() == 1) {
+            return beans.iterator().next();
+        }
+        Bean<?> alternative = null;
+        int alternativePriority = Integer.MIN_VALUE;
+        boolean alternativeTie = false;
+        Bean<?> nonAlternative = null;
+        int nonAlternatives = 0;
+        Bean<?> defaultBean = null;
+        int defaultBeans = 0;
+        for (Bean<?> bean : beans) {
+            if (bean.isAlternative()) {
+                if (!isEnabled(bean)) {
+                    continue;
+                }
+                int priority = bean instanceof Prioritized prioritized ? prioritized.getPriority() : 0;
+                if (alternative == null || priority > alternativePriority) {
+                    alternative = bean;
+                    alternativePriority = priority;
+                    alternativeTie = false;
+                } else if (priority == alternativePriority) {
+                    alternativeTie = true;
+                }
+                continue;
+            }
+            nonAlternative = bean;
+            nonAlternatives++;
+            if (bean.getQualifiers().contains(Default.Literal.INSTANCE)) {
+                defaultBean = bean;
+                defaultBeans++;
+            }
+        }
+        if (alternative != null) {
+            return alternativeTie ? null : alternative;
+        }
+        if (nonAlternatives == 1) {
+            return nonAlternative;
+        }
+        return defaultBeans == 1 ? defaultBean : null;
+    }
+
+    /**
+     * Checks whether an alternative is enabled, which takes a {@code @Priority} on the bean class of an indexed bean,
+     * or a {@link Prioritized} custom bean.
+     */
+    private static boolean isEnabled(Bean<?> alternative) {
+        return alternative instanceof GuiceBean<?> bean ? bean.isPrioritized() : alternative instanceof Prioritized;
+    }
+
+    /**
+     * Gets the raw class of a type.
+     *
+     * @param type The type
+     * @return The raw class
+     */
+    static Class<?> rawType(Type type) {
+        if (type instanceof Class<?> clazz) {
+            return clazz;
+        }
+        if (type instanceof ParameterizedType parameterizedType) {
+            return (Class<?>) parameterizedType.getRawType();
+        }
+        return TypeLiteral.get(type).getRawType();
+    }
+
+    private static Set<Bean<?>> filter(Set<Bean<?>> beans, Predicate<Bean<?>> predicate) {
+        Set<Bean<?>> filtered = new LinkedHashSet<>();
+        for (Bean<?> bean : beans) {
+            if (predicate.test(bean)) {
+                filtered.add(bean);
+            }
+        }
+        return Collections.unmodifiableSet(filtered);
+    }
+
+    /**
+     * Determines whether a binding represents a bean of its own.
+     * Provider bindings and converted constants are derived from other bindings. An unscoped, unqualified
+     * {@code bind(A).to(B)} alias is represented by the binding of its target, which already carries A in its closure.
+     * A scoped alias of an unscoped target, such as {@code bind(A).to(B).in(Singleton.class)}, holds the scope the
+     * instances are created in, so it is indexed in place of the target instead.
+     * Interceptors, decorators and the original bindings of decorated keys are never injected as beans.
+     */
+    private static boolean isIndexed(Binding<?> binding, Map<Key<?>, Binding<?>> allBindings, Set<Key<?>> undecoratedTargets,
+                                     Set<Key<?>> scopedAliasTargets) {
+        if (binding instanceof ProviderBinding<?> || binding instanceof ConvertedConstantBinding<?>) {
+            return false;
+        }
+        Key<?> key = binding.getKey();
+        if (key.getAnnotationType() == Undecorated.class || undecoratedTargets.contains(key)) {
+            return false;
+        }
+        Class<?> rawType = key.getTypeLiteral().getRawType();
+        if (rawType.isAnnotationPresent(Decorator.class) || rawType.isAnnotationPresent(Interceptor.class)) {
+            return false;
+        }
+        if (scopedAliasTargets.contains(key)) {
+            return false;
+        }
+        if (binding instanceof LinkedKeyBinding<?> linked && key.getAnnotationType() == null) {
+            return isScopedAlias(binding, allBindings) || !allBindings.containsKey(linked.getLinkedKey());
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a binding is an unqualified {@code bind(A).to(B)} alias with a scope of its own and an unscoped
+     * target. When the target is scoped as well, the target's instances are the ones handed out and it stays the bean.
+     */
+    private static boolean isScopedAlias(Binding<?> binding, Map<Key<?>, Binding<?>> allBindings) {
+        if (!(binding instanceof LinkedKeyBinding<?> linked) || binding.getKey().getAnnotationType() != null || !isScoped(binding)) {
+            return false;
+        }
+        Binding<?> target = allBindings.get(linked.getLinkedKey());
+        return target != null && !isScoped(target);
+    }
+
+    private static boolean isScoped(Binding<?> binding) {
+        return binding.acceptScopingVisitor(new DefaultBindingScopingVisitor<Boolean>() {
+            @Override
+            public Boolean visitNoScoping() {
+                return false;
+            }
+
+            @Override
+            protected Boolean visitOther() {
+                return true;
+            }
+        });
+    }
+
+    /**
+     * A lookup key of raw bean type and a single qualifier.
+     *
+     * @param type      The raw bean type
+     * @param qualifier The qualifier
+     */
+    private record BeanKey(Class<?> type, Annotation qualifier) {
+    }
+
+    /**
+     * The outcome of resolving a bean set.
+     *
+     * @param bean The chosen bean, or null when the set is ambiguous
+     */
+    private record Resolution(Bean<?> bean) {
+    }
+
+    /**
+     * An order-insensitive key over the identities of a set of indexed beans.
+     * Bean descriptors are unique per binding, so identity is enough and avoids calling their equals and hashCode.
+     */
+    private static final class ResolutionKey {
+        private final Bean<?>[] beans;
+        private final int hash;
+
+        private ResolutionKey(Bean<?>[] beans, int hash) {
+            this.beans = beans;
+            this.hash = hash;
+        }
+
+        /**
+         * Creates a key for a set made only of indexed beans. Other beans, such as those describing just-in-time
+         * bindings, are created on every lookup, so their sets are never memoized.
+         *
+         * @param set     The set to resolve
+         * @param indexed The beans of the index, by identity
+         * @return The key, or null when the set contains beans not created by this index
+         */
+        static ResolutionKey of(Set<? extends Bean<?>> set, Set<Bean<?>> indexed) {
+            Bean<?>[] beans = new Bean<?>[set.size()];
+            int hash = 0;
+            int i = 0;
+            for (Bean<?> bean : set) {
+                if (!indexed.contains(bean)) {
+                    return null;
+                }
+                beans[i++] = bean;
+                hash += System.identityHashCode(bean);
+            }
+            return new ResolutionKey(beans, hash);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ResolutionKey other) || other.hash != hash || other.beans.length != beans.length) {
+                return false;
+            }
+            for (Bean<?> bean : beans) {
+                boolean found = false;
+                for (Bean<?> otherBean : other.beans) {
+                    if (otherBean == bean) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.guicedee.cdi;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.*;
+
+/**
+ * The build-time bean discovery index written by {@link BeanIndexProcessor} to {@value #RESOURCE}.
+ * <p>
+ * The index lists every class compiled with the processor, with its observer methods and whether it is an enabled
+ * interceptor or decorator. A class listed in an index is never reflected over to discover its observers, and the
+ * index alone decides whether it is an interceptor, decorator or observer class, so its scan result entries are
+ * skipped. Classes that are not listed, such as those of libraries built without the processor, are discovered from
+ * the scan result and reflectively as before.
+ * <p>
+ * The file is a {@code DataOutput} stream: a magic number and version, a table of every distinct string, then the
+ * classes, with strings written as unsigned variable length indexes into the table.
+ */
+final class BeanIndexFile {
+
+    private static final System.Logger log = System.getLogger(BeanIndexFile.class.getName());
+
+    /**
+     * The location of the index in a jar or class output directory.
+     */
+    static final String RESOURCE = "META-INF/guicedee/cdi.idx";
+
+    static final int INTERCEPTOR = 1;
+    static final int DECORATOR = 1 << 1;
+    static final int PRIORITY = 1 << 2;
+
+    private static final int MAGIC = 0x47434449;
+    private static final int VERSION = 2;
+
+    private static final BeanIndexFile EMPTY = new BeanIndexFile(Map.of());
+
+    /**
+     * The merged indexes visible to each class loader.
+     */
+    private static final Map<ClassLoader, BeanIndexFile> LOADED = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Map<String, Entry> entries;
+
+    BeanIndexFile(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Gets the indexes visible to a class loader, merged. Each class loader's indexes are read once.
+     *
+     * @param loader The class loader, or null for the bootstrap class loader
+     * @return The merged index, empty when no index is visible
+     */
+    static BeanIndexFile of(ClassLoader loader) {
+        if (loader == null) {
+            return EMPTY;
+        }
+        BeanIndexFile index = LOADED.get(loader);
+        if (index == null) {
+            index = load(loader);
+            LOADED.put(loader, index);
+        }
+        return index;
+    }
+
+    /**
+     * Gets the entry of a class from the indexes visible to its class loader.
+     *
+     * @param type The class
+     * @return The entry, or null if the class was not compiled with the processor
+     */
+    static Entry entryOf(Class<?> type) {
+        return of(type.getClassLoader()).entries.get(type.getName());
+    }
+
+    private static BeanIndexFile load(ClassLoader loader) {
+        Map<String, Entry> entries = new HashMap<>();
+        try {
+            Enumeration<URL> resources = loader.getResources(RESOURCE);
+            while (resources.hasMoreElements()) {
+                URL resource = resources.nextElement();
+                try (InputStream in = resource.openStream()) {
+                    entries.putAll(read(in));
+                } catch (IOException | RuntimeException e) {
+                    log.log(System.Logger.Level.WARNING, "Could not read the bean index " + resource + ", its classes will be discovered reflectively", e);
+                }
+            }
+        } catch (IOException e) {
+            log.log(System.Logger.Level.WARNING, "Could not list the bean indexes of " + loader, e);
+        }
+        return entries.isEmpty() ? EMPTY : new BeanIndexFile(Map.copyOf(entries));
+    }
+
+    /**
+     * Checks whether a class was compiled with the processor, so the index describes it.
+     *
+     * @param className The binary name of the class
+     * @return true if the class is listed
+     */
+    boolean contains(String className) {
+        return entries.containsKey(className);
+    }
+
+    /**
+     * Gets the classes of the index with all of the given flags.
+     *
+     * @param flags The class flags
+     * @return The class names
+     */
+    List<String> classesWith(int flags) {
+        List<String> names = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if ((entry.flags() & flags) == flags) {
+                names.add(entry.className());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Gets the classes of the index declaring observer methods.
+     *
+     * @return The class names
+     */
+    List<String> classesWithObservers() {
+        List<String> names = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (!entry.observers().isEmpty()) {
+                names.add(entry.className());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Reads the classes of an index.
+     *
+     * @param in The index content
+     * @return The entries by class name
+     * @throws IOException if the content is not an index of a supported version
+     */
+    static Map<String, Entry> read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a bean index");
+        }
+        int version = data.readUnsignedShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported bean index version " + version);
+        }
+        String[] strings = new String[readCount(data)];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = data.readUTF();
+        }
+        int count = readCount(data);
+        Map<String, Entry> entries = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String className = strings[readVarInt(data)];
+            int flags = readVarInt(data);
+            List<Member> observers = readMembers(data, strings);
+            List<Member> overrides = readMembers(data, strings);
+            entries.put(className, new Entry(className, flags, observers, overrides));
+        }
+        return entries;
+    }
+
+    /**
+     * Writes the classes of an index.
+     *
+     * @param entries The entries
+     * @param out     The stream to write to, left open
+     * @throws IOException if the stream cannot be written
+     */
+    static void write(Collection<Entry> entries, OutputStream out) throws IOException {
+        Map<String, Integer> table = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            intern(table, entry.className());
+            for (List<Member> members : List.of(entry.observers(), entry.overrides())) {
+                for (Member member : members) {
+                    intern(table, member.name());
+                    member.parameterTypes().forEach(parameter -> intern(table, parameter));
+                }
+            }
+        }
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        writeVarInt(data, table.size());
+        for (String string : table.keySet()) {
+            data.writeUTF(string);
+        }
+        writeVarInt(data, entries.size());
+        for (Entry entry : entries) {
+            writeVarInt(data, table.get(entry.className()));
+            writeVarInt(data, entry.flags());
+            writeMembers(data, table, entry.observers());
+            writeMembers(data, table, entry.overrides());
+        }
+        data.flush();
+    }
+
+    private static void intern(Map<String, Integer> table, String string) {
+        table.putIfAbsent(string, table.size());
+    }
+
+    private static void writeStrings(DataOutputStream data, Map<String, Integer> table, List<String> strings) throws IOException {
+        writeVarInt(data, strings.size());
+        for (String string : strings) {
+            writeVarInt(data, table.get(string));
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream data, String[] strings) throws IOException {
+        int count = readCount(data);
+        if (count == 0) {
+            return List.of();
+        }
+        String[] read = new String[count];
+        for (int i = 0; i < count; i++) {
+            read[i] = strings[readVarInt(data)];
+        }
+        return List.of(read);
+    }
+
+    private static void writeMembers(DataOutputStream data, Map<String, Integer> table, List<Member> members) throws IOException {
+        writeVarInt(data, members.size());
+        for (Member member : members) {
+            writeVarInt(data, table.get(member.name()));
+            writeStrings(data, table, member.parameterTypes());
+        }
+    }
+
+    private static List<Member> readMembers(DataInputStream data, String[] strings) throws IOException {
+        int count = readCount(data);
+        if (count == 0) {
+            return List.of();
+        }
+        Member[] members = new Member[count];
+        for (int i = 0; i < count; i++) {
+            members[i] = new Member(strings[readVarInt(data)], readStrings(data, strings));
+        }
+        return List.of(members);
+    }
+
+    private static int readCount(DataInputStream data) throws IOException {
+        int count = readVarInt(data);
+        if (count < 0 || count > 1 << 24) {
+            throw new IOException("Corrupt bean index");
+        }
+        return count;
+    }
+
+    private static void writeVarInt(DataOutputStream data, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            data.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream data) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = data.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt bean index");
+    }
+
+    /**
+     * A class compiled with the processor.
+     *
+     * @param className  The binary name of the class
+     * @param flags      The class flags, {@link #INTERCEPTOR}, {@link #DECORATOR} and {@link #PRIORITY}
+     * @param observers  The observer methods the class declares
+     * @param overrides  The methods the class declares that override an observer method without being observers
+     */
+    record Entry(String className, int flags, List<Member> observers, List<Member> overrides) {
+
+        /**
+         * Checks whether the class declares observer methods, or methods overriding them.
+         *
+         * @return true if observer discovery has to look at the class's methods
+         */
+        boolean hasObserverMethods() {
+            return !observers.isEmpty() || !overrides.isEmpty();
+        }
+
+        /**
+         * Checks whether a method of the class is one of its observers, or overrides one.
+         *
+         * @param method A method declared by the class
+         * @return true if the method is listed as an observer or an override
+         */
+        boolean listsObserver(Method method) {
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            for (Member member : observers) {
+                if (member.matches(method.getName(), parameterTypes)) {
+                    return true;
+                }
+            }
+            for (Member member : overrides) {
+                if (member.matches(method.getName(), parameterTypes)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A method of an indexed class.
+     *
+     * @param name           The method name
+     * @param parameterTypes The erased parameter types, as {@link Class#getName()} returns them
+     */
+    record Member(String name, List<String> parameterTypes) {
+
+        boolean matches(String name, Class<?>[] parameterTypes) {
+            if (!this.name.equals(name) || this.parameterTypes.size() != parameterTypes.length) {
+                return false;
+            }
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (!this.parameterTypes.get(i).equals(parameterTypes[i].getName())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.guicedee.cdi;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * An annotation processor writing the bean discovery index of a compilation to {@value BeanIndexFile#RESOURCE}.
+ * <p>
+ * Every class of the compilation is listed, with its observer methods and whether it is an interceptor or decorator
+ * enabled with {@code @Priority}, so the bridge can skip reflecting over it at boot. On incremental builds, the entries
+ * of an existing index are kept for the classes that were not recompiled and whose class files are still in the class
+ * output; entries of deleted classes are dropped.
+ * <p>
+ * The index only covers what the bridge would otherwise reflect over or read from the GuicedEE scan result. Scopes,
+ * qualifiers and bean names are not listed, as the bean manager reads them from the injector's bindings, and the
+ * GuicedEE classpath scan itself still runs: the bridge only skips the scan entries of the classes the index lists.
+ * <p>
+ * The processor claims no annotations and is not registered as a service, so compilations that depend on this module
+ * do not run it implicitly. Name it to use it, with the module on the annotation processor path:
+ * {@code <annotationProcessors><annotationProcessor>com.guicedee.cdi.BeanIndexProcessor</annotationProcessor></annotationProcessors>}
+ */
+@SupportedAnnotationTypes("*")
+public class BeanIndexProcessor extends AbstractProcessor {
+
+    private static final String OBSERVES = "jakarta.enterprise.event.Observes";
+    private static final String OBSERVES_ASYNC = "jakarta.enterprise.event.ObservesAsync";
+
+    private final Map<String, BeanIndexFile.Entry> entries = new TreeMap<>();
+
+    /**
+     * Creates the processor, called by the compiler.
+     */
+    public BeanIndexProcessor() {
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (TypeElement type : ElementFilter.typesIn(round.getRootElements())) {
+            collect(type);
+        }
+        if (round.processingOver() && !entries.isEmpty()) {
+            write();
+        }
+        return false;
+    }
+
+    private void collect(TypeElement type) {
+        if (type.getKind() == ElementKind.CLASS || type.getKind() == ElementKind.RECORD || type.getKind() == ElementKind.ENUM) {
+            BeanIndexFile.Entry entry = entryOf(type);
+            entries.put(entry.className(), entry);
+        }
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            collect(nested);
+        }
+    }
+
+    private BeanIndexFile.Entry entryOf(TypeElement type) {
+        int flags = 0;
+        for (AnnotationMirror annotation : type.getAnnotationMirrors()) {
+            switch (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString()) {
+                case "jakarta.interceptor.Interceptor" -> flags |= BeanIndexFile.INTERCEPTOR;
+                case "jakarta.decorator.Decorator" -> flags |= BeanIndexFile.DECORATOR;
+                case "jakarta.annotation.Priority" -> flags |= BeanIndexFile.PRIORITY;
+                default -> {
+                }
+            }
+        }
+
+        List<BeanIndexFile.Member> observers = new ArrayList<>();
+        List<BeanIndexFile.Member> overrides = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (observedParameter(method) != null) {
+                observers.add(new BeanIndexFile.Member(method.getSimpleName().toString(), parameterTypes(method)));
+            } else if (overridesObserver(type, method)) {
+                overrides.add(new BeanIndexFile.Member(method.getSimpleName().toString(), parameterTypes(method)));
+            }
+        }
+        return new BeanIndexFile.Entry(processingEnv.getElementUtils().getBinaryName(type).toString(), flags,
+                List.copyOf(observers), List.copyOf(overrides));
+    }
+
+    private static VariableElement observedParameter(ExecutableElement method) {
+        for (VariableElement parameter : method.getParameters()) {
+            if (hasAnnotation(parameter, OBSERVES) || hasAnnotation(parameter, OBSERVES_ASYNC)) {
+                return parameter;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a method that is not an observer overrides an observer method of a superclass, which it then
+     * stops from being notified.
+     */
+    private boolean overridesObserver(TypeElement type, ExecutableElement method) {
+        Set<Modifier> modifiers = method.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC) || method.getParameters().isEmpty()) {
+            return false;
+        }
+        Elements elements = processingEnv.getElementUtils();
+        for (TypeMirror superclass = type.getSuperclass(); superclass.getKind() == TypeKind.DECLARED; ) {
+            TypeElement superType = (TypeElement) ((DeclaredType) superclass).asElement();
+            for (ExecutableElement superMethod : ElementFilter.methodsIn(superType.getEnclosedElements())) {
+                if (observedParameter(superMethod) != null && elements.overrides(method, superMethod, type)) {
+                    return true;
+                }
+            }
+            superclass = superType.getSuperclass();
+        }
+        return false;
+    }
+
+    private static boolean hasAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<String> parameterTypes(ExecutableElement method) {
+        List<String> types = new ArrayList<>();
+        for (VariableElement parameter : method.getParameters()) {
+            types.add(className(parameter.asType()));
+        }
+        return List.copyOf(types);
+    }
+
+    /**
+     * Gets the name {@link Class#getName()} returns for the erasure of a type.
+     */
+    private String className(TypeMirror type) {
+        Types types = processingEnv.getTypeUtils();
+        TypeMirror erased = types.erasure(type);
+        if (erased.getKind().isPrimitive() || erased.getKind() == TypeKind.VOID) {
+            return erased.getKind().name().toLowerCase(Locale.ROOT);
+        }
+        if (erased.getKind() == TypeKind.ARRAY) {
+            return "[" + descriptor(((ArrayType) erased).getComponentType());
+        }
+        if (erased.getKind() == TypeKind.DECLARED) {
+            return processingEnv.getElementUtils().getBinaryName((TypeElement) ((DeclaredType) erased).asElement()).toString();
+        }
+        return "java.lang.Object";
+    }
+
+    private String descriptor(TypeMirror component) {
+        return switch (component.getKind()) {
+            case BOOLEAN -> "Z";
+            case BYTE -> "B";
+            case CHAR -> "C";
+            case SHORT -> "S";
+            case INT -> "I";
+            case LONG -> "J";
+            case FLOAT -> "F";
+            case DOUBLE -> "D";
+            case ARRAY -> "[" + descriptor(((ArrayType) component).getComponentType());
+            default -> "L" + className(component) + ";";
+        };
+    }
+
+    /**
+     * Writes the index, keeping the entries of a previous index for classes that were not recompiled and whose class
+     * files are still in the class output, so deleted classes drop out.
+     */
+    private void write() {
+        Filer filer = processingEnv.getFiler();
+        Set<String> recompiled = new HashSet<>();
+        for (String className : entries.keySet()) {
+            recompiled.add(topLevel(className));
+        }
+        Map<String, BeanIndexFile.Entry> merged = new TreeMap<>();
+        try {
+            FileObject existing = filer.getResource(StandardLocation.CLASS_OUTPUT, "", BeanIndexFile.RESOURCE);
+            try (InputStream in = existing.openInputStream()) {
+                for (BeanIndexFile.Entry entry : BeanIndexFile.read(in).values()) {
+                    // A recompiled source lists its classes afresh, including nested classes it no longer declares
+                    if (!recompiled.contains(topLevel(entry.className())) && hasClassFile(filer, entry.className())) {
+                        merged.put(entry.className(), entry);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // No previous index, this is a full build
+        }
+        merged.putAll(entries);
+        try {
+            FileObject index = filer.createResource(StandardLocation.CLASS_OUTPUT, "", BeanIndexFile.RESOURCE);
+            try (OutputStream out = index.openOutputStream()) {
+                BeanIndexFile.write(merged.values(), out);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write the bean index: " + e);
+        }
+    }
+
+    private static String topLevel(String className) {
+        int nested = className.indexOf('$', className.lastIndexOf('.') + 1);
+        return nested < 0 ? className : className.substring(0, nested);
+    }
+
+    /**
+     * Checks whether the class output still holds the class file of an indexed class. A class found elsewhere, such
+     * as on the class path, does not keep its entry.
+     */
+    private static boolean hasClassFile(Filer filer, String className) {
+        int dot = className.lastIndexOf('.');
+        String packageName = dot < 0 ? "" : className.substring(0, dot);
+        try {
+            // A missing file has no modification time
+            return filer.getResource(StandardLocation.CLASS_OUTPUT, packageName, className.substring(dot + 1) + ".class")
+                    .getLastModified() != 0L;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+}
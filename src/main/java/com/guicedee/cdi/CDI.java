@@ -1,28 +1,49 @@
 package com.guicedee.cdi;
 
+import com.google.inject.Injector;
+import com.guicedee.client.IGuiceContext;
+
 import java.util.ServiceLoader;
 
 /**
  * Utility class for accessing the CDI bean manager.
  * This class provides a convenient way to access the CDI bean manager from anywhere in the application.
+ * <p>
+ * The {@link ICDIProvider} is located through the ServiceLoader once, and the bean manager it returns is
+ * held for as long as the Guice context keeps the same injector, so repeated static lookups do not rescan the module
+ * layer. The cache is keyed on the identity of the context's injector: other injectors, such as those of tests or
+ * embedded applications that install a {@link GuiceCDIModule} of their own, do not affect it, and a manager is only
+ * cached when it belongs to the context's injector.
  */
 public class CDI {
-    
+
+    /**
+     * The resolved provider, located once per class loader.
+     */
+    private static volatile ICDIProvider provider;
+
+    /**
+     * The bean manager resolved for the context's injector, replaced when the context's injector changes.
+     */
+    private static volatile Resolved resolved = new Resolved(null, null);
+
     /**
      * Gets the CDI bean manager.
      * 
      * @return The CDI bean manager
      */
     public static GuiceCDIBeanManager getBeanManager() {
-        // Use the ServiceLoader to get the ICDIProvider implementation
-        ServiceLoader<ICDIProvider> providers = ServiceLoader.load(ICDIProvider.class);
-        
-        // Get the first provider
-        ICDIProvider provider = providers.findFirst()
-                .orElseThrow(() -> new IllegalStateException("No ICDIProvider implementation found"));
-        
-        // Return the bean manager
-        return provider.getBeanManager();
+        Injector injector = IGuiceContext.instance().inject();
+        Resolved current = resolved;
+        if (current.injector == injector && injector != null) {
+            return current.beanManager;
+        }
+        GuiceCDIBeanManager beanManager = getProvider().getBeanManager();
+        // A provider may answer from another injector, such as one replacing the context while this lookup ran
+        if (beanManager != null && beanManager.getInjector() == injector) {
+            resolved = new Resolved(injector, beanManager);
+        }
+        return beanManager;
     }
     
     /**
@@ -58,4 +79,30 @@ public class CDI {
     public static <T> boolean containsBean(Class<T> beanType) {
         return getBeanManager().containsBean(beanType);
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the ICDIProvider implementation, loading it through the ServiceLoader on first use.
+     *
+     * @return The CDI provider
+     */
+    private static ICDIProvider getProvider() {
+        ICDIProvider cdiProvider = provider;
+        if (cdiProvider == null) {
+            // Use the ServiceLoader to get the ICDIProvider implementation
+            cdiProvider = ServiceLoader.load(ICDIProvider.class)
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No ICDIProvider implementation found"));
+            provider = cdiProvider;
+        }
+        return cdiProvider;
+    }
+
+    /**
+     * Immutable holder for the resolved bean manager.
+     *
+     * @param injector    The context's injector the bean manager was resolved for, or null when not yet resolved
+     * @param beanManager The bean manager of that injector
+     */
+    private record Resolved(Injector injector, GuiceCDIBeanManager beanManager) {
+    }
+}
@@ -0,0 +1,269 @@
+package com.guicedee.cdi;
+
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.TypeKind;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.ConstantDescs;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Client proxies of normal scoped beans, generated as hidden classes.
+ * <p>
+ * The proxy class of a bean type is generated once, in the bean type's own package, and either implements the type
+ * when it is an interface or extends it when it is a class. Every method the proxy can override loads the contextual
+ * instance from a {@link Supplier} and calls the same method on it, with plain {@code invokeinterface} and
+ * {@code invokevirtual} instructions: there is no reflection and no {@code InvocationHandler} on the call path, so the
+ * JIT inlines the proxy like any other small method. The class file is built with the {@link ClassFile} API.
+ * <p>
+ * A class is proxyable when it is not final, sealed, primitive or an array, has a non-private no-argument constructor,
+ * and declares no final public method other than those of {@link Object}. The no-argument constructor is called for
+ * the proxy itself, which is why CDI beans should keep it free of side effects. Methods the proxy cannot override, such
+ * as package-private methods of superclasses in other packages, are called on the proxy itself.
+ */
+final class ClientProxy {
+
+    private static final System.Logger log = System.getLogger(ClientProxy.class.getName());
+
+    private static final String TARGET = "target";
+    private static final String PROXY_SUFFIX = "$$ClientProxy";
+    private static final MethodType CONSTRUCTOR = MethodType.methodType(void.class, Supplier.class);
+
+    /**
+     * The proxy class of each bean type, or {@link #UNPROXYABLE} for types that cannot be proxied.
+     */
+    private static final ClassValue<Definition> DEFINITIONS = new ClassValue<>() {
+        @Override
+        protected Definition computeValue(Class<?> type) {
+            return define(type);
+        }
+    };
+
+    private static final Definition UNPROXYABLE = new Definition(null, null, null);
+
+    private ClientProxy() {
+    }
+
+    /**
+     * Checks whether a bean type can be proxied, generating its proxy class without creating a proxy.
+     *
+     * @param type The bean type
+     * @return True if {@link #create(Class, Supplier)} creates proxies of the type
+     */
+    static boolean isProxyable(Class<?> type) {
+        return DEFINITIONS.get(type) != UNPROXYABLE;
+    }
+
+    /**
+     * Creates a client proxy of a bean type.
+     *
+     * @param type   The bean type the proxy is assignable to
+     * @param target The supplier of the contextual instance, called on every method call
+     * @return The proxy, or null if the type cannot be proxied
+     */
+    static Object create(Class<?> type, Supplier<?> target) {
+        Definition definition = DEFINITIONS.get(type);
+        if (definition == UNPROXYABLE) {
+            return null;
+        }
+        try {
+            return (Object) definition.constructor.invokeExact(target);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException("Could not create the client proxy of " + type.getName(), t);
+        }
+    }
+
+    /**
+     * Gets the contextual instance behind a client proxy.
+     *
+     * @param instance An instance, which may be a client proxy
+     * @return The contextual instance of the proxy, or the instance itself if it is not a client proxy
+     */
+    static Object unwrap(Object instance) {
+        if (instance == null || !instance.getClass().isHidden() || !instance.getClass().getName().contains(PROXY_SUFFIX + "/")) {
+            return instance;
+        }
+        // The proxy class implements the bean type when it is an interface, and extends it otherwise
+        Class<?> proxyClass = instance.getClass();
+        Class<?>[] interfaces = proxyClass.getInterfaces();
+        Definition definition = DEFINITIONS.get(interfaces.length == 1 ? interfaces[0] : proxyClass.getSuperclass());
+        if (definition.proxyClass != proxyClass) {
+            return instance;
+        }
+        try {
+            return ((Supplier<?>) definition.target.invokeExact(instance)).get();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static Definition define(Class<?> type) {
+        Map<String, Method> methods = proxiedMethods(type);
+        if (methods == null) {
+            return UNPROXYABLE;
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            byte[] bytes = generate(type, methods.values());
+            MethodHandles.Lookup proxyLookup = lookup.defineHiddenClass(bytes, true);
+            Class<?> proxyClass = proxyLookup.lookupClass();
+            MethodHandle constructor = proxyLookup.findConstructor(proxyClass, CONSTRUCTOR)
+                    .asType(MethodType.methodType(Object.class, Supplier.class));
+            MethodHandle target = proxyLookup.findGetter(proxyClass, TARGET, Supplier.class)
+                    .asType(MethodType.methodType(Supplier.class, Object.class));
+            return new Definition(proxyClass, constructor, target);
+        } catch (IllegalAccessException | NoSuchMethodException | NoSuchFieldException | LinkageError e) {
+            log.log(System.Logger.Level.WARNING, "Cannot generate a client proxy of " + type.getName()
+                    + ", open its package to com.guicedee.cdi", e);
+            return UNPROXYABLE;
+        }
+    }
+
+    /**
+     * Collects the methods a proxy of the type overrides, by name and descriptor, most specific first.
+     *
+     * @return The methods, or null if the type cannot be proxied
+     */
+    private static Map<String, Method> proxiedMethods(Class<?> type) {
+        if (type.isPrimitive() || type.isArray() || type.isSealed() || type.isHidden() || type == Object.class) {
+            return null;
+        }
+        Map<String, Method> methods = new LinkedHashMap<>();
+        if (type.isInterface()) {
+            for (Method method : type.getMethods()) {
+                if (!Modifier.isStatic(method.getModifiers())) {
+                    methods.putIfAbsent(signature(method), method);
+                }
+            }
+        } else {
+            if (Modifier.isFinal(type.getModifiers()) || Modifier.isAbstract(type.getModifiers())
+                    || (type.isMemberClass() && !Modifier.isStatic(type.getModifiers())) || !hasProxyConstructor(type)) {
+                log.log(System.Logger.Level.DEBUG, "{0} is not proxyable, it will be created eagerly", type.getName());
+                return null;
+            }
+            for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+                for (Method method : c.getDeclaredMethods()) {
+                    int modifiers = method.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isPrivate(modifiers)) {
+                        continue;
+                    }
+                    boolean samePackage = c.getPackage() == type.getPackage() && c.getClassLoader() == type.getClassLoader();
+                    if (!Modifier.isPublic(modifiers) && !samePackage) {
+                        continue;
+                    }
+                    String signature = signature(method);
+                    if (Modifier.isFinal(modifiers)) {
+                        if (Modifier.isPublic(modifiers)) {
+                            log.log(System.Logger.Level.DEBUG, "{0} is not proxyable, {1} is final", type.getName(), method);
+                            return null;
+                        }
+                        // Remember it so a superclass method of the same signature is not overridden
+                        methods.putIfAbsent(signature, null);
+                        continue;
+                    }
+                    methods.putIfAbsent(signature, method);
+                }
+            }
+        }
+        for (String name : new String[]{"equals", "hashCode", "toString"}) {
+            try {
+                Method method = Object.class.getMethod(name, name.equals("equals") ? new Class<?>[]{Object.class} : new Class<?>[0]);
+                methods.putIfAbsent(signature(method), method);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        methods.values().removeIf(Objects::isNull);
+        return methods;
+    }
+
+    private static boolean hasProxyConstructor(Class<?> type) {
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            if (constructor.getParameterCount() == 0 && !Modifier.isPrivate(constructor.getModifiers())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String signature(Method method) {
+        return method.getName() + descriptor(method);
+    }
+
+    private static String descriptor(Method method) {
+        return MethodType.methodType(method.getReturnType(), method.getParameterTypes()).toMethodDescriptorString();
+    }
+
+    /**
+     * Builds the class file of a proxy class.
+     */
+    private static byte[] generate(Class<?> type, Iterable<Method> methods) {
+        ClassDesc typeDesc = describe(type);
+        ClassDesc superDesc = type.isInterface() ? ConstantDescs.CD_Object : typeDesc;
+        ClassDesc proxyDesc = ClassDesc.of(type.getName() + PROXY_SUFFIX);
+        ClassDesc supplierDesc = describe(Supplier.class);
+        return ClassFile.of().build(proxyDesc, proxy -> {
+            proxy.withFlags(ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL | ClassFile.ACC_SUPER | ClassFile.ACC_SYNTHETIC)
+                    .withSuperclass(superDesc);
+            if (type.isInterface()) {
+                proxy.withInterfaceSymbols(typeDesc);
+            }
+            proxy.withField(TARGET, supplierDesc, ClassFile.ACC_PRIVATE | ClassFile.ACC_FINAL);
+
+            // The constructor stores the target before calling the super constructor, so calls made by it are proxied too
+            proxy.withMethodBody(ConstantDescs.INIT_NAME, MethodTypeDesc.of(ConstantDescs.CD_void, supplierDesc), ClassFile.ACC_PUBLIC,
+                    code -> code.aload(0)
+                            .aload(1)
+                            .putfield(proxyDesc, TARGET, supplierDesc)
+                            .aload(0)
+                            .invokespecial(superDesc, ConstantDescs.INIT_NAME, ConstantDescs.MTD_void)
+                            .return_());
+
+            for (Method method : methods) {
+                boolean onObject = method.getDeclaringClass() == Object.class;
+                MethodTypeDesc descriptor = MethodTypeDesc.ofDescriptor(descriptor(method));
+                int access = method.getModifiers() & (Modifier.PUBLIC | Modifier.PROTECTED);
+                proxy.withMethodBody(method.getName(), descriptor, access, code -> {
+                    code.aload(0)
+                            .getfield(proxyDesc, TARGET, supplierDesc)
+                            .invokeinterface(supplierDesc, "get", MethodTypeDesc.of(ConstantDescs.CD_Object));
+                    if (!onObject) {
+                        code.checkcast(typeDesc);
+                    }
+                    Class<?>[] parameters = method.getParameterTypes();
+                    for (int i = 0; i < parameters.length; i++) {
+                        code.loadLocal(TypeKind.from(parameters[i]), code.parameterSlot(i));
+                    }
+                    if (onObject) {
+                        code.invokevirtual(ConstantDescs.CD_Object, method.getName(), descriptor);
+                    } else if (type.isInterface()) {
+                        code.invokeinterface(typeDesc, method.getName(), descriptor);
+                    } else {
+                        code.invokevirtual(typeDesc, method.getName(), descriptor);
+                    }
+                    code.return_(TypeKind.from(method.getReturnType()));
+                });
+            }
+        });
+    }
+
+    private static ClassDesc describe(Class<?> type) {
+        return type.describeConstable().orElseThrow();
+    }
+
+    private record Definition(Class<?> proxyClass, MethodHandle constructor, MethodHandle target) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.guicedee.cdi;
+
+import com.google.inject.Binding;
+import com.google.inject.Key;
+import com.google.inject.matcher.Matcher;
+import com.google.inject.spi.LinkedKeyBinding;
+import com.google.inject.spi.ProvisionListener;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.ObservesAsync;
+import jakarta.enterprise.event.Reception;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which beans declaring {@link Reception#IF_EXISTS} observer methods have been created, so those observers are
+ * only notified once their bean exists.
+ * <p>
+ * Request scoped beans are looked up in the active request context. For beans of other scopes, the tracker listens to
+ * the provisioning of the bindings whose class declares a conditional observer, which keeps every other binding free
+ * of the listener.
+ */
+final class ConditionalObservers implements Matcher<Binding<?>>, ProvisionListener {
+
+    private static final ClassValue<Boolean> CONDITIONAL = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> declaring = type; declaring != null && declaring != Object.class; declaring = declaring.getSuperclass()) {
+                for (Method method : declaring.getDeclaredMethods()) {
+                    if (method.getParameterCount() > 0 && isConditional(method)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    };
+
+    private final Set<Key<?>> created = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public boolean matches(Binding<?> binding) {
+        Class<?> type = binding.getKey().getTypeLiteral().getRawType();
+        return type.getClassLoader() != null && !type.isInterface() && CONDITIONAL.get(type);
+    }
+
+    @Override
+    public <T> void onProvision(ProvisionInvocation<T> provision) {
+        provision.provision();
+        created.add(provision.getBinding().getKey());
+    }
+
+    /**
+     * Checks whether the contextual instance of a bean exists, without creating it.
+     *
+     * @param bean The bean declaring a conditional observer
+     * @return true if the bean's instance exists
+     */
+    boolean exists(GuiceBean<?> bean) {
+        if (bean.getScope() == RequestScoped.class) {
+            return RequestContext.INSTANCE.isActive() && RequestContext.INSTANCE.get(bean) != null;
+        }
+        Binding<?> binding = bean.getBinding();
+        return created.contains(binding.getKey())
+                || (binding instanceof LinkedKeyBinding<?> linked && created.contains(linked.getLinkedKey()));
+    }
+
+    /**
+     * Checks whether a method observes events only when its bean exists.
+     *
+     * @param method The method
+     * @return true for an {@link Reception#IF_EXISTS} observer method
+     */
+    static boolean isConditional(Method method) {
+        for (Parameter parameter : method.getParameters()) {
+            Observes observes = parameter.getAnnotation(Observes.class);
+            if (observes != null) {
+                return observes.notifyObserver() == Reception.IF_EXISTS;
+            }
+            ObservesAsync observesAsync = parameter.getAnnotation(ObservesAsync.class);
+            if (observesAsync != null) {
+                return observesAsync.notifyObserver() == Reception.IF_EXISTS;
+            }
+        }
+        return false;
+    }
+}
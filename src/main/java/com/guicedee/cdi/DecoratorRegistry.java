@@ -0,0 +1,543 @@
+package com.guicedee.cdi;
+
+import com.google.inject.Binder;
+import com.google.inject.Binding;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.Provider;
+import com.google.inject.Scope;
+import com.google.inject.ProvisionException;
+import com.google.inject.TypeLiteral;
+import com.google.inject.binder.ScopedBindingBuilder;
+import com.google.inject.matcher.Matcher;
+import com.google.inject.spi.BindingScopingVisitor;
+import com.google.inject.spi.ConstructorBinding;
+import com.google.inject.spi.DefaultBindingTargetVisitor;
+import com.google.inject.spi.Element;
+import com.google.inject.spi.InjectionListener;
+import com.google.inject.spi.InjectionPoint;
+import com.google.inject.spi.InstanceBinding;
+import com.google.inject.spi.InterceptorBinding;
+import com.google.inject.spi.LinkedKeyBinding;
+import com.google.inject.spi.ProviderInstanceBinding;
+import com.google.inject.spi.ProviderKeyBinding;
+import com.google.inject.spi.TypeEncounter;
+import com.google.inject.spi.TypeListener;
+import com.google.inject.spi.TypeListenerBinding;
+import com.google.inject.spi.UntargettedBinding;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Default;
+import jakarta.enterprise.inject.spi.Decorator;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.*;
+
+/**
+ * The CDI decorators of an injector.
+ * <p>
+ * The beans Guice constructs itself, just-in-time ones included, are decorated through Guice AOP as the
+ * {@link GuiceCDIModule} is installed: the decorated methods of a bean class are intercepted, and a call is passed to
+ * the outermost decorator of the instance. The innermost decorator's delegate is a client proxy of the instance, whose
+ * calls go past the interception to the bean method. The decorators of each instance are created as Guice injects it,
+ * and kept for as long as the instance is reachable.
+ * <p>
+ * Modules wrapped with {@link GuiceCDIModule#decorate(Module...)} are decorated by rewriting their bindings instead,
+ * which also covers instance and provider bindings: the original target is bound under an {@link Undecorated} key with
+ * its original scope, and the decorated key is bound to a {@link DecoratedProvider}, so the key itself provides the
+ * outermost decorator.
+ * <p>
+ * Decorators with a lower {@code @Priority} are called first, so they wrap those with a higher one.
+ */
+final class DecoratorRegistry {
+
+    private static final Comparator<GuiceDecorator<?>> BY_PRIORITY = Comparator.comparingInt(GuiceDecorator::getPriority);
+
+    private final List<GuiceDecorator<?>> decorators;
+
+    /**
+     * Creates the registry of an injector's decorators.
+     *
+     * @param decorators The decorators, in any order
+     */
+    DecoratorRegistry(Collection<GuiceDecorator<?>> decorators) {
+        List<GuiceDecorator<?>> sorted = new ArrayList<>(decorators);
+        sorted.sort(BY_PRIORITY);
+        this.decorators = List.copyOf(sorted);
+    }
+
+    /**
+     * Resolves the decorators of a bean with the given types and qualifiers, in priority order.
+     *
+     * @param types      The bean types
+     * @param qualifiers The bean qualifiers
+     * @return The decorators
+     */
+    List<Decorator<?>> resolve(Set<Type> types, Annotation... qualifiers) {
+        Set<Annotation> beanQualifiers = new HashSet<>();
+        beanQualifiers.add(Any.Literal.INSTANCE);
+        for (Annotation qualifier : qualifiers) {
+            beanQualifiers.add(QualifierIds.normalize(qualifier));
+        }
+        if (beanQualifiers.size() == 1) {
+            beanQualifiers.add(Default.Literal.INSTANCE);
+        }
+        Set<Type> beanTypes = new HashSet<>();
+        for (Type type : types) {
+            beanTypes.add(TypeKeys.canonicalize(type));
+        }
+        List<Decorator<?>> resolved = new ArrayList<>();
+        for (GuiceDecorator<?> decorator : decorators) {
+            if (beanTypes.contains(decorator.getDelegateType()) && beanQualifiers.containsAll(decorator.getDelegateQualifiers())) {
+                resolved.add(decorator);
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Intercepts the decorated methods of the bean classes Guice constructs in an injector being configured.
+     *
+     * @param binder The binder of the injector
+     */
+    void bindInterception(Binder binder) {
+        if (!decorators.isEmpty()) {
+            Interception interception = new Interception(binder);
+            binder.bindInterceptor(interception.classMatcher(), interception.methodMatcher(), interception);
+            binder.bindListener(interception.typeMatcher(), interception);
+        }
+    }
+
+    /**
+     * Builds a module replaying the given elements, with every binding of a decorated key replaced by its decorated form.
+     * The interception of decorated bean classes and its injection listener are left out, as the decorated keys already
+     * provide their decorators.
+     *
+     * @param elements The elements of the application's modules
+     * @return The decorated module
+     */
+    Module decorate(List<Element> elements) {
+        return binder -> {
+            for (Element element : elements) {
+                if (element instanceof InterceptorBinding interceptorBinding
+                        && interceptorBinding.getInterceptors().stream().anyMatch(Interception.class::isInstance)) {
+                    continue;
+                }
+                if (element instanceof TypeListenerBinding listenerBinding && listenerBinding.getListener() instanceof Interception) {
+                    continue;
+                }
+                if (element instanceof Binding<?> binding && !decorators.isEmpty()) {
+                    GuiceDecorator<?>[] chain = chainOf(binding.getKey());
+                    if (chain.length > 0) {
+                        rebind(binder, binding, chain);
+                        continue;
+                    }
+                }
+                element.applyTo(binder);
+            }
+        };
+    }
+
+    private GuiceDecorator<?>[] chainOf(Key<?> key) {
+        if (key.getAnnotationType() == Undecorated.class) {
+            return new GuiceDecorator<?>[0];
+        }
+        List<GuiceDecorator<?>> chain = new ArrayList<>();
+        for (GuiceDecorator<?> decorator : decorators) {
+            if (decorator.decorates(key)) {
+                chain.add(decorator);
+            }
+        }
+        return chain.toArray(new GuiceDecorator<?>[0]);
+    }
+
+    /**
+     * Moves a binding to its {@link Undecorated} key, keeping its target and scope, and binds its key to the decorated provider.
+     */
+    private <T> void rebind(Binder binder, Binding<T> binding, GuiceDecorator<?>[] chain) {
+        Binder source = binder.withSource(binding.getSource());
+        Key<T> key = binding.getKey();
+        Key<T> undecorated = Key.get(key.getTypeLiteral(), new Undecorated.Literal(key.toString()));
+        ScopedBindingBuilder scoped = binding.acceptTargetVisitor(new DefaultBindingTargetVisitor<T, ScopedBindingBuilder>() {
+            @Override
+            public ScopedBindingBuilder visit(InstanceBinding<? extends T> instanceBinding) {
+                source.bind(undecorated).toInstance(instanceBinding.getInstance());
+                return null;
+            }
+
+            @Override
+            public ScopedBindingBuilder visit(ProviderInstanceBinding<? extends T> providerInstanceBinding) {
+                return source.bind(undecorated).toProvider(providerInstanceBinding.getUserSuppliedProvider());
+            }
+
+            @Override
+            public ScopedBindingBuilder visit(ProviderKeyBinding<? extends T> providerKeyBinding) {
+                return source.bind(undecorated).toProvider(providerKeyBinding.getProviderKey());
+            }
+
+            @Override
+            public ScopedBindingBuilder visit(LinkedKeyBinding<? extends T> linkedKeyBinding) {
+                return source.bind(undecorated).to(linkedKeyBinding.getLinkedKey());
+            }
+
+            @Override
+            public ScopedBindingBuilder visit(ConstructorBinding<? extends T> constructorBinding) {
+                return toConstructor(constructorBinding.getConstructor());
+            }
+
+            @Override
+            public ScopedBindingBuilder visit(UntargettedBinding<? extends T> untargettedBinding) {
+                return toConstructor(InjectionPoint.forConstructorOf(key.getTypeLiteral()));
+            }
+
+            @SuppressWarnings("unchecked")
+            private ScopedBindingBuilder toConstructor(InjectionPoint constructor) {
+                return source.bind(undecorated).toConstructor((Constructor<T>) constructor.getMember(),
+                        (TypeLiteral<T>) constructor.getDeclaringType());
+            }
+
+            @Override
+            protected ScopedBindingBuilder visitOther(Binding<? extends T> other) {
+                throw new IllegalArgumentException("Cannot decorate " + key + ", bound by " + other);
+            }
+        });
+        if (scoped != null) {
+            binding.acceptScopingVisitor(new BindingScopingVisitor<Void>() {
+                @Override
+                public Void visitEagerSingleton() {
+                    scoped.asEagerSingleton();
+                    return null;
+                }
+
+                @Override
+                public Void visitScope(Scope scope) {
+                    scoped.in(scope);
+                    return null;
+                }
+
+                @Override
+                public Void visitScopeAnnotation(Class<? extends Annotation> scopeAnnotation) {
+                    scoped.in(scopeAnnotation);
+                    return null;
+                }
+
+                @Override
+                public Void visitNoScoping() {
+                    return null;
+                }
+            });
+        }
+        GuiceDecorator<?>.Factory[] factories = new GuiceDecorator<?>.Factory[chain.length];
+        for (int i = 0; i < chain.length; i++) {
+            factories[i] = chain[i].factory(source);
+        }
+        source.bind(key).toProvider(new DecoratedProvider<>(source.getProvider(undecorated), factories));
+    }
+
+    /**
+     * Provides a decorated key: the original instance wrapped with every decorator of the key.
+     * <p>
+     * The chain is built from the innermost decorator outwards. The last chain is kept and reused for as long as the
+     * original provider returns the same instance, so decorated singletons stay singletons and the original's scope
+     * decides when a new chain is built.
+     *
+     * @param <T> The decorated type
+     */
+    private static final class DecoratedProvider<T> implements Provider<T> {
+        private final Provider<T> undecorated;
+        private final GuiceDecorator<?>.Factory[] factories;
+        private volatile Chain last;
+
+        private DecoratedProvider(Provider<T> undecorated, GuiceDecorator<?>.Factory[] factories) {
+            this.undecorated = undecorated;
+            this.factories = factories;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get() {
+            T instance = undecorated.get();
+            Chain chain = last;
+            if (chain != null && chain.instance == instance) {
+                return (T) chain.outermost;
+            }
+            synchronized (this) {
+                chain = last;
+                if (chain != null && chain.instance == instance) {
+                    return (T) chain.outermost;
+                }
+                Object outer = instance;
+                for (int i = factories.length - 1; i >= 0; i--) {
+                    outer = factories[i].create(outer);
+                }
+                last = new Chain(instance, outer);
+                return (T) outer;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "DecoratedProvider[" + factories.length + " decorators]";
+        }
+
+        private record Chain(Object instance, Object outermost) {
+        }
+    }
+
+    /**
+     * The decorators of the bean classes Guice constructs, applied by intercepting their decorated methods.
+     * <p>
+     * Which methods are intercepted is decided from the method alone, as Guice does not promise in which order it asks
+     * the class and method matchers: a method is matched when the delegate type of a decorator declares it. The exact
+     * decorators of each bean class are planned once, when Guice first encounters the class, and the decorators of each
+     * instance are created as soon as it is injected. A decorated call then costs a lookup of the instance in a
+     * {@link WeakIdentityMap}, which allocates nothing, and a method handle call on the outermost decorator.
+     */
+    private final class Interception implements MethodInterceptor, TypeListener {
+
+        /**
+         * The bean instance whose next intercepted call on this thread comes from its innermost delegate, and so goes
+         * to the bean method itself.
+         */
+        private static final ThreadLocal<Object> UNDECORATED = new ThreadLocal<>();
+
+        private final Map<GuiceDecorator<?>, GuiceDecorator<?>.Factory> factories = new HashMap<>();
+
+        /**
+         * The name and parameter types of every method of a delegate type, which are the methods that may be decorated.
+         */
+        private final Set<List<Object>> signatures = new HashSet<>();
+
+        private final ClassValue<Plan> plans = new ClassValue<>() {
+            @Override
+            protected Plan computeValue(Class<?> beanClass) {
+                return planOf(beanClass);
+            }
+        };
+
+        /**
+         * The outermost decorator of every decorated instance, by the slot of its delegate type in the instance's plan.
+         */
+        private final WeakIdentityMap<Object[]> outermost = new WeakIdentityMap<>();
+
+        private Interception(Binder binder) {
+            for (GuiceDecorator<?> decorator : decorators) {
+                factories.put(decorator, decorator.factory(binder));
+                Class<?> delegateType = decorator.rawDelegateType();
+                if (delegateType.isInterface()) {
+                    for (Method method : delegateType.getMethods()) {
+                        signatures.add(signature(method));
+                    }
+                }
+            }
+        }
+
+        Matcher<Class<?>> classMatcher() {
+            return new Matcher<>() {
+                @Override
+                public boolean matches(Class<?> beanClass) {
+                    return isDecorated(beanClass);
+                }
+
+                @Override
+                public String toString() {
+                    return "decoratedBy(" + decorators + ")";
+                }
+            };
+        }
+
+        Matcher<Method> methodMatcher() {
+            return new Matcher<>() {
+                @Override
+                public boolean matches(Method method) {
+                    return isDecoratable(method) && signatures.contains(signature(method));
+                }
+
+                @Override
+                public String toString() {
+                    return "decorated()";
+                }
+            };
+        }
+
+        Matcher<TypeLiteral<?>> typeMatcher() {
+            return new Matcher<>() {
+                @Override
+                public boolean matches(TypeLiteral<?> type) {
+                    return isDecorated(type.getRawType());
+                }
+
+                @Override
+                public String toString() {
+                    return "decoratedBy(" + decorators + ")";
+                }
+            };
+        }
+
+        private boolean isDecorated(Class<?> beanClass) {
+            if (beanClass.isAnnotationPresent(jakarta.decorator.Decorator.class)
+                    || beanClass.isAnnotationPresent(jakarta.interceptor.Interceptor.class)) {
+                return false;
+            }
+            for (GuiceDecorator<?> decorator : decorators) {
+                if (decorator.decorates(beanClass)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isDecoratable(Method method) {
+            int modifiers = method.getModifiers();
+            return Modifier.isPublic(modifiers) && !Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers)
+                    && !method.isSynthetic() && !method.isBridge();
+        }
+
+        private static List<Object> signature(Method method) {
+            return List.of(method.getName(), List.of(method.getParameterTypes()));
+        }
+
+        /**
+         * Creates the decorators of every instance of a decorated bean class as Guice injects it.
+         */
+        @Override
+        public <I> void hear(TypeLiteral<I> type, TypeEncounter<I> encounter) {
+            Plan plan = plans.get(type.getRawType());
+            if (plan != Plan.NONE) {
+                encounter.register((InjectionListener<I>) instance -> outermostOf(instance, plan));
+            }
+        }
+
+        /**
+         * Plans the decorators of a bean class: for each method, the decorators whose delegate type declares it.
+         *
+         * @return The plan, or {@link Plan#NONE} when no method of the class is decorated
+         */
+        private Plan planOf(Class<?> beanClass) {
+            if (!isDecorated(beanClass)) {
+                return Plan.NONE;
+            }
+            List<Class<?>> delegateTypes = new ArrayList<>();
+            List<GuiceDecorator<?>.Factory[]> chains = new ArrayList<>();
+            Map<Method, Call> calls = new HashMap<>();
+            for (Method method : beanClass.getMethods()) {
+                if (!isDecoratable(method) || !signatures.contains(signature(method))) {
+                    continue;
+                }
+                Class<?> delegateType = null;
+                Method declared = null;
+                List<GuiceDecorator<?>.Factory> chain = new ArrayList<>();
+                for (GuiceDecorator<?> decorator : decorators) {
+                    Class<?> type = decorator.rawDelegateType();
+                    if (!type.isInterface() || !decorator.decorates(beanClass) || (delegateType != null && type != delegateType)) {
+                        continue;
+                    }
+                    try {
+                        declared = type.getMethod(method.getName(), method.getParameterTypes());
+                    } catch (NoSuchMethodException e) {
+                        continue;
+                    }
+                    delegateType = type;
+                    chain.add(factories.get(decorator));
+                }
+                if (chain.isEmpty() || !declared.trySetAccessible()) {
+                    continue;
+                }
+                int slot = delegateTypes.indexOf(delegateType);
+                if (slot < 0) {
+                    slot = delegateTypes.size();
+                    delegateTypes.add(delegateType);
+                    chains.add(chain.toArray(new GuiceDecorator<?>.Factory[0]));
+                }
+                try {
+                    MethodHandle handle = MethodHandles.lookup().unreflect(declared)
+                            .asSpreader(Object[].class, method.getParameterCount())
+                            .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+                    calls.put(method, new Call(slot, handle));
+                } catch (IllegalAccessException e) {
+                    // Left undecorated, as with an inaccessible delegate method
+                }
+            }
+            if (calls.isEmpty()) {
+                return Plan.NONE;
+            }
+            return new Plan(delegateTypes.toArray(new Class<?>[0]), chains.toArray(new GuiceDecorator<?>.Factory[0][]), Map.copyOf(calls));
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Object instance = invocation.getThis();
+            if (UNDECORATED.get() == instance) {
+                UNDECORATED.remove();
+                return invocation.proceed();
+            }
+            // Guice enhances a bean class with a subclass of it
+            Plan plan = plans.get(instance.getClass().getSuperclass());
+            Call call = plan.calls.get(invocation.getMethod());
+            if (call == null) {
+                return invocation.proceed();
+            }
+            Object[] chains = outermost.get(instance);
+            if (chains == null) {
+                chains = outermostOf(instance, plan);
+            }
+            try {
+                return call.handle.invokeExact(chains[call.slot], invocation.getArguments());
+            } finally {
+                // A delegate call the bean does not intercept, such as toString(), leaves its mark behind
+                UNDECORATED.remove();
+            }
+        }
+
+        /**
+         * Creates the decorator chains of an instance, one for each delegate type of its plan, unless it already has them.
+         * The innermost decorator's delegate is a client proxy of the instance, whose calls go past the interception.
+         */
+        private Object[] outermostOf(Object instance, Plan plan) {
+            Object[] chains = new Object[plan.delegateTypes.length];
+            WeakReference<Object> bean = new WeakReference<>(instance);
+            for (int slot = 0; slot < chains.length; slot++) {
+                Class<?> delegateType = plan.delegateTypes[slot];
+                Object outer = ClientProxy.create(delegateType, () -> {
+                    Object undecorated = bean.get();
+                    UNDECORATED.set(undecorated);
+                    return undecorated;
+                });
+                if (outer == null) {
+                    throw new ProvisionException("Cannot create the delegate of " + instance.getClass().getSuperclass().getName()
+                            + " for its decorators, open the package of " + delegateType.getName() + " to com.guicedee.cdi");
+                }
+                GuiceDecorator<?>.Factory[] chain = plan.chains[slot];
+                for (int i = chain.length - 1; i >= 0; i--) {
+                    outer = chain[i].create(outer);
+                }
+                chains[slot] = outer;
+            }
+            return outermost.putIfAbsent(instance, chains);
+        }
+    }
+
+    /**
+     * The decorators of a bean class: the delegate types its decorated methods are declared by, the decorators of each,
+     * and the delegate type slot and delegate method of each decorated method.
+     */
+    private record Plan(Class<?>[] delegateTypes, GuiceDecorator<?>.Factory[][] chains, Map<Method, Call> calls) {
+        private static final Plan NONE = new Plan(new Class<?>[0], new GuiceDecorator<?>.Factory[0][], Map.of());
+    }
+
+    /**
+     * A decorated method: the slot of its delegate type in the plan, and the method of the delegate type to call on the
+     * outermost decorator.
+     */
+    private record Call(int slot, MethodHandle handle) {
+    }
+}
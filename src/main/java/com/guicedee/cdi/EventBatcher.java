@@ -0,0 +1,189 @@
+package com.guicedee.cdi;
+
+import com.google.inject.util.Types;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffers events fired with {@link Batched} and delivers them to the observers of an injector once per window.
+ * <p>
+ * Firing a batched event only appends it to a lock-free queue and bumps a counter; the first event of a window
+ * schedules its delivery, and reaching the batch size starts it immediately. A single daemon thread only keeps the
+ * time of the windows: each delivery runs on a virtual thread of the asynchronous observer executor, so a slow
+ * observer only holds up its own buffer. Batches of a buffer are still delivered one at a time and in order.
+ */
+final class EventBatcher {
+
+    private static final System.Logger log = System.getLogger(EventBatcher.class.getName());
+
+    /**
+     * Starts the deliveries of windows that have passed. Deliveries never run on this thread.
+     */
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("guicedee-cdi-batch").daemon().factory());
+
+    private final ObserverRegistry observers;
+    private final Map<BufferKey, Buffer> buffers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the batcher of an injector's observers.
+     *
+     * @param observers The observers batches are delivered to
+     */
+    EventBatcher(ObserverRegistry observers) {
+        this.observers = observers;
+    }
+
+    /**
+     * Gets the buffer of an event class, qualifiers and batch settings.
+     *
+     * @param eventClass The runtime class of the events
+     * @param qualifiers The event qualifiers, without {@link Batched}
+     * @param batched    The batch settings
+     * @return The buffer, shared by every event fired with the same class, qualifiers and settings
+     */
+    Buffer buffer(Class<?> eventClass, Annotation[] qualifiers, Batched batched) {
+        BufferKey key = new BufferKey(eventClass, List.of(qualifiers), batched.windowMillis(), batched.maxSize());
+        Buffer buffer = buffers.get(key);
+        if (buffer == null) {
+            buffer = buffers.computeIfAbsent(key, k -> new Buffer(k, qualifiers));
+        }
+        return buffer;
+    }
+
+    /**
+     * Delivers every buffered event now, on the calling thread.
+     */
+    void flush() {
+        for (Buffer buffer : buffers.values()) {
+            buffer.delivering.lock();
+            try {
+                buffer.deliver();
+            } finally {
+                buffer.delivering.unlock();
+            }
+        }
+    }
+
+    /**
+     * The events buffered for one event class, qualifiers and batch settings.
+     */
+    final class Buffer {
+        private final Class<?> eventClass;
+        private final Type batchType;
+        private final Annotation[] qualifiers;
+        private final long windowMillis;
+        private final int maxSize;
+        private final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean due = new AtomicBoolean();
+
+        /**
+         * Delivers the batches of the buffer one at a time. A lock rather than a monitor, so a virtual thread waiting
+         * on a slow observer never holds on to its carrier.
+         */
+        private final ReentrantLock delivering = new ReentrantLock();
+
+        private Buffer(BufferKey key, Annotation[] qualifiers) {
+            this.eventClass = key.eventClass();
+            this.batchType = TypeKeys.canonicalize(Types.listOf(eventClass));
+            this.qualifiers = qualifiers.clone();
+            this.windowMillis = key.windowMillis();
+            this.maxSize = key.maxSize();
+        }
+
+        /**
+         * Gets the runtime class of the buffered events.
+         *
+         * @return The event class
+         */
+        Class<?> getEventClass() {
+            return eventClass;
+        }
+
+        /**
+         * Buffers an event for the next delivery.
+         *
+         * @param event The event
+         */
+        void add(Object event) {
+            queue.offer(event);
+            if (pending.incrementAndGet() >= maxSize) {
+                if (!due.getAndSet(true)) {
+                    ObserverRegistry.ASYNC_EXECUTOR.execute(this::flush);
+                }
+            } else if (!scheduled.getAndSet(true)) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            SCHEDULER.schedule(() -> ObserverRegistry.ASYNC_EXECUTOR.execute(this::flush), windowMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void flush() {
+            delivering.lock();
+            try {
+                scheduled.set(false);
+                due.set(false);
+                deliver();
+                if (pending.get() > 0 && !scheduled.getAndSet(true)) {
+                    schedule();
+                }
+            } finally {
+                delivering.unlock();
+            }
+        }
+
+        /**
+         * Drains the queue in batches of at most the batch size, and notifies the observers of each batch and of
+         * its latest event.
+         */
+        private void deliver() {
+            while (!queue.isEmpty()) {
+                List<Object> batch = new ArrayList<>(Math.min(Math.max(pending.get(), 1), maxSize));
+                Object event;
+                while (batch.size() < maxSize && (event = queue.poll()) != null) {
+                    batch.add(event);
+                }
+                if (batch.isEmpty()) {
+                    return;
+                }
+                pending.addAndGet(-batch.size());
+                try {
+                    observers.fire(Collections.unmodifiableList(batch), batchType, qualifiers);
+                    observers.fire(batch.get(batch.size() - 1), eventClass, qualifiers);
+                } catch (RuntimeException e) {
+                    log.log(System.Logger.Level.ERROR, "Observer failed while delivering a batch of " + batch.size()
+                            + " " + eventClass.getName() + " events with qualifiers " + Arrays.toString(qualifiers), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Identifies a buffer.
+     *
+     * @param eventClass   The runtime class of the events
+     * @param qualifiers   The event qualifiers
+     * @param windowMillis The batch window
+     * @param maxSize      The maximum batch size
+     */
+    private record BufferKey(Class<?> eventClass, List<Annotation> qualifiers, long windowMillis, int maxSize) {
+    }
+}
@@ -0,0 +1,299 @@
+package com.guicedee.cdi;
+
+import com.google.inject.Binding;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.ScopeAnnotation;
+import com.google.inject.Scopes;
+import com.google.inject.TypeLiteral;
+import com.google.inject.name.Named;
+import com.google.inject.spi.ConstructorBinding;
+import com.google.inject.spi.DefaultBindingScopingVisitor;
+import com.google.inject.spi.DefaultBindingTargetVisitor;
+import com.google.inject.spi.InstanceBinding;
+import com.google.inject.spi.LinkedKeyBinding;
+import com.guicedee.cdi.implementations.MetadataSnapshotFile;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Dependent;
+import jakarta.enterprise.context.NormalScope;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.context.spi.CreationalContext;
+import jakarta.enterprise.inject.Alternative;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Default;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.InjectionPoint;
+import jakarta.enterprise.inject.spi.Prioritized;
+import jakarta.inject.Scope;
+import jakarta.inject.Singleton;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * An immutable CDI {@link Bean} descriptor for a single Guice binding.
+ * <p>
+ * Descriptors are created once when the bean index is built and shared by every lookup.
+ * Bean types are the generic type closure of the bound key, and qualifiers are the key's binding annotation
+ * (or {@code @Default} when unqualified) plus {@code @Any}. Keys bound to an annotation type alone are qualified
+ * with the instance of that type whose members all take their defaults. The {@code @Priority} of the bean class is exposed
+ * through {@link Prioritized}, which is how CDI orders alternatives of custom beans.
+ *
+ * @param <T> The type of the bean
+ */
+final class GuiceBean<T> implements Bean<T>, Prioritized {
+
+    private final Binding<T> binding;
+    private final Class<?> beanClass;
+    private final Set<Type> types;
+    private final Set<Annotation> qualifiers;
+    private final Class<? extends Annotation> scope;
+    private final String name;
+    private final boolean alternative;
+    private final boolean prioritized;
+    private final int priority;
+    private final long[] qualifierMask;
+
+    /**
+     * Builds the descriptor for a binding.
+     *
+     * @param binding      The Guice binding
+     * @param qualifierIds The qualifier ids to register the bean's qualifiers with
+     */
+    GuiceBean(Binding<T> binding, QualifierIds qualifierIds) {
+        this(binding, binding.getKey().getTypeLiteral(), qualifierIds);
+    }
+
+    /**
+     * Builds the descriptor for a binding whose bean types are those of another type, such as the target of an alias.
+     *
+     * @param binding      The Guice binding
+     * @param beanType     The type whose closure makes up the bean types
+     * @param qualifierIds The qualifier ids to register the bean's qualifiers with
+     */
+    GuiceBean(Binding<T> binding, TypeLiteral<?> beanType, QualifierIds qualifierIds) {
+        this.binding = binding;
+        Key<T> key = binding.getKey();
+        this.beanClass = binding.acceptTargetVisitor(new BeanClassVisitor<>());
+        this.types = typeClosure(beanType);
+
+        Set<Annotation> beanQualifiers = new LinkedHashSet<>();
+        Annotation bindingAnnotation = key.getAnnotation();
+        if (bindingAnnotation != null) {
+            beanQualifiers.add(bindingAnnotation);
+        } else if (key.getAnnotationType() == null) {
+            beanQualifiers.add(Default.Literal.INSTANCE);
+        } else {
+            // annotatedWith(SomeQualifier.class) keeps only the type, which stands for its instance with default members
+            MarkerAnnotation.of(key.getAnnotationType()).ifPresent(beanQualifiers::add);
+        }
+        beanQualifiers.add(Any.Literal.INSTANCE);
+        this.qualifiers = qualifierIds.intern(beanQualifiers);
+        this.qualifierMask = qualifierIds.internedMask(qualifiers);
+
+        if (bindingAnnotation instanceof Named named) {
+            this.name = named.value();
+        } else if (bindingAnnotation instanceof jakarta.inject.Named named) {
+            this.name = named.value();
+        } else {
+            this.name = null;
+        }
+        this.scope = scopeOf(binding, beanClass);
+        this.alternative = beanClass.isAnnotationPresent(Alternative.class);
+        Priority beanPriority = beanClass.getAnnotation(Priority.class);
+        this.prioritized = beanPriority != null;
+        this.priority = beanPriority == null ? 0 : beanPriority.value();
+    }
+
+    /**
+     * Gets the Guice binding this bean describes.
+     *
+     * @return The binding
+     */
+    Binding<T> getBinding() {
+        return binding;
+    }
+
+    /**
+     * Gets the bit mask of this bean's qualifiers.
+     *
+     * @return The qualifier mask
+     */
+    long[] getQualifierMask() {
+        return qualifierMask;
+    }
+
+    /**
+     * Gets the provider of contextual instances for this bean.
+     *
+     * @return The binding's provider
+     */
+    Provider<T> getProvider() {
+        return binding.getProvider();
+    }
+
+    @Override
+    public Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    @Override
+    public Set<InjectionPoint> getInjectionPoints() {
+        return Set.of();
+    }
+
+    @Override
+    public T create(CreationalContext<T> creationalContext) {
+        return binding.getProvider().get();
+    }
+
+    @Override
+    public void destroy(T instance, CreationalContext<T> creationalContext) {
+        // No-op, as Guice doesn't support bean destruction
+    }
+
+    @Override
+    public Set<Type> getTypes() {
+        return types;
+    }
+
+    @Override
+    public Set<Annotation> getQualifiers() {
+        return qualifiers;
+    }
+
+    @Override
+    public Class<? extends Annotation> getScope() {
+        return scope;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Set<Class<? extends Annotation>> getStereotypes() {
+        return Set.of();
+    }
+
+    @Override
+    public boolean isAlternative() {
+        return alternative;
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Checks whether the bean class declares a {@code @Priority}, which is what enables an alternative.
+     *
+     * @return true if the bean class has a priority
+     */
+    boolean isPrioritized() {
+        return prioritized;
+    }
+
+    @Override
+    public String toString() {
+        return "GuiceBean[" + binding.getKey() + " -> " + beanClass.getName() + "]";
+    }
+
+    /**
+     * Resolves the generic form of every class in the raw type closure of the bound type.
+     */
+    private static Set<Type> typeClosure(TypeLiteral<?> typeLiteral) {
+        Class<?> rawType = typeLiteral.getRawType();
+        Set<Type> closure = new LinkedHashSet<>();
+        for (Class<?> type : TypeClosure.of(rawType)) {
+            closure.add(type == rawType ? typeLiteral.getType() : typeLiteral.getSupertype(type).getType());
+        }
+        if (!rawType.isPrimitive()) {
+            closure.add(Object.class);
+        }
+        return Set.copyOf(closure);
+    }
+
+    /**
+     * Determines the CDI scope of a binding, preferring a scope annotation declared on the bean class
+     * since Guice resolves bound scope annotations to their scope instances.
+     */
+    private static Class<? extends Annotation> scopeOf(Binding<?> binding, Class<?> beanClass) {
+        Class<? extends Annotation> declared = MetadataSnapshotFile.scope(beanClass, GuiceBean::declaredScope);
+        if (declared != null) {
+            return declared;
+        }
+        return binding.acceptScopingVisitor(new DefaultBindingScopingVisitor<Class<? extends Annotation>>() {
+            @Override
+            public Class<? extends Annotation> visitEagerSingleton() {
+                return Singleton.class;
+            }
+
+            @Override
+            public Class<? extends Annotation> visitScope(com.google.inject.Scope scope) {
+                if (scope == RequestScope.INSTANCE) {
+                    return RequestScoped.class;
+                }
+                if (scope instanceof ApplicationScope) {
+                    return ApplicationScoped.class;
+                }
+                return scope == Scopes.SINGLETON || scope == LockingSingletonScope.INSTANCE ? Singleton.class : Dependent.class;
+            }
+
+            @Override
+            public Class<? extends Annotation> visitScopeAnnotation(Class<? extends Annotation> scopeAnnotation) {
+                return scopeAnnotation;
+            }
+
+            @Override
+            protected Class<? extends Annotation> visitOther() {
+                return Dependent.class;
+            }
+        });
+    }
+
+    /**
+     * Finds the scope annotation declared on a bean class.
+     */
+    private static Class<? extends Annotation> declaredScope(Class<?> beanClass) {
+        for (Annotation annotation : beanClass.getAnnotations()) {
+            Class<? extends Annotation> annotationType = annotation.annotationType();
+            if (annotationType.isAnnotationPresent(Scope.class)
+                    || annotationType.isAnnotationPresent(NormalScope.class)
+                    || annotationType.isAnnotationPresent(ScopeAnnotation.class)) {
+                return annotationType;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Determines the class that actually provides instances for a binding.
+     */
+    private static final class BeanClassVisitor<T> extends DefaultBindingTargetVisitor<T, Class<?>> {
+        @Override
+        public Class<?> visit(ConstructorBinding<? extends T> binding) {
+            return binding.getConstructor().getDeclaringType().getRawType();
+        }
+
+        @Override
+        public Class<?> visit(InstanceBinding<? extends T> binding) {
+            return binding.getInstance().getClass();
+        }
+
+        @Override
+        public Class<?> visit(LinkedKeyBinding<? extends T> binding) {
+            return binding.getLinkedKey().getTypeLiteral().getRawType();
+        }
+
+        @Override
+        protected Class<?> visitOther(Binding<? extends T> binding) {
+            return binding.getKey().getTypeLiteral().getRawType();
+        }
+    }
+}
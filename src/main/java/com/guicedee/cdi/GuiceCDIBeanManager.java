@@ -1,8 +1,14 @@
 package com.guicedee.cdi;
 
+import com.google.inject.Binding;
+import com.google.inject.ConfigurationException;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
 import com.google.inject.Key;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
 import com.google.inject.name.Names;
+import com.guicedee.cdi.implementations.MetadataSnapshotFile;
 import com.guicedee.client.IGuiceContext;
 import jakarta.el.ELResolver;
 import jakarta.el.ExpressionFactory;
@@ -15,6 +21,7 @@ import jakarta.enterprise.util.TypeLiteral;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A CDI bean manager implementation that uses Google Guice as the underlying dependency injection framework.
@@ -45,6 +52,65 @@ import java.util.*;
 @Singleton
 public class GuiceCDIBeanManager
 {
+    /**
+     * Interned {@code @Named} keys per bean class and name. Keys do not reference the injector,
+     * so the cache can be shared between injectors without pinning them.
+     */
+    private static final ClassValue<Map<String, Key<?>>> NAMED_KEYS = new ClassValue<>() {
+        @Override
+        protected Map<String, Key<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * When set, {@link #containsBean(Class)} always answers true as it did before bindings were indexed.
+     */
+    private static volatile boolean legacyContainsBean = Boolean.getBoolean("guicedee.cdi.legacyContainsBean");
+
+    private static final InterceptorRegistry NO_INTERCEPTORS = new InterceptorRegistry(List.of());
+
+    private static final DecoratorRegistry NO_DECORATORS = new DecoratorRegistry(List.of());
+
+    private final Injector injector;
+
+    /**
+     * The type index of the injector's bindings, built once on construction.
+     */
+    private final BeanIndex index;
+
+    /**
+     * The bit ids of the qualifiers of the injector's beans and observers.
+     */
+    private final QualifierIds qualifierIds = new QualifierIds();
+
+    /**
+     * The observer methods of the injector's beans, discovered once on construction.
+     */
+    private final ObserverRegistry observers;
+
+    /**
+     * Providers resolved from the injector, keyed by canonical type and qualifier set.
+     */
+    private final Map<QualifiedType, Provider<?>> providers = new ConcurrentHashMap<>();
+
+    /**
+     * Providers for interned {@code @Named} keys. Lookups hit the key's cached hash code and identity equality.
+     */
+    private final Map<Key<?>, Provider<?>> namedProviders = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new GuiceCDIBeanManager backed by the given injector.
+     *
+     * @param injector The Guice injector that owns this bean manager
+     */
+    @Inject
+    public GuiceCDIBeanManager(Injector injector) {
+        this.injector = injector;
+        this.index = new BeanIndex(injector, qualifierIds);
+        this.observers = new ObserverRegistry(injector, index, qualifierIds);
+    }
+
     /**
      * Gets an instance of the specified type.
      * 
@@ -65,7 +131,7 @@ public class GuiceCDIBeanManager
      * @return An instance of the bean
      */
     public <T> T getBean(Class<T> beanType, String qualifier) {
-        return IGuiceContext.get(Key.get(beanType, Names.named(qualifier)));
+        return getProvider(beanType, qualifier).get();
     }
 
     /**
@@ -80,31 +146,226 @@ public class GuiceCDIBeanManager
         return IGuiceContext.get(Key.get(beanType, qualifier));
     }
 
+    /**
+     * Gets the provider for the specified type and qualifiers.
+     * The provider is looked up from the injector once per distinct type and qualifier set and reused afterwards.
+     *
+     * @param <T> The type of the bean
+     * @param beanType The class of the bean
+     * @param qualifiers The qualifiers
+     * @return The provider for the bean
+     */
+    public <T> Provider<T> getProvider(Class<T> beanType, Annotation... qualifiers) {
+        return getProvider((Type) beanType, qualifiers);
+    }
+
+    /**
+     * Gets the provider for the specified generic type and qualifiers, such as {@code Repository<Order>}.
+     *
+     * @param <T> The type of the bean
+     * @param beanType The type literal of the bean
+     * @param qualifiers The qualifiers
+     * @return The provider for the bean
+     */
+    public <T> Provider<T> getProvider(TypeLiteral<T> beanType, Annotation... qualifiers) {
+        return getProvider(TypeKeys.typeOf(beanType), qualifiers);
+    }
+
+    /**
+     * Gets the provider for the specified type and qualifiers. Parameterized types are compared in their Guice canonical form.
+     *
+     * @param <T> The type of the bean
+     * @param beanType The class or generic type of the bean
+     * @param qualifiers The qualifiers
+     * @return The provider for the bean
+     */
+    @SuppressWarnings("unchecked")
+    <T> Provider<T> getProvider(Type beanType, Annotation... qualifiers) {
+        QualifiedType key = QualifiedType.of(TypeKeys.canonicalize(beanType), qualifiers);
+        Provider<?> provider = providers.get(key);
+        if (provider == null) {
+            provider = providers.computeIfAbsent(key, k -> injector.getProvider(k.toKey()));
+        }
+        return (Provider<T>) provider;
+    }
+
+    /**
+     * Gets the provider for the specified type with the specified {@code @Named} qualifier.
+     * The key is interned per class and name, so repeated lookups allocate nothing.
+     *
+     * @param <T> The type of the bean
+     * @param beanType The class of the bean
+     * @param name The name of the qualifier
+     * @return The provider for the bean
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Provider<T> getProvider(Class<T> beanType, String name) {
+        Map<String, Key<?>> keys = NAMED_KEYS.get(beanType);
+        Key<?> key = keys.get(name);
+        if (key == null) {
+            key = keys.computeIfAbsent(name, n -> Key.get(beanType, Names.named(n)));
+        }
+        Provider<?> provider = namedProviders.get(key);
+        if (provider == null) {
+            provider = namedProviders.computeIfAbsent(key, injector::getProvider);
+        }
+        return (Provider<T>) provider;
+    }
+
     /**
      * Gets all instances of the specified type.
+     * Every binding assignable to the type is included, whether qualified, contributed through a Multibinder,
+     * or bound to a subtype. When nothing is bound, a just-in-time binding for the type itself is used.
      * 
      * @param <T> The type of the bean
      * @param beanType The class of the bean
      * @return A set of instances of the bean
      */
     public <T> Set<T> getBeans(Class<T> beanType) {
-        Set<T> beans = new HashSet<>();
-        beans.add(getBean(beanType));
+        List<Binding<?>> bindings = index.getBindings(beanType);
+        if (bindings.isEmpty()) {
+            Set<T> beans = new HashSet<>();
+            beans.add(getBean(beanType));
+            return beans;
+        }
+        Set<T> beans = new LinkedHashSet<>(bindings.size() * 2);
+        for (Binding<?> binding : bindings) {
+            beans.add(beanType.cast(binding.getProvider().get()));
+        }
         return beans;
     }
 
+    /**
+     * Gets the bean Guice would provide for a type and qualifiers that nothing in the index matches, creating the
+     * just-in-time binding if needed but never an instance.
+     *
+     * @param beanType The class or generic type of the bean
+     * @param qualifiers The qualifiers
+     * @return The bean, or null when Guice cannot bind the type
+     */
+    Bean<?> getJustInTimeBean(Type beanType, Annotation... qualifiers) {
+        try {
+            return index.beanOf(injector.getBinding(QualifiedType.of(TypeKeys.canonicalize(beanType), qualifiers).toKey()));
+        } catch (ConfigurationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the binding index of the injector that owns this bean manager.
+     *
+     * @return The bean index
+     */
+    BeanIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the bit ids of the qualifiers of the injector's beans and observers.
+     *
+     * @return The qualifier ids
+     */
+    QualifierIds getQualifierIds() {
+        return qualifierIds;
+    }
+
+    /**
+     * Gets the observer methods of the injector's beans.
+     *
+     * @return The observer registry
+     */
+    ObserverRegistry getObservers() {
+        return observers;
+    }
+
+    /**
+     * Gets the CDI interceptors applied to the injector's beans.
+     *
+     * @return The interceptor registry, empty when the injector was built without the {@link GuiceCDIModule}
+     */
+    InterceptorRegistry getInterceptors() {
+        Binding<InterceptorRegistry> binding = injector.getExistingBinding(Key.get(InterceptorRegistry.class));
+        return binding == null ? NO_INTERCEPTORS : binding.getProvider().get();
+    }
+
+    /**
+     * Gets the CDI decorators of the injector.
+     *
+     * @return The decorator registry, empty when the injector was built without the {@link GuiceCDIModule}
+     */
+    DecoratorRegistry getDecorators() {
+        Binding<DecoratorRegistry> binding = injector.getExistingBinding(Key.get(DecoratorRegistry.class));
+        return binding == null ? NO_DECORATORS : binding.getProvider().get();
+    }
+
     /**
      * Checks if a bean of the specified type exists.
+     * The answer comes from the binding index and the injector's existing bindings,
+     * so no just-in-time binding is ever created to answer it.
      * 
      * @param <T> The type of the bean
      * @param beanType The class of the bean
      * @return true if a bean of the specified type exists, false otherwise
      * 
-     * Note: When using Guice as the CDI provider, this method always returns true
-     * because Guice can create just-in-time bindings for classes with injectable
-     * constructors, even if they're not explicitly bound in the injector.
+     * Note: When legacy mode is enabled through {@link #setLegacyContainsBean(boolean)} or the
+     * {@code guicedee.cdi.legacyContainsBean} system property, this method always returns true.
      */
     public <T> boolean containsBean(Class<T> beanType) {
-        return true;
+        if (legacyContainsBean || index.contains(beanType)) {
+            return true;
+        }
+        // Bindings created just-in-time after the index was built
+        return injector.getExistingBinding(Key.get(beanType)) != null;
+    }
+
+    /**
+     * Adds an observer method to those discovered on the injector's beans.
+     * Events fired afterwards, and observer resolution, take the new observer into account.
+     *
+     * @param observerMethod The observer method to add
+     */
+    public void addObserverMethod(ObserverMethod<?> observerMethod) {
+        observers.add(observerMethod);
+    }
+
+    /**
+     * Delivers every event buffered with {@link Batched} now, on the calling thread, without waiting for its window.
+     * Useful before shutting down, or to make batched delivery deterministic in tests.
+     */
+    public void flushBatchedEvents() {
+        observers.getBatcher().flush();
+    }
+
+    /**
+     * Initialises the eager beans of the injector: the beans observing the CDI {@code Startup} event and those
+     * annotated {@code @Startup}. Independent beans are initialised concurrently, see {@link StartupGraph}. The
+     * {@link MetadataSnapshot} is saved afterwards, once the metadata reflected on at boot has been classified.
+     *
+     * @return The report of the per-bean initialisation times and the critical path
+     * @throws jakarta.enterprise.inject.spi.DeploymentException if any bean fails to initialise
+     */
+    StartupReport startup() {
+        StartupReport report = new StartupGraph(injector, index, observers).run();
+        MetadataSnapshotFile.save();
+        return report;
+    }
+
+    /**
+     * Gets the injector that owns this bean manager.
+     *
+     * @return The injector
+     */
+    Injector getInjector() {
+        return injector;
+    }
+
+    /**
+     * Sets whether {@link #containsBean(Class)} should always return true, matching the behaviour
+     * of versions that relied on Guice creating just-in-time bindings on demand.
+     *
+     * @param legacyContainsBean true to always report beans as present
+     */
+    public static void setLegacyContainsBean(boolean legacyContainsBean) {
+        GuiceCDIBeanManager.legacyContainsBean = legacyContainsBean;
     }
 }
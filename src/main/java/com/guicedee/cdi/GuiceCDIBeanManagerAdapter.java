@@ -1,17 +1,24 @@
 package com.guicedee.cdi;
 
 import com.google.inject.Singleton;
+import com.google.inject.name.Names;
 import com.guicedee.client.IGuiceContext;
 import jakarta.el.ELResolver;
 import jakarta.el.ExpressionFactory;
+import jakarta.enterprise.context.ContextNotActiveException;
+import jakarta.enterprise.context.NormalScope;
+import jakarta.enterprise.context.RequestScoped;
 import jakarta.enterprise.context.spi.Context;
 import jakarta.enterprise.context.spi.Contextual;
 import jakarta.enterprise.context.spi.CreationalContext;
 import jakarta.enterprise.event.Event;
-import jakarta.enterprise.event.NotificationOptions;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Default;
 import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.UnsatisfiedResolutionException;
 import jakarta.enterprise.inject.spi.*;
 import jakarta.enterprise.util.TypeLiteral;
+import jakarta.interceptor.InterceptorBinding;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
@@ -38,6 +45,15 @@ public abstract class GuiceCDIBeanManagerAdapter implements BeanManager {
         this.beanManager = beanManager;
     }
 
+    /**
+     * Gets the bean manager this adapter delegates to.
+     *
+     * @return The bean manager
+     */
+    GuiceCDIBeanManager getDelegate() {
+        return beanManager;
+    }
+
     /**
      * Creates a creational context.
      * 
@@ -71,10 +87,13 @@ public abstract class GuiceCDIBeanManagerAdapter implements BeanManager {
      */
     @Override
     public Object getReference(Bean<?> bean, Type beanType, CreationalContext<?> ctx) {
-        if (beanType instanceof Class) {
-            return IGuiceContext.get((Class<?>) beanType);
+        if (bean instanceof GuiceBean<?> guiceBean) {
+            return guiceBean.getProvider().get();
         }
-        throw new UnsupportedOperationException("Only Class types are supported");
+        if (bean == null) {
+            return beanManager.getProvider(beanType).get();
+        }
+        return beanManager.getProvider(beanType, bindingQualifiers(bean.getQualifiers())).get();
     }
 
     /**
@@ -86,11 +105,20 @@ public abstract class GuiceCDIBeanManagerAdapter implements BeanManager {
      */
     @Override
     public Object getInjectableReference(InjectionPoint injectionPoint, CreationalContext<?> ctx) {
-        Type type = injectionPoint.getType();
-        if (type instanceof Class) {
-            return IGuiceContext.get((Class<?>) type);
-        }
-        throw new UnsupportedOperationException("Only Class types are supported");
+        return beanManager.getProvider(injectionPoint.getType(), bindingQualifiers(injectionPoint.getQualifiers())).get();
+    }
+
+    /**
+     * Drops the CDI built-in qualifiers, which have no Guice binding annotation equivalent.
+     *
+     * @param qualifiers The qualifiers of a bean or injection point
+     * @return The qualifiers that map onto a Guice binding annotation
+     */
+    private static Annotation[] bindingQualifiers(Set<Annotation> qualifiers) {
+        return qualifiers.stream()
+                .filter(qualifier -> qualifier.annotationType() != Default.class && qualifier.annotationType() != Any.class)
+                .map(qualifier -> qualifier instanceof jakarta.inject.Named named ? Names.named(named.value()) : qualifier)
+                .toArray(Annotation[]::new);
     }
 
     /**
@@ -101,8 +129,13 @@ public abstract class GuiceCDIBeanManagerAdapter implements BeanManager {
      * @param qualifiers The qualifiers
      * @return The bean
      */
+    @SuppressWarnings("unchecked")
     public <T> Bean<T> getBean(Class<T> beanType, Annotation... qualifiers) {
-        throw new UnsupportedOperationException("Not implemented");
+        Set<Bean<?>> beans = getBeans(beanType, qualifiers);
+        if (beans.isEmpty()) {
+            throw new UnsatisfiedResolutionException("No bean found for " + beanType.getName() + " with qualifiers " + Arrays.toString(qualifiers));
+        }
+        return (Bean<T>) beanManager.getIndex().resolve(beans);
     }
 
     /**
@@ -113,8 +146,14 @@ public abstract class GuiceCDIBeanManagerAdapter implements BeanManager {
      * @param qualifiers The qualifiers
      * @return The bean
      */
+    @SuppressWarnings("unchecked")
     public <T> Bean<T> getBean(TypeLiteral<T> beanType, Annotation... qualifiers) {
-        throw new UnsupportedOperationException("Not implemented");
+        Type type = TypeKeys.typeOf(beanType);
+        Set<Bean<?>> beans = getBeans(type, qualifiers);
+        if (beans.isEmpty()) {
+            throw new UnsatisfiedResolutionException("No bean found for " + type.getTypeName() + " with qualifiers " + Arrays.toString(qualifiers));
+        }
+        return (Bean<T>) beanManager.getIndex().resolve(beans);
     }
 
     /**
@@ -126,7 +165,7 @@ public abstract class GuiceCDIBeanManagerAdapter implements BeanManager {
      */
     @Override
     public Set<Bean<?>> getBeans(Type beanType, Annotation... qualifiers) {
-        throw new UnsupportedOperationException("Not implemented");
+        return beanManager.getIndex().getBeans(beanType, qualifiers);
     }
 
     /**
@@ -137,19 +176,22 @@ public abstract class GuiceCDIBeanManagerAdapter implements BeanManager {
      */
     @Override
     public Set<Bean<?>> getBeans(String name) {
-        throw new UnsupportedOperationException("Not implemented");
+        return beanManager.getIndex().getBeans(name);
     }
 
     /**
      * Resolves a bean from a set of beans.
+     * Alternatives with the highest {@code @Priority} win, then a single non-alternative bean, then the {@code @Default} bean.
      * 
      * @param <X> The type of the bean
      * @param beans The beans
-     * @return The resolved bean
+     * @return The resolved bean, or null if the set is empty
+     * @throws jakarta.enterprise.inject.AmbiguousResolutionException if the beans cannot be resolved to one
      */
     @Override
+    @SuppressWarnings("unchecked")
     public <X> Bean<? extends X> resolve(Set<Bean<? extends X>> beans) {
-        throw new UnsupportedOperationException("Not implemented");
+        return (Bean<? extends X>) beanManager.getIndex().resolve(beans);
     }
 
     /**
@@ -169,7 +211,7 @@ public abstract class GuiceCDIBeanManagerAdapter implements BeanManager {
      * @param qualifiers The qualifiers
      */
     public void fireEvent(Object event, Annotation... qualifiers) {
-        // No-op
+        beanManager.getObservers().fire(event, ObserverRegistry.requireEvent(event).getClass(), qualifiers);
     }
 
     /**
@@ -193,11 +235,15 @@ public abstract class GuiceCDIBeanManagerAdapter implements BeanManager {
      */
     @Override
     public <T> Set<ObserverMethod<? super T>> resolveObserverMethods(T event, Annotation... qualifiers) {
-        return Collections.emptySet();
+        return beanManager.getObservers().resolve(event, ObserverRegistry.requireEvent(event).getClass(), qualifiers);
     }
 
     /**
      * Resolves decorators for a set of types.
+     * <p>
+     * The decorators describe the chains the injector builds, and cannot be instantiated on their own: their
+     * {@code create} method throws {@link UnsupportedOperationException}, as a decorator is only ever created with the
+     * instance it decorates, by the provider or interception of the decorated bean.
      * 
      * @param types The types
      * @param qualifiers The qualifiers
@@ -205,7 +251,7 @@ public abstract class GuiceCDIBeanManagerAdapter implements BeanManager {
      */
     @Override
     public List<Decorator<?>> resolveDecorators(Set<Type> types, Annotation... qualifiers) {
-        return Collections.emptyList();
+        return getDelegate().getDecorators().resolve(types, qualifiers);
     }
 
     /**
@@ -217,7 +263,7 @@ public abstract class GuiceCDIBeanManagerAdapter implements BeanManager {
      */
     @Override
     public List<Interceptor<?>> resolveInterceptors(InterceptionType type, Annotation... interceptorBindings) {
-        return Collections.emptyList();
+        return getDelegate().getInterceptors().resolve(type, interceptorBindings);
     }
 
     /**
@@ -228,7 +274,7 @@ public abstract class GuiceCDIBeanManagerAdapter implements BeanManager {
      */
     @Override
     public boolean isScope(Class<? extends Annotation> annotationType) {
-        return false;
+        return annotationType.isAnnotationPresent(jakarta.inject.Scope.class) || isNormalScope(annotationType);
     }
 
     /**
@@ -239,7 +285,7 @@ public abstract class GuiceCDIBeanManagerAdapter implements BeanManager {
      */
     @Override
     public boolean isNormalScope(Class<? extends Annotation> annotationType) {
-        return false;
+        return annotationType.isAnnotationPresent(NormalScope.class);
     }
 
     /**
@@ -317,7 +363,7 @@ public abstract class GuiceCDIBeanManagerAdapter implements BeanManager {
      */
     @Override
     public boolean isInterceptorBinding(Class<? extends Annotation> annotationType) {
-        return false;
+        return annotationType.isAnnotationPresent(InterceptorBinding.class);
     }
 
     /**
@@ -328,7 +374,13 @@ public abstract class GuiceCDIBeanManagerAdapter implements BeanManager {
      */
     @Override
     public Set<Annotation> getInterceptorBindingDefinition(Class<? extends Annotation> bindingType) {
-        return Collections.emptySet();
+        Set<Annotation> definition = new LinkedHashSet<>();
+        for (Annotation annotation : bindingType.getAnnotations()) {
+            if (isInterceptorBinding(annotation.annotationType())) {
+                definition.add(annotation);
+            }
+        }
+        return definition;
     }
 
     /**
@@ -340,7 +392,7 @@ public abstract class GuiceCDIBeanManagerAdapter implements BeanManager {
      */
     @Override
     public boolean areInterceptorBindingsEquivalent(Annotation binding1, Annotation binding2) {
-        return binding1.equals(binding2);
+        return GuiceInterceptor.bindingEquals(binding1, binding2);
     }
 
     /**
@@ -351,17 +403,25 @@ public abstract class GuiceCDIBeanManagerAdapter implements BeanManager {
      */
     @Override
     public int getInterceptorBindingHashCode(Annotation binding) {
-        return binding.hashCode();
+        return GuiceInterceptor.bindingHashCode(binding);
     }
 
     /**
      * Gets the context for a scope type.
+     * Only the request context is available so far.
      * 
      * @param scopeType The scope type
      * @return The context
+     * @throws ContextNotActiveException if the scope is {@code @RequestScoped} and no request context is active
      */
     @Override
     public Context getContext(Class<? extends Annotation> scopeType) {
+        if (scopeType == RequestScoped.class) {
+            if (!RequestContext.INSTANCE.isActive()) {
+                throw new ContextNotActiveException("No request context is active on this thread");
+            }
+            return RequestContext.INSTANCE;
+        }
         throw new UnsupportedOperationException("Not implemented");
     }
 
@@ -522,6 +582,9 @@ public abstract class GuiceCDIBeanManagerAdapter implements BeanManager {
      */
     @Override
     public Collection<Context> getContexts(Class<? extends Annotation> scopeType) {
+        if (scopeType == RequestScoped.class) {
+            return List.of(RequestContext.INSTANCE);
+        }
         return Collections.emptyList();
     }
 
@@ -532,40 +595,7 @@ public abstract class GuiceCDIBeanManagerAdapter implements BeanManager {
      */
     @Override
     public Event<Object> getEvent() {
-        // Return a minimal implementation of Event
-        return new Event<Object>() {
-            @Override
-            public void fire(Object event) {
-                // No-op
-            }
-
-            @Override
-            public <U> Event<U> select(Class<U> subtype, Annotation... qualifiers) {
-                return (Event<U>) this;
-            }
-
-            @Override
-            public <U> Event<U> select(TypeLiteral<U> subtype, Annotation... qualifiers) {
-                return (Event<U>) this;
-            }
-
-            @Override
-            public Event<Object> select(Annotation... qualifiers) {
-                return this;
-            }
-
-            @Override
-            public <U> java.util.concurrent.CompletionStage<U> fireAsync(U event) {
-                // No-op
-                return java.util.concurrent.CompletableFuture.completedFuture(event);
-            }
-
-            @Override
-            public <U> java.util.concurrent.CompletionStage<U> fireAsync(U event, NotificationOptions options) {
-                // No-op
-                return java.util.concurrent.CompletableFuture.completedFuture(event);
-            }
-        };
+        return new GuiceEvent<>(beanManager.getObservers(), Object.class);
     }
 
     /**
@@ -1,11 +1,15 @@
 package com.guicedee.cdi;
 
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.guicedee.client.IGuiceContext;
-import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Default;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Type;
+import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -22,8 +26,22 @@ public class GuiceCDIBeanManagerAdapterImpl extends GuiceCDIBeanManagerAdapter {
         super(IGuiceContext.get(GuiceCDIBeanManager.class));
     }
 
+    /**
+     * Constructs a new GuiceCDIBeanManagerAdapterImpl for the bean manager of the injector creating it.
+     *
+     * @param beanManager The bean manager to delegate to
+     */
+    @Inject
+    public GuiceCDIBeanManagerAdapterImpl(GuiceCDIBeanManager beanManager) {
+        super(beanManager);
+    }
+
     /**
      * Checks if a bean matches the required type and qualifiers.
+     * Qualifiers are matched as bit masks of the injector's qualifier ids. The qualifier sets of the injector's beans
+     * carry their mask, so they are matched without looking up an annotation; other sets are encoded by looking each
+     * qualifier up by its hash code. Annotations are only compared when a required qualifier is not used by any bean
+     * or observer.
      * 
      * @param beanTypes The bean types
      * @param beanQualifiers The bean qualifiers
@@ -33,12 +51,24 @@ public class GuiceCDIBeanManagerAdapterImpl extends GuiceCDIBeanManagerAdapter {
      */
     @Override
     public boolean isMatchingBean(Set<Type> beanTypes, Set<Annotation> beanQualifiers, Type requiredType, Set<Annotation> requiredQualifiers) {
-        // Simple implementation that always returns false
-        return false;
+        if (!hasMatchingType(beanTypes, requiredType)) {
+            return false;
+        }
+        QualifierIds qualifierIds = getDelegate().getQualifierIds();
+        long[] requiredMask = requiredQualifiers.isEmpty() ? QualifierIds.DEFAULT_REQUIRED : qualifierIds.internedMask(requiredQualifiers);
+        if (requiredMask == null) {
+            requiredMask = qualifierIds.required(requiredQualifiers);
+            if (requiredMask == null) {
+                return containsAll(beanQualifiers, requiredQualifiers);
+            }
+        }
+        long[] presentMask = qualifierIds.internedMask(beanQualifiers);
+        return QualifierIds.containsAll(presentMask == null ? qualifierIds.present(beanQualifiers) : presentMask, requiredMask);
     }
 
     /**
      * Checks if an event matches the required type and qualifiers.
+     * The observed qualifiers of the injector's observers carry their mask, like the qualifiers of its beans.
      * 
      * @param eventType The event type
      * @param eventQualifiers The event qualifiers
@@ -48,7 +78,59 @@ public class GuiceCDIBeanManagerAdapterImpl extends GuiceCDIBeanManagerAdapter {
      */
     @Override
     public boolean isMatchingEvent(Type eventType, Set<Annotation> eventQualifiers, Type observedEventType, Set<Annotation> observedEventQualifiers) {
-        // Simple implementation that always returns false
+        Class<?> observedClass = MethodType.methodType(BeanIndex.rawType(observedEventType)).wrap().returnType();
+        Class<?> eventClass = MethodType.methodType(BeanIndex.rawType(eventType)).wrap().returnType();
+        if (!observedClass.isAssignableFrom(eventClass) || !GuiceObserverMethod.observesType(observedEventType, eventType)) {
+            return false;
+        }
+        if (observedEventQualifiers.isEmpty()) {
+            return true;
+        }
+        QualifierIds qualifierIds = getDelegate().getQualifierIds();
+        long[] requiredMask = qualifierIds.internedMask(observedEventQualifiers);
+        if (requiredMask == null) {
+            requiredMask = qualifierIds.required(observedEventQualifiers);
+        }
+        if (requiredMask == null) {
+            Set<Annotation> qualifiers = new HashSet<>(eventQualifiers);
+            qualifiers.add(Any.Literal.INSTANCE);
+            if (eventQualifiers.isEmpty()) {
+                qualifiers.add(Default.Literal.INSTANCE);
+            }
+            return containsAll(qualifiers, observedEventQualifiers);
+        }
+        return QualifierIds.containsAll(qualifierIds.event(eventQualifiers.toArray(new Annotation[0])), requiredMask);
+    }
+
+    /**
+     * Checks whether a bean type matches the required type, by raw class for a class and by equality otherwise.
+     */
+    private static boolean hasMatchingType(Set<Type> beanTypes, Type requiredType) {
+        if (beanTypes.contains(requiredType)) {
+            return true;
+        }
+        Type required = TypeKeys.canonicalize(requiredType);
+        for (Type beanType : beanTypes) {
+            if (required instanceof Class<?> ? BeanIndex.rawType(beanType) == required : required.equals(TypeKeys.canonicalize(beanType))) {
+                return true;
+            }
+        }
         return false;
     }
+
+    /**
+     * Compares qualifiers one by one, for lookups requiring a qualifier that has no id.
+     */
+    private static boolean containsAll(Set<Annotation> present, Set<Annotation> required) {
+        Set<Annotation> normalized = new HashSet<>();
+        for (Annotation qualifier : present) {
+            normalized.add(QualifierIds.normalize(qualifier));
+        }
+        for (Annotation qualifier : required) {
+            if (!normalized.contains(QualifierIds.normalize(qualifier))) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -1,9 +1,30 @@
 package com.guicedee.cdi;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
+import com.google.inject.matcher.Matchers;
+import com.google.inject.spi.Element;
+import com.google.inject.spi.Elements;
+import com.google.inject.spi.InstanceBinding;
+import com.guicedee.client.IGuiceContext;
 import com.guicedee.client.services.lifecycle.IGuiceModule;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.ScanResult;
+import jakarta.annotation.Priority;
+import jakarta.decorator.Decorator;
+import jakarta.enterprise.context.control.RequestContextController;
 import jakarta.enterprise.inject.spi.CDI;
+import jakarta.interceptor.Interceptor;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * A Guice module that registers the CDI bean manager.
@@ -22,9 +43,68 @@ import jakarta.enterprise.inject.spi.CDI;
  * Just inject the GuiceCDIBeanManager where you need it:
  * 
  * {@code @Inject private GuiceCDIBeanManager beanManager;}
+ * 
+ * CDI interceptors, classes annotated with {@code @Interceptor} and {@code @Priority}, are found in the GuicedEE
+ * scan result and applied to the methods carrying their interceptor bindings through Guice AOP.
+ * When building an injector by hand, they can be listed with {@link #interceptors(Class[])} instead.
+ * 
+ * CDI decorators, classes annotated with {@code @Decorator} and {@code @Priority}, are found the same way or listed with
+ * {@link #decorators(Class[])}. Decorating replaces the bindings of other modules, so the application's modules,
+ * including this one, are passed through {@link #decorate(Module...)} when the injector is created:
+ * 
+ * {@code Guice.createInjector(GuiceCDIModule.decorate(new GuiceCDIModule(), new RepositoryModule()));}
+ * 
+ * Beans observing the CDI {@code Startup} event or annotated {@code @Startup} are initialised when the injector is
+ * created, independent ones concurrently, and the per-bean times are reported in the injectable {@link StartupReport}.
  */
 public class GuiceCDIModule extends AbstractModule implements IGuiceModule<GuiceCDIModule> {
 
+    private static final System.Logger log = System.getLogger(GuiceCDIModule.class.getName());
+
+    private final Set<Class<?>> interceptorClasses = new LinkedHashSet<>();
+    private final Set<Class<?>> decoratorClasses = new LinkedHashSet<>();
+
+    /**
+     * Adds interceptor classes to those found in the scan result.
+     *
+     * @param interceptorClasses Classes annotated with {@code @Interceptor}, {@code @Priority} and an interceptor binding
+     * @return This module
+     */
+    public GuiceCDIModule interceptors(Class<?>... interceptorClasses) {
+        Collections.addAll(this.interceptorClasses, interceptorClasses);
+        return this;
+    }
+
+    /**
+     * Adds decorator classes to those found in the scan result.
+     *
+     * @param decoratorClasses Concrete classes annotated with {@code @Decorator}, {@code @Priority} and with one {@code @Delegate} injection point
+     * @return This module
+     */
+    public GuiceCDIModule decorators(Class<?>... decoratorClasses) {
+        Collections.addAll(this.decoratorClasses, decoratorClasses);
+        return this;
+    }
+
+    /**
+     * Combines modules into one whose decorated bindings are bound to their decorators.
+     * The decorators are those of the {@link GuiceCDIModule} among the modules.
+     *
+     * @param modules The application's modules, including a {@link GuiceCDIModule}
+     * @return The module to create the injector with
+     * @throws IllegalArgumentException if no {@link GuiceCDIModule} is among the modules
+     */
+    public static Module decorate(Module... modules) {
+        List<Element> elements = Elements.getElements(modules);
+        Key<DecoratorRegistry> registryKey = Key.get(DecoratorRegistry.class);
+        for (Element element : elements) {
+            if (element instanceof InstanceBinding<?> binding && binding.getKey().equals(registryKey)) {
+                return ((DecoratorRegistry) binding.getInstance()).decorate(elements);
+            }
+        }
+        throw new IllegalArgumentException("Decorated modules must include a GuiceCDIModule");
+    }
+
     @Override
     protected void configure() {
         bind(GuiceCDIBeanManager.class).in(Singleton.class);
@@ -34,6 +114,24 @@ public class GuiceCDIModule extends AbstractModule implements IGuiceModule<Guice
         bind(GuiceCDIBeanManagerAdapterImpl.class).in(Singleton.class);
         bind(jakarta.enterprise.inject.spi.BeanManager.class).to(GuiceCDIBeanManagerAdapterImpl.class);
 
+        // The request scoped bindings of this injector take their slots from its own table, ended once they are all scoped
+        RequestScope.Slots slots = RequestScope.INSTANCE.begin();
+        bind(RequestScope.Slots.class).toProvider((Provider<RequestScope.Slots>) slots::end).asEagerSingleton();
+
+        bind(RequestContextController.class).toProvider((Provider<RequestContextController>) RequestContext.Controller::new);
+
+        // Initialise the eager beans once the injector is created, the report stays injectable
+        Provider<GuiceCDIBeanManager> beanManager = getProvider(GuiceCDIBeanManager.class);
+        bind(StartupReport.class).toProvider((Provider<StartupReport>) () -> beanManager.get().startup()).asEagerSingleton();
+
+        // Track the creation of beans whose observers are only notified once they exist
+        ConditionalObservers conditionalObservers = new ConditionalObservers();
+        bind(ConditionalObservers.class).toInstance(conditionalObservers);
+        bindListener(conditionalObservers, conditionalObservers);
+
+        bindInterceptors();
+        bindDecorators();
+
         bind(JakartaCDIProvider.class).in(Singleton.class);
         // Set the Jakarta CDI provider to use our Guice implementation
         try {
@@ -43,6 +141,81 @@ public class GuiceCDIModule extends AbstractModule implements IGuiceModule<Guice
         }
     }
 
+    /**
+     * Registers the CDI interceptors with Guice AOP, together with the built-in {@code @ActivateRequestContext}
+     * interceptor. The registry is bound even when empty, so the bean manager can always resolve interceptors through it.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void bindInterceptors() {
+        Set<Class<?>> classes = new LinkedHashSet<>(interceptorClasses);
+        classes.addAll(scannedClasses(Interceptor.class));
+        classes.remove(ActivateRequestContextInterceptor.class);
+        List<GuiceInterceptor<?>> interceptors = new ArrayList<>(classes.size() + 1);
+        ActivateRequestContextInterceptor activateRequestContext = new ActivateRequestContextInterceptor();
+        interceptors.add(new GuiceInterceptor<>(ActivateRequestContextInterceptor.class, () -> activateRequestContext));
+        for (Class<?> interceptorClass : classes) {
+            interceptors.add(new GuiceInterceptor(interceptorClass, getProvider(interceptorClass)));
+        }
+        InterceptorRegistry registry = new InterceptorRegistry(interceptors);
+        bind(InterceptorRegistry.class).toInstance(registry);
+        if (!registry.isEmpty()) {
+            bindInterceptor(registry.classMatcher(Matchers.not(Matchers.annotatedWith(Interceptor.class))), registry.methodMatcher(), registry);
+        }
+    }
+
+    /**
+     * Registers the CDI decorators, applied to the beans Guice constructs or by {@link #decorate(Module...)}, and
+     * resolved by the bean manager.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void bindDecorators() {
+        Set<Class<?>> classes = new LinkedHashSet<>(decoratorClasses);
+        classes.addAll(scannedClasses(Decorator.class));
+        List<GuiceDecorator<?>> decorators = new ArrayList<>(classes.size());
+        for (Class<?> decoratorClass : classes) {
+            decorators.add(new GuiceDecorator(decoratorClass));
+        }
+        DecoratorRegistry registry = new DecoratorRegistry(decorators);
+        bind(DecoratorRegistry.class).toInstance(registry);
+        registry.bindInterception(binder());
+    }
+
+    /**
+     * Finds the classes of the bean indexes, then the unindexed classes of the scan result, with an annotation and
+     * {@code @Priority}, which enables them.
+     */
+    private static Set<Class<?>> scannedClasses(Class<? extends Annotation> annotation) {
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            loader = GuiceCDIModule.class.getClassLoader();
+        }
+        int flag = annotation == Interceptor.class ? BeanIndexFile.INTERCEPTOR : BeanIndexFile.DECORATOR;
+        BeanIndexFile index = BeanIndexFile.of(loader);
+        for (String className : index.classesWith(flag | BeanIndexFile.PRIORITY)) {
+            try {
+                classes.add(Class.forName(className, false, loader));
+            } catch (ClassNotFoundException | LinkageError e) {
+                log.log(System.Logger.Level.DEBUG, "Indexed @{0} class {1} is not visible, it is not enabled",
+                        annotation.getSimpleName(), className);
+            }
+        }
+        try {
+            ScanResult scanResult = IGuiceContext.instance().getScanResult();
+            if (scanResult != null) {
+                // The index already decided for the classes it lists, only the others are taken from the scan
+                for (ClassInfo classInfo : scanResult.getClassesWithAnnotation(annotation)) {
+                    if (!index.contains(classInfo.getName()) && classInfo.hasAnnotation(Priority.class)) {
+                        classes.add(classInfo.loadClass());
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.log(System.Logger.Level.WARNING, "Could not read @" + annotation.getSimpleName() + " classes from the scan result", e);
+        }
+        return classes;
+    }
+
     @Override
     public Integer sortOrder() {
         return Integer.MAX_VALUE - 200; // Load after most modules but before some
@@ -0,0 +1,453 @@
+package com.guicedee.cdi;
+
+import com.google.inject.Binder;
+import com.google.inject.Key;
+import com.google.inject.MembersInjector;
+import com.google.inject.Provider;
+import com.google.inject.ProvisionException;
+import com.google.inject.TypeLiteral;
+import com.google.inject.spi.Dependency;
+import com.google.inject.spi.InjectionPoint;
+import jakarta.annotation.Priority;
+import jakarta.decorator.Delegate;
+import jakarta.enterprise.context.Dependent;
+import jakarta.enterprise.context.spi.CreationalContext;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Default;
+import jakarta.enterprise.inject.spi.Decorator;
+import jakarta.enterprise.inject.spi.Prioritized;
+import jakarta.inject.Qualifier;
+
+import java.io.Serializable;
+import java.lang.annotation.Annotation;
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.TypeKind;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.ConstantDescs;
+import java.lang.constant.MethodTypeDesc;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A CDI {@link Decorator} for a class annotated with {@code @Decorator} and {@code @Priority}, with one
+ * {@code @Delegate} field or constructor parameter.
+ * <p>
+ * Decorators are plain instances of the decorator class. The decorated key's provider builds the chain from the inside
+ * out, constructing each decorator with the next instance of the chain as its delegate, so calls from a decorator to its
+ * delegate are ordinary interface calls the JIT can inline, with no proxy in between. The decorator's constructor is
+ * called through a method handle with its other parameters taken from Guice, and its fields and methods are then
+ * injected by Guice as usual. A {@code @Delegate} field is set after member injection.
+ * <p>
+ * An abstract decorator is instantiated through a subclass generated as a hidden class in its package with the
+ * {@link ClassFile} API. The subclass mirrors the injection constructor, and implements each abstract method of the
+ * decorated types by calling the same method on the delegate.
+ *
+ * @param <T> The decorator class
+ */
+final class GuiceDecorator<T> implements Decorator<T>, Prioritized {
+
+    /**
+     * The field of a generated subclass holding the delegate its abstract methods are implemented with.
+     */
+    private static final String GENERATED_DELEGATE = "delegate$";
+
+    private final Class<T> decoratorClass;
+    private final Type delegateType;
+    private final Set<Annotation> delegateQualifiers;
+    private final Set<Type> decoratedTypes;
+    private final int priority;
+    private final InjectionPoint constructor;
+    private final MethodHandle constructorHandle;
+    private final int delegatePosition;
+    private final MethodHandle delegateSetter;
+    private final MethodHandle generatedDelegateSetter;
+
+    /**
+     * Inspects a decorator class.
+     *
+     * @param decoratorClass The decorator class
+     * @throws IllegalArgumentException if the class does not declare exactly one {@code @Delegate} field or injection
+     *                                  constructor parameter, or is abstract with an abstract method of no decorated type
+     */
+    GuiceDecorator(Class<T> decoratorClass) {
+        this.decoratorClass = decoratorClass;
+        Priority decoratorPriority = decoratorClass.getAnnotation(Priority.class);
+        this.priority = decoratorPriority == null ? 0 : decoratorPriority.value();
+        this.constructor = InjectionPoint.forConstructorOf(decoratorClass);
+        Constructor<?> injectionConstructor = (Constructor<?>) constructor.getMember();
+
+        Field delegateField = null;
+        int fields = 0;
+        for (Class<?> type = decoratorClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Delegate.class)) {
+                    delegateField = field;
+                    fields++;
+                }
+            }
+        }
+        int position = -1;
+        Parameter[] parameters = injectionConstructor.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i].isAnnotationPresent(Delegate.class)) {
+                if (position >= 0) {
+                    fields++;
+                }
+                position = i;
+            }
+        }
+        if (fields + (position >= 0 ? 1 : 0) != 1) {
+            throw new IllegalArgumentException("Decorator " + decoratorClass.getName()
+                    + " must declare exactly one @Delegate field or injection constructor parameter");
+        }
+        this.delegatePosition = position;
+        Annotation[] annotations = delegateField != null ? delegateField.getAnnotations() : parameters[position].getAnnotations();
+        this.delegateType = TypeKeys.canonicalize(delegateField != null ? delegateField.getGenericType() : parameters[position].getParameterizedType());
+        this.delegateQualifiers = qualifiersOf(annotations);
+        this.decoratedTypes = decoratedTypesOf(decoratorClass);
+        this.delegateSetter = delegateField == null ? null : setterOf(delegateField);
+        if (delegateField != null && delegateSetter == null) {
+            throw new IllegalArgumentException("@Delegate field " + delegateField + " must be non-final and accessible, open its package to com.guicedee.cdi");
+        }
+        if (!injectionConstructor.trySetAccessible()) {
+            throw new IllegalArgumentException("Constructor " + injectionConstructor + " is not accessible, open its package to com.guicedee.cdi");
+        }
+        MethodHandle constructorHandle;
+        MethodHandle generatedDelegateSetter = null;
+        try {
+            if (Modifier.isAbstract(decoratorClass.getModifiers())) {
+                MethodHandles.Lookup subclass = implement(decoratorClass, injectionConstructor, rawDelegateType());
+                Class<?> subclassType = subclass.lookupClass();
+                constructorHandle = subclass.findConstructor(subclassType, MethodType.methodType(void.class, injectionConstructor.getParameterTypes()));
+                generatedDelegateSetter = subclass.findSetter(subclassType, GENERATED_DELEGATE, rawDelegateType())
+                        .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            } else {
+                constructorHandle = MethodHandles.lookup().unreflectConstructor(injectionConstructor);
+            }
+        } catch (IllegalAccessException | NoSuchMethodException | NoSuchFieldException | LinkageError e) {
+            throw new IllegalArgumentException("Decorator " + decoratorClass.getName() + " cannot be instantiated, open its package to com.guicedee.cdi", e);
+        }
+        this.constructorHandle = constructorHandle.asType(MethodType.genericMethodType(parameters.length))
+                .asSpreader(Object[].class, parameters.length);
+        this.generatedDelegateSetter = generatedDelegateSetter;
+    }
+
+    /**
+     * Generates the subclass of an abstract decorator, in the decorator's package.
+     *
+     * @return The lookup of the subclass
+     */
+    private static MethodHandles.Lookup implement(Class<?> decoratorClass, Constructor<?> constructor, Class<?> delegateClass)
+            throws IllegalAccessException {
+        Map<String, Method> abstractMethods = new LinkedHashMap<>();
+        for (Class<?> type = decoratorClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (Modifier.isAbstract(method.getModifiers())) {
+                    abstractMethods.putIfAbsent(method.getName() + MethodType.methodType(method.getReturnType(), method.getParameterTypes()), method);
+                }
+            }
+        }
+        for (Method method : decoratorClass.getMethods()) {
+            if (Modifier.isAbstract(method.getModifiers())) {
+                abstractMethods.putIfAbsent(method.getName() + MethodType.methodType(method.getReturnType(), method.getParameterTypes()), method);
+            }
+        }
+        List<Method> implemented = new ArrayList<>(abstractMethods.size());
+        for (Method method : abstractMethods.values()) {
+            try {
+                implemented.add(delegateClass.getMethod(method.getName(), method.getParameterTypes()));
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException("Abstract method " + method + " of decorator " + decoratorClass.getName()
+                        + " is not declared by its delegate type " + delegateClass.getName());
+            }
+        }
+
+        ClassDesc superDesc = describe(decoratorClass);
+        ClassDesc subclassDesc = ClassDesc.of(decoratorClass.getName() + "$$Decorator");
+        ClassDesc delegateDesc = describe(delegateClass);
+        MethodTypeDesc constructorDesc = MethodTypeDesc.ofDescriptor(
+                MethodType.methodType(void.class, constructor.getParameterTypes()).toMethodDescriptorString());
+        byte[] bytes = ClassFile.of().build(subclassDesc, subclass -> {
+            subclass.withFlags(ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL | ClassFile.ACC_SUPER | ClassFile.ACC_SYNTHETIC)
+                    .withSuperclass(superDesc)
+                    .withField(GENERATED_DELEGATE, delegateDesc, ClassFile.ACC_PRIVATE);
+            subclass.withMethodBody(ConstantDescs.INIT_NAME, constructorDesc, ClassFile.ACC_PUBLIC, code -> {
+                code.aload(0);
+                Class<?>[] parameters = constructor.getParameterTypes();
+                for (int i = 0; i < parameters.length; i++) {
+                    code.loadLocal(TypeKind.from(parameters[i]), code.parameterSlot(i));
+                }
+                code.invokespecial(superDesc, ConstantDescs.INIT_NAME, constructorDesc).return_();
+            });
+            for (Method method : implemented) {
+                MethodTypeDesc descriptor = MethodTypeDesc.ofDescriptor(
+                        MethodType.methodType(method.getReturnType(), method.getParameterTypes()).toMethodDescriptorString());
+                subclass.withMethodBody(method.getName(), descriptor, ClassFile.ACC_PUBLIC, code -> {
+                    code.aload(0).getfield(subclassDesc, GENERATED_DELEGATE, delegateDesc);
+                    Class<?>[] parameters = method.getParameterTypes();
+                    for (int i = 0; i < parameters.length; i++) {
+                        code.loadLocal(TypeKind.from(parameters[i]), code.parameterSlot(i));
+                    }
+                    if (delegateClass.isInterface()) {
+                        code.invokeinterface(delegateDesc, method.getName(), descriptor);
+                    } else {
+                        code.invokevirtual(delegateDesc, method.getName(), descriptor);
+                    }
+                    code.return_(TypeKind.from(method.getReturnType()));
+                });
+            }
+        });
+        return MethodHandles.privateLookupIn(decoratorClass, MethodHandles.lookup()).defineHiddenClass(bytes, true);
+    }
+
+    private static ClassDesc describe(Class<?> type) {
+        return type.describeConstable().orElseThrow();
+    }
+
+    private static Set<Annotation> qualifiersOf(Annotation[] annotations) {
+        Set<Annotation> qualifiers = new LinkedHashSet<>();
+        for (Annotation annotation : annotations) {
+            if (annotation.annotationType().isAnnotationPresent(Qualifier.class)) {
+                qualifiers.add(QualifierIds.normalize(annotation));
+            }
+        }
+        if (qualifiers.isEmpty()) {
+            qualifiers.add(Default.Literal.INSTANCE);
+        }
+        return Set.copyOf(qualifiers);
+    }
+
+    /**
+     * The decorated types are the interfaces among the decorator's types, except {@link Serializable}.
+     */
+    private static Set<Type> decoratedTypesOf(Class<?> decoratorClass) {
+        Set<Type> types = new LinkedHashSet<>();
+        for (Class<?> type : TypeClosure.of(decoratorClass)) {
+            if (type.isInterface() && type != Serializable.class) {
+                types.add(type);
+            }
+        }
+        return Set.copyOf(types);
+    }
+
+    /**
+     * Builds a handle of type {@code (Object decorator, Object delegate)void} setting the delegate field.
+     */
+    private static MethodHandle setterOf(Field field) {
+        if (Modifier.isFinal(field.getModifiers()) || !field.trySetAccessible()) {
+            return null;
+        }
+        try {
+            return MethodHandles.lookup().unreflectSetter(field)
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the raw class of the delegate type.
+     *
+     * @return The class the delegate is an instance of
+     */
+    Class<?> rawDelegateType() {
+        return TypeLiteral.get(delegateType).getRawType();
+    }
+
+    /**
+     * Checks whether this decorator applies to the beans of a class Guice constructs, from the class's own qualifiers.
+     *
+     * @param beanClass The bean class
+     * @return true if the delegate type is a type of the class and the class has the delegate qualifiers
+     */
+    boolean decorates(Class<?> beanClass) {
+        Class<?> rawDelegateType = rawDelegateType();
+        if (!rawDelegateType.isAssignableFrom(beanClass)
+                || !delegateType.equals(TypeKeys.canonicalize(TypeLiteral.get(beanClass).getSupertype(rawDelegateType).getType()))) {
+            return false;
+        }
+        if (delegateQualifiers.size() == 1 && delegateQualifiers.contains(Any.Literal.INSTANCE)) {
+            return true;
+        }
+        return qualifiersOf(beanClass.getAnnotations()).containsAll(delegateQualifiers);
+    }
+
+    /**
+     * Checks whether this decorator applies to a binding key.
+     *
+     * @param key The binding key
+     * @return true if the decorator's delegate injection point matches the key
+     */
+    boolean decorates(Key<?> key) {
+        if (!delegateType.equals(TypeKeys.canonicalize(key.getTypeLiteral().getType()))) {
+            return false;
+        }
+        if (delegateQualifiers.size() == 1 && delegateQualifiers.contains(Any.Literal.INSTANCE)) {
+            return true;
+        }
+        if (key.getAnnotationType() == null) {
+            return delegateQualifiers.contains(Default.Literal.INSTANCE);
+        }
+        return key.getAnnotation() != null && delegateQualifiers.contains(QualifierIds.normalize(key.getAnnotation()));
+    }
+
+    /**
+     * Looks up the providers and members injector this decorator is constructed with in an injector being configured.
+     *
+     * @param binder The binder of the injector
+     * @return The factory of decorator instances for the injector
+     */
+    Factory factory(Binder binder) {
+        List<Dependency<?>> dependencies = constructor.getDependencies();
+        Provider<?>[] arguments = new Provider<?>[dependencies.size()];
+        for (Dependency<?> dependency : dependencies) {
+            if (dependency.getParameterIndex() != delegatePosition) {
+                arguments[dependency.getParameterIndex()] = binder.getProvider(dependency);
+            }
+        }
+        return new Factory(arguments, binder.getMembersInjector(decoratorClass));
+    }
+
+    /**
+     * Creates the instances of a decorator in one injector.
+     */
+    final class Factory {
+        private final Provider<?>[] arguments;
+        private final MembersInjector<T> members;
+
+        private Factory(Provider<?>[] arguments, MembersInjector<T> members) {
+            this.arguments = arguments;
+            this.members = members;
+        }
+
+        /**
+         * Creates a decorator of a delegate.
+         *
+         * @param delegate The instance the decorator decorates
+         * @return The decorator, fully injected
+         */
+        @SuppressWarnings("unchecked")
+        T create(Object delegate) {
+            Object[] values = new Object[arguments.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = i == delegatePosition ? delegate : arguments[i].get();
+            }
+            T decorator;
+            try {
+                decorator = (T) constructorHandle.invoke(values);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new ProvisionException("Could not construct decorator " + decoratorClass.getName(), t);
+            }
+            members.injectMembers(decorator);
+            try {
+                if (delegateSetter != null) {
+                    delegateSetter.invokeExact((Object) decorator, delegate);
+                }
+                if (generatedDelegateSetter != null) {
+                    generatedDelegateSetter.invokeExact((Object) decorator, delegate);
+                }
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+            return decorator;
+        }
+    }
+
+    @Override
+    public Type getDelegateType() {
+        return delegateType;
+    }
+
+    @Override
+    public Set<Annotation> getDelegateQualifiers() {
+        return delegateQualifiers;
+    }
+
+    @Override
+    public Set<Type> getDecoratedTypes() {
+        return decoratedTypes;
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public Class<?> getBeanClass() {
+        return decoratorClass;
+    }
+
+    @Override
+    public Set<jakarta.enterprise.inject.spi.InjectionPoint> getInjectionPoints() {
+        return Set.of();
+    }
+
+    /**
+     * Not supported: a decorator is only created with its delegate, through the {@link Factory} of an injector, by the
+     * provider or interception of the bean it decorates.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public T create(CreationalContext<T> creationalContext) {
+        throw new UnsupportedOperationException("Decorators are created with the instance they decorate, by the provider or interception of the decorated bean");
+    }
+
+    @Override
+    public void destroy(T instance, CreationalContext<T> creationalContext) {
+        // No-op, as Guice doesn't support bean destruction
+    }
+
+    @Override
+    public Set<Type> getTypes() {
+        return Set.copyOf(TypeClosure.of(decoratorClass));
+    }
+
+    @Override
+    public Set<Annotation> getQualifiers() {
+        return Set.of(Any.Literal.INSTANCE);
+    }
+
+    @Override
+    public Class<? extends Annotation> getScope() {
+        return Dependent.class;
+    }
+
+    @Override
+    public String getName() {
+        return null;
+    }
+
+    @Override
+    public Set<Class<? extends Annotation>> getStereotypes() {
+        return Set.of();
+    }
+
+    @Override
+    public boolean isAlternative() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "GuiceDecorator[" + decoratorClass.getName() + " of " + delegateType.getTypeName() + " " + delegateQualifiers + "]";
+    }
+}
@@ -0,0 +1,116 @@
+package com.guicedee.cdi;
+
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.NotificationOptions;
+import jakarta.enterprise.util.TypeLiteral;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * An {@link Event} that delivers events to the observer methods of an injector's beans.
+ * Selecting a subtype or qualifiers creates a new event carrying the combined type and qualifiers.
+ * <p>
+ * Selecting {@link Batched} makes {@link #fire(Object)} buffer events for batched delivery instead of notifying
+ * observers directly. The buffer of the last fired event class is kept on the event, so firing repeatedly through
+ * the same event only appends to its queue.
+ *
+ * @param <T> The event type
+ */
+final class GuiceEvent<T> implements Event<T> {
+
+    private static final Annotation[] NO_QUALIFIERS = new Annotation[0];
+
+    private final ObserverRegistry observers;
+    private final Type type;
+    private final Annotation[] qualifiers;
+    private final Batched batched;
+    private volatile EventBatcher.Buffer buffer;
+
+    /**
+     * Creates an event without qualifiers.
+     *
+     * @param observers The observers to notify
+     * @param type      The specified event type
+     */
+    GuiceEvent(ObserverRegistry observers, Type type) {
+        this(observers, type, NO_QUALIFIERS, null);
+    }
+
+    private GuiceEvent(ObserverRegistry observers, Type type, Annotation[] qualifiers, Batched batched) {
+        this.observers = observers;
+        this.type = type;
+        this.qualifiers = qualifiers;
+        this.batched = batched;
+    }
+
+    @Override
+    public void fire(T event) {
+        if (batched == null) {
+            observers.fire(event, type, qualifiers);
+            return;
+        }
+        EventBatcher.Buffer current = buffer;
+        if (current == null || current.getEventClass() != ObserverRegistry.requireEvent(event).getClass()) {
+            current = observers.getBatcher().buffer(event.getClass(), qualifiers, batched);
+            buffer = current;
+        }
+        current.add(event);
+    }
+
+    @Override
+    public <U extends T> CompletionStage<U> fireAsync(U event) {
+        return observers.fireAsync(event, type, null, qualifiers);
+    }
+
+    @Override
+    public <U extends T> CompletionStage<U> fireAsync(U event, NotificationOptions options) {
+        return observers.fireAsync(event, type, options, qualifiers);
+    }
+
+    @Override
+    public Event<T> select(Annotation... qualifiers) {
+        return new GuiceEvent<>(observers, type, combine(qualifiers), batched(qualifiers));
+    }
+
+    @Override
+    public <U extends T> Event<U> select(Class<U> subtype, Annotation... qualifiers) {
+        return new GuiceEvent<>(observers, subtype, combine(qualifiers), batched(qualifiers));
+    }
+
+    @Override
+    public <U extends T> Event<U> select(TypeLiteral<U> subtype, Annotation... qualifiers) {
+        return new GuiceEvent<>(observers, TypeKeys.typeOf(subtype), combine(qualifiers), batched(qualifiers));
+    }
+
+    /**
+     * Appends the selected qualifiers, leaving out {@link Batched} which is not passed on to observers.
+     */
+    private Annotation[] combine(Annotation[] added) {
+        if (added == null || added.length == 0) {
+            return qualifiers;
+        }
+        Annotation[] combined = Arrays.copyOf(qualifiers, qualifiers.length + added.length);
+        int size = qualifiers.length;
+        for (Annotation qualifier : added) {
+            if (!(qualifier instanceof Batched)) {
+                combined[size++] = qualifier;
+            }
+        }
+        return size == qualifiers.length ? qualifiers : Arrays.copyOf(combined, size);
+    }
+
+    private Batched batched(Annotation[] added) {
+        Batched selected = batched;
+        if (added != null) {
+            for (Annotation qualifier : added) {
+                if (qualifier instanceof Batched batchedQualifier) {
+                    selected = batchedQualifier;
+                }
+            }
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,278 @@
+package com.guicedee.cdi;
+
+import com.google.inject.Provider;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.Dependent;
+import jakarta.enterprise.context.spi.CreationalContext;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.spi.InjectionPoint;
+import jakarta.enterprise.inject.spi.InterceptionType;
+import jakarta.enterprise.inject.spi.Interceptor;
+import jakarta.enterprise.inject.spi.Prioritized;
+import jakarta.enterprise.util.Nonbinding;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.InterceptorBinding;
+import jakarta.interceptor.InvocationContext;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A CDI {@link Interceptor} for a class annotated with {@code @Interceptor}, {@code @Priority} and one or more
+ * interceptor bindings.
+ * <p>
+ * The {@code @AroundInvoke} method is compiled once into a {@link MethodHandle} of type
+ * {@code (Object interceptor, InvocationContext)Object}. The interceptor instance is obtained from Guice on first
+ * use and shared by every intercepted method of the injector.
+ *
+ * @param <T> The interceptor class
+ */
+final class GuiceInterceptor<T> implements Interceptor<T>, Prioritized {
+
+    private final Class<T> interceptorClass;
+    private final Set<Annotation> bindings;
+    private final int priority;
+    private final MethodHandle aroundInvoke;
+    private final Provider<T> provider;
+    private volatile T instance;
+
+    /**
+     * Compiles an interceptor class.
+     *
+     * @param interceptorClass The interceptor class
+     * @param provider         The provider of the interceptor instance
+     * @throws IllegalArgumentException if the class declares no interceptor binding or no accessible {@code @AroundInvoke} method
+     */
+    GuiceInterceptor(Class<T> interceptorClass, Provider<T> provider) {
+        this.interceptorClass = interceptorClass;
+        this.provider = provider;
+        this.bindings = Set.copyOf(bindingsOf(interceptorClass.getAnnotations()));
+        if (bindings.isEmpty()) {
+            throw new IllegalArgumentException("Interceptor " + interceptorClass.getName() + " declares no interceptor binding");
+        }
+        Priority interceptorPriority = interceptorClass.getAnnotation(Priority.class);
+        this.priority = interceptorPriority == null ? 0 : interceptorPriority.value();
+        this.aroundInvoke = compile(interceptorClass);
+    }
+
+    /**
+     * Finds the {@code @AroundInvoke} method of the class or its closest superclass declaring one.
+     */
+    private static MethodHandle compile(Class<?> interceptorClass) {
+        for (Class<?> type = interceptorClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (!method.isAnnotationPresent(AroundInvoke.class)) {
+                    continue;
+                }
+                if (!method.trySetAccessible()) {
+                    throw new IllegalArgumentException("@AroundInvoke method " + method + " is not accessible, open its package to com.guicedee.cdi");
+                }
+                try {
+                    return MethodHandles.lookup().unreflect(method)
+                            .asType(MethodType.methodType(Object.class, Object.class, InvocationContext.class));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalArgumentException("@AroundInvoke method " + method + " cannot be accessed", e);
+                }
+            }
+        }
+        throw new IllegalArgumentException("Interceptor " + interceptorClass.getName() + " declares no @AroundInvoke method");
+    }
+
+    /**
+     * Collects the interceptor bindings among a set of annotations, including the bindings they inherit from
+     * interceptor bindings declared on their own annotation type.
+     *
+     * @param annotations The annotations of a class or method
+     * @return The interceptor bindings
+     */
+    static Set<Annotation> bindingsOf(Annotation[] annotations) {
+        Set<Annotation> found = new LinkedHashSet<>();
+        collectBindings(annotations, found);
+        return found;
+    }
+
+    private static void collectBindings(Annotation[] annotations, Set<Annotation> found) {
+        for (Annotation annotation : annotations) {
+            if (annotation.annotationType().isAnnotationPresent(InterceptorBinding.class) && found.add(annotation)) {
+                collectBindings(annotation.annotationType().getAnnotations(), found);
+            }
+        }
+    }
+
+    /**
+     * Checks whether every binding of this interceptor is present on a method.
+     *
+     * @param methodBindings The interceptor bindings of the method, keyed by annotation type
+     * @return true if this interceptor applies to the method
+     */
+    boolean appliesTo(Map<Class<? extends Annotation>, Annotation> methodBindings) {
+        for (Annotation binding : bindings) {
+            Annotation present = methodBindings.get(binding.annotationType());
+            if (present == null || !bindingEquals(binding, present)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares two interceptor bindings of the same type, ignoring members annotated with {@link Nonbinding}.
+     *
+     * @param binding1 The first binding
+     * @param binding2 The second binding
+     * @return true if the bindings are equivalent
+     */
+    static boolean bindingEquals(Annotation binding1, Annotation binding2) {
+        if (binding1.annotationType() != binding2.annotationType()) {
+            return false;
+        }
+        for (Method member : binding1.annotationType().getDeclaredMethods()) {
+            if (member.isAnnotationPresent(Nonbinding.class)) {
+                continue;
+            }
+            try {
+                member.trySetAccessible();
+                if (!Objects.deepEquals(member.invoke(binding1), member.invoke(binding2))) {
+                    return false;
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return binding1.equals(binding2);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes a hash code of an interceptor binding consistent with {@link #bindingEquals(Annotation, Annotation)}.
+     *
+     * @param binding The binding
+     * @return The hash code of the binding's type and binding members
+     */
+    static int bindingHashCode(Annotation binding) {
+        int hash = binding.annotationType().hashCode();
+        for (Method member : binding.annotationType().getDeclaredMethods()) {
+            if (member.isAnnotationPresent(Nonbinding.class)) {
+                continue;
+            }
+            try {
+                member.trySetAccessible();
+                hash = 31 * hash + member.getName().hashCode() ^ Arrays.deepHashCode(new Object[]{member.invoke(binding)});
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return binding.hashCode();
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Calls the {@code @AroundInvoke} method.
+     *
+     * @param context The invocation context
+     * @return The result of the invocation
+     * @throws Exception if the interceptor or the invocation throws
+     */
+    Object aroundInvoke(InvocationContext context) throws Exception {
+        T target = instance;
+        if (target == null) {
+            target = provider.get();
+            instance = target;
+        }
+        try {
+            return aroundInvoke.invokeExact((Object) target, context);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Override
+    public Set<Annotation> getInterceptorBindings() {
+        return bindings;
+    }
+
+    @Override
+    public boolean intercepts(InterceptionType type) {
+        return type == InterceptionType.AROUND_INVOKE;
+    }
+
+    @Override
+    public Object intercept(InterceptionType type, T instance, InvocationContext ctx) throws Exception {
+        try {
+            return aroundInvoke.invokeExact((Object) instance, ctx);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public Class<?> getBeanClass() {
+        return interceptorClass;
+    }
+
+    @Override
+    public Set<InjectionPoint> getInjectionPoints() {
+        return Set.of();
+    }
+
+    @Override
+    public T create(CreationalContext<T> creationalContext) {
+        return provider.get();
+    }
+
+    @Override
+    public void destroy(T instance, CreationalContext<T> creationalContext) {
+        // No-op, as Guice doesn't support bean destruction
+    }
+
+    @Override
+    public Set<Type> getTypes() {
+        return Set.of(interceptorClass, Object.class);
+    }
+
+    @Override
+    public Set<Annotation> getQualifiers() {
+        return Set.of(Any.Literal.INSTANCE);
+    }
+
+    @Override
+    public Class<? extends Annotation> getScope() {
+        return Dependent.class;
+    }
+
+    @Override
+    public String getName() {
+        return null;
+    }
+
+    @Override
+    public Set<Class<? extends Annotation>> getStereotypes() {
+        return Set.of();
+    }
+
+    @Override
+    public boolean isAlternative() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "GuiceInterceptor[" + interceptorClass.getName() + " " + bindings + "]";
+    }
+}
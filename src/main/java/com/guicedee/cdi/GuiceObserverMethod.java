@@ -0,0 +1,342 @@
+package com.guicedee.cdi;
+
+import com.google.inject.Provider;
+import com.google.inject.TypeLiteral;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.event.ObserverException;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.ObservesAsync;
+import jakarta.enterprise.event.Reception;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.EventContext;
+import jakarta.enterprise.inject.spi.EventMetadata;
+import jakarta.enterprise.inject.spi.InjectionPoint;
+import jakarta.enterprise.inject.spi.ObserverMethod;
+import jakarta.inject.Qualifier;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * An {@link ObserverMethod} for a method of a Guice bound class with an {@code @Observes} or {@code @ObservesAsync} parameter.
+ * <p>
+ * The observer method is compiled once into a {@link MethodHandle} of type {@code (Object receiver, Object event)void}.
+ * Any other parameters are bound to the providers of their Guice keys inside the handle, so notifying the observer is a
+ * single {@code invokeExact} call with no reflection and no argument arrays.
+ * <p>
+ * Observer methods added programmatically are wrapped so they are dispatched and matched like discovered ones,
+ * and are notified through {@link ObserverMethod#notify(EventContext)}.
+ *
+ * @param <T> The observed event type
+ */
+final class GuiceObserverMethod<T> implements ObserverMethod<T> {
+
+    private static final MethodHandle PROVIDER_GET;
+
+    static {
+        try {
+            PROVIDER_GET = MethodHandles.publicLookup().findVirtual(Provider.class, "get", MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Bean<?> declaringBean;
+    private final Class<?> beanClass;
+    private final Method method;
+    private final Type observedType;
+    private final Class<?> observedClass;
+    private final Set<Annotation> qualifiers;
+    private final long[] qualifierMask;
+    private final Reception reception;
+    private final TransactionPhase transactionPhase;
+    private final boolean async;
+    private final int priority;
+    private final Provider<?> receiver;
+    private final MethodHandle invoker;
+    private final ObserverMethod<T> delegate;
+
+    /**
+     * Compiles an observer method.
+     *
+     * @param declaringBean The bean declaring the method
+     * @param method        The observer method
+     * @param eventPosition The index of the observed parameter
+     * @param receiver      The provider of the bean instance to notify, or null for static methods. For
+     *                      {@link Reception#IF_EXISTS} observers it provides null while the bean does not exist
+     * @param arguments     The providers of the other parameters, indexed by parameter position
+     * @param qualifierIds  The qualifier ids to register the observed qualifiers with
+     * @throws IllegalAccessException if the method cannot be accessed
+     */
+    GuiceObserverMethod(Bean<?> declaringBean, Method method, int eventPosition, Provider<?> receiver, Provider<?>[] arguments,
+                        QualifierIds qualifierIds) throws IllegalAccessException {
+        this.declaringBean = declaringBean;
+        this.beanClass = declaringBean.getBeanClass();
+        this.method = method;
+
+        Parameter parameter = method.getParameters()[eventPosition];
+        this.observedType = TypeKeys.canonicalize(parameter.getParameterizedType());
+        this.observedClass = MethodType.methodType(BeanIndex.rawType(observedType)).wrap().returnType();
+        Set<Annotation> observedQualifiers = new LinkedHashSet<>();
+        for (Annotation annotation : parameter.getAnnotations()) {
+            if (annotation.annotationType().isAnnotationPresent(Qualifier.class)) {
+                observedQualifiers.add(annotation);
+            }
+        }
+        this.qualifiers = qualifierIds.intern(observedQualifiers);
+        this.qualifierMask = qualifierIds.internedMask(qualifiers);
+
+        Observes observes = parameter.getAnnotation(Observes.class);
+        if (observes != null) {
+            this.async = false;
+            this.reception = observes.notifyObserver();
+            this.transactionPhase = observes.during();
+        } else {
+            this.async = true;
+            this.reception = parameter.getAnnotation(ObservesAsync.class).notifyObserver();
+            this.transactionPhase = TransactionPhase.IN_PROGRESS;
+        }
+        Priority observerPriority = parameter.getAnnotation(Priority.class);
+        this.priority = observerPriority == null ? DEFAULT_PRIORITY : observerPriority.value();
+
+        this.receiver = receiver;
+        this.invoker = compile(method, eventPosition, arguments);
+        this.delegate = null;
+    }
+
+    /**
+     * Wraps an observer method added programmatically.
+     *
+     * @param delegate     The observer method
+     * @param qualifierIds The qualifier ids to register the observed qualifiers with
+     */
+    GuiceObserverMethod(ObserverMethod<T> delegate, QualifierIds qualifierIds) {
+        this.declaringBean = delegate.getDeclaringBean();
+        this.beanClass = delegate.getBeanClass();
+        this.method = null;
+        this.observedType = TypeKeys.canonicalize(delegate.getObservedType());
+        this.observedClass = MethodType.methodType(BeanIndex.rawType(observedType)).wrap().returnType();
+        this.qualifiers = qualifierIds.intern(delegate.getObservedQualifiers());
+        this.qualifierMask = qualifierIds.internedMask(qualifiers);
+        this.reception = delegate.getReception();
+        this.transactionPhase = delegate.getTransactionPhase();
+        this.async = delegate.isAsync();
+        this.priority = delegate.getPriority();
+        this.receiver = null;
+        this.invoker = null;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Builds a handle of type {@code (Object, Object)void} calling the method with the receiver, the event and the
+     * provided values of every other parameter.
+     */
+    private static MethodHandle compile(Method method, int eventPosition, Provider<?>[] arguments) throws IllegalAccessException {
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        int parameterCount = method.getParameterCount();
+        handle = handle.asType(MethodType.genericMethodType(parameterCount + 1).changeReturnType(void.class));
+        for (int i = parameterCount - 1; i >= 0; i--) {
+            if (i != eventPosition) {
+                handle = MethodHandles.collectArguments(handle, i + 1, PROVIDER_GET.bindTo(arguments[i]));
+            }
+        }
+        return handle;
+    }
+
+    /**
+     * Gets the class the observed type is dispatched under, boxed when the observed type is primitive.
+     *
+     * @return The raw observed class
+     */
+    Class<?> getObservedClass() {
+        return observedClass;
+    }
+
+    /**
+     * Checks whether the observer is notified during a phase of the transaction rather than when the event is fired.
+     *
+     * @return true for an observer of a transaction phase other than {@link TransactionPhase#IN_PROGRESS}
+     */
+    boolean isTransactional() {
+        return transactionPhase != TransactionPhase.IN_PROGRESS;
+    }
+
+    /**
+     * Checks whether the observer is a static method, notified without an instance of its bean.
+     *
+     * @return true for a static observer method
+     */
+    boolean isStatic() {
+        return method != null && Modifier.isStatic(method.getModifiers());
+    }
+
+    /**
+     * Checks whether an event fired with the given type and qualifiers is observed by this method.
+     * The event's runtime class is already known to be assignable to the observed class.
+     *
+     * @param eventType The specified event type
+     * @param eventMask The qualifier mask of the event, see {@link QualifierIds#event(Annotation...)}
+     * @return true if the method observes the event
+     */
+    boolean observes(Type eventType, long[] eventMask) {
+        return QualifierIds.containsAll(eventMask, qualifierMask) && observesType(observedType, eventType);
+    }
+
+    /**
+     * Checks the parameterization of an event against an observed type whose raw class it is assignable to.
+     * Parameterized observed types only match events whose specified type has the same parameterization.
+     * Raw event types, and observed types using wildcards or type variables, match on their raw class.
+     *
+     * @param observedType The observed type
+     * @param eventType    The specified event type
+     * @return true if the event type matches the observed parameterization
+     */
+    static boolean observesType(Type observedType, Type eventType) {
+        if (!(observedType instanceof ParameterizedType parameterized) || eventType instanceof Class<?>) {
+            return true;
+        }
+        for (Type argument : parameterized.getActualTypeArguments()) {
+            if (!(argument instanceof Class<?>) && !(argument instanceof ParameterizedType)) {
+                return true;
+            }
+        }
+        try {
+            return TypeLiteral.get(eventType).getSupertype(BeanIndex.rawType(observedType)).getType().equals(observedType);
+        } catch (IllegalArgumentException e) {
+            // The specified type is not a subtype of the observed class, the runtime class matched already
+            return true;
+        }
+    }
+
+    /**
+     * Gets the observer method to report from resolution: the wrapped one for observers added programmatically.
+     *
+     * @return The observer method
+     */
+    ObserverMethod<?> unwrap() {
+        return delegate == null ? this : delegate;
+    }
+
+    /**
+     * Notifies the observer of an event fired with the given type and qualifiers.
+     *
+     * @param event      The event
+     * @param eventType  The specified event type
+     * @param qualifiers The event qualifiers
+     */
+    void notify(T event, Type eventType, Annotation[] qualifiers) {
+        if (delegate == null) {
+            notify(event);
+            return;
+        }
+        EventMetadata metadata = new EventMetadata() {
+            @Override
+            public Set<Annotation> getQualifiers() {
+                return Set.copyOf(Arrays.asList(qualifiers));
+            }
+
+            @Override
+            public InjectionPoint getInjectionPoint() {
+                return null;
+            }
+
+            @Override
+            public Type getType() {
+                return eventType;
+            }
+        };
+        delegate.notify(new EventContext<>() {
+            @Override
+            public T getEvent() {
+                return event;
+            }
+
+            @Override
+            public EventMetadata getMetadata() {
+                return metadata;
+            }
+        });
+    }
+
+    @Override
+    public void notify(T event) {
+        if (delegate != null) {
+            delegate.notify(event);
+            return;
+        }
+        Object instance = receiver == null ? null : receiver.get();
+        if (instance == null && receiver != null && reception == Reception.IF_EXISTS) {
+            // The bean of a conditional observer does not exist yet
+            return;
+        }
+        try {
+            invoker.invokeExact(instance, (Object) event);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new ObserverException(t);
+        }
+    }
+
+    @Override
+    public Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    @Override
+    public Bean<?> getDeclaringBean() {
+        return declaringBean;
+    }
+
+    @Override
+    public Type getObservedType() {
+        return observedType;
+    }
+
+    @Override
+    public Set<Annotation> getObservedQualifiers() {
+        return qualifiers;
+    }
+
+    @Override
+    public Reception getReception() {
+        return reception;
+    }
+
+    @Override
+    public TransactionPhase getTransactionPhase() {
+        return transactionPhase;
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public boolean isAsync() {
+        return async;
+    }
+
+    @Override
+    public String toString() {
+        if (delegate != null) {
+            return "GuiceObserverMethod[" + delegate + "]";
+        }
+        return "GuiceObserverMethod[" + method.getDeclaringClass().getName() + "." + method.getName() + "(" + observedType.getTypeName() + ")]";
+    }
+}
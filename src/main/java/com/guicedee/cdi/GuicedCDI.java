@@ -1,17 +1,22 @@
 package com.guicedee.cdi;
 
-import com.google.inject.Key;
-import com.google.inject.name.Names;
+import com.google.inject.Provider;
 import com.guicedee.client.IGuiceContext;
+import jakarta.enterprise.inject.AmbiguousResolutionException;
 import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.UnsatisfiedResolutionException;
+import jakarta.enterprise.inject.spi.Bean;
 import jakarta.enterprise.inject.spi.BeanManager;
 import jakarta.enterprise.inject.spi.CDI;
 import jakarta.enterprise.util.TypeLiteral;
 
 import java.lang.annotation.Annotation;
-import java.util.Collections;
+import java.lang.reflect.Type;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * A minimal implementation of Jakarta CDI that delegates to GuicedEE's CDI implementation.
@@ -38,21 +43,27 @@ public class GuicedCDI extends CDI<Object> {
     }
 
     /**
-     * A private inner class that implements Instance<T> and delegates to IGuiceContext.get().
+     * A private inner class that implements Instance<T> and delegates to the bean manager's cached providers.
+     * The provider is resolved on the first call to {@link #get()} and reused for every later call.
+     * <p>
+     * Iteration, streams and handles run over every matching bean in the bean index. Matching beans are looked up
+     * once per instance, and each bean is only instantiated when its element or handle is actually read.
      * 
      * @param <T> The type of the bean
      */
     private static class GuicedCDIInstance<T> implements Instance<T> {
-        private final Class<T> type;
+        private final Type type;
         private final Annotation[] qualifiers;
+        private volatile Provider<T> provider;
+        private volatile Matching matching;
 
         /**
          * Constructs a new GuicedCDIInstance with the specified type and qualifiers.
          * 
-         * @param type The type of the bean
+         * @param type The type of the bean, a class or a canonical parameterized type
          * @param qualifiers The qualifiers
          */
-        public GuicedCDIInstance(Class<T> type, Annotation... qualifiers) {
+        public GuicedCDIInstance(Type type, Annotation... qualifiers) {
             this.type = type;
             this.qualifiers = qualifiers;
         }
@@ -80,7 +91,7 @@ public class GuicedCDI extends CDI<Object> {
          */
         @Override
         public <U extends T> Instance<U> select(TypeLiteral<U> subtype, Annotation... qualifiers) {
-            throw new UnsupportedOperationException("TypeLiteral not supported");
+            return new GuicedCDIInstance<>(TypeKeys.typeOf(subtype), qualifiers);
         }
 
         /**
@@ -101,7 +112,7 @@ public class GuicedCDI extends CDI<Object> {
          */
         @Override
         public boolean isUnsatisfied() {
-            return false;
+            return matching().array().length == 0;
         }
 
         /**
@@ -111,7 +122,16 @@ public class GuicedCDI extends CDI<Object> {
          */
         @Override
         public boolean isAmbiguous() {
-            return false;
+            Set<Bean<?>> beans = matching().set();
+            if (beans.size() < 2) {
+                return false;
+            }
+            try {
+                matching().index().resolve(beans);
+                return false;
+            } catch (AmbiguousResolutionException e) {
+                return true;
+            }
         }
 
         /**
@@ -130,18 +150,42 @@ public class GuicedCDI extends CDI<Object> {
          * @return A handle for the instance
          */
         @Override
+        @SuppressWarnings("unchecked")
         public Handle<T> getHandle() {
-            throw new UnsupportedOperationException("Not implemented");
+            Matching beans = matching();
+            if (beans.array().length == 0) {
+                throw new UnsatisfiedResolutionException("No bean found for " + type.getTypeName() + " with qualifiers " + Arrays.toString(qualifiers));
+            }
+            if (beans.set().isEmpty()) {
+                return new GuicedCDIHandle<>((GuiceBean<T>) beans.array()[0]);
+            }
+            return new GuicedCDIHandle<>((GuiceBean<T>) beans.index().resolve(beans.set()));
         }
 
         /**
-         * Gets handles for the instance.
+         * Gets handles for every matching bean. Beans are instantiated only when a handle's {@code get()} is called.
          * 
          * @return Handles for the instance
          */
         @Override
         public Iterable<? extends Handle<T>> handles() {
-            throw new UnsupportedOperationException("Not implemented");
+            Iterable<GuicedCDIHandle<T>> handles = () -> handleStream().iterator();
+            return handles;
+        }
+
+        /**
+         * Gets a splittable stream of handles for every matching bean.
+         *
+         * @return A stream of handles
+         */
+        @Override
+        public Stream<? extends Handle<T>> handlesStream() {
+            return handleStream();
+        }
+
+        @SuppressWarnings("unchecked")
+        private Stream<GuicedCDIHandle<T>> handleStream() {
+            return Arrays.stream(matching().array()).map(bean -> new GuicedCDIHandle<>((GuiceBean<T>) bean));
         }
 
         /**
@@ -151,11 +195,12 @@ public class GuicedCDI extends CDI<Object> {
          */
         @Override
         public T get() {
-            if (qualifiers.length == 0) {
-                return IGuiceContext.get(type);
-            } else {
-                return IGuiceContext.get(Key.get(type, qualifiers[0]));
+            Provider<T> resolved = provider;
+            if (resolved == null) {
+                resolved = com.guicedee.cdi.CDI.getBeanManager().getProvider(type, qualifiers);
+                provider = resolved;
             }
+            return resolved.get();
         }
 
         /**
@@ -165,7 +210,112 @@ public class GuicedCDI extends CDI<Object> {
          */
         @Override
         public Iterator<T> iterator() {
-            return Collections.singleton(get()).iterator();
+            Bean<?>[] beans = matching().array();
+            return new Iterator<>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < beans.length;
+                }
+
+                @Override
+                public T next() {
+                    if (next >= beans.length) {
+                        throw new NoSuchElementException();
+                    }
+                    return instanceOf(beans[next++]);
+                }
+            };
+        }
+
+        /**
+         * Gets a stream over every matching bean, instantiating each one only when the stream reaches it.
+         * The stream is backed by an array and splits evenly for parallel processing.
+         *
+         * @return A stream of bean instances
+         */
+        @Override
+        public Stream<T> stream() {
+            return Arrays.stream(matching().array()).map(this::instanceOf);
+        }
+
+        /**
+         * Gets the beans matching this instance's type and qualifiers from the bean index, once per instance.
+         * When nothing is indexed for the type, Guice may still bind it just-in-time, as {@link #get()} does, and that
+         * binding is the only element, so resolution, iteration and handles all agree without creating an instance.
+         */
+        private Matching matching() {
+            Matching resolved = matching;
+            if (resolved == null) {
+                GuiceCDIBeanManager beanManager = com.guicedee.cdi.CDI.getBeanManager();
+                BeanIndex index = beanManager.getIndex();
+                Set<Bean<?>> beans = index.getBeans(type, qualifiers);
+                Bean<?> justInTime = beans.isEmpty() ? beanManager.getJustInTimeBean(type, qualifiers) : null;
+                resolved = new Matching(index, beans, justInTime == null ? beans.toArray(new Bean<?>[0]) : new Bean<?>[]{justInTime});
+                matching = resolved;
+            }
+            return resolved;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T instanceOf(Bean<?> bean) {
+            return ((GuiceBean<T>) bean).getProvider().get();
+        }
+    }
+
+    /**
+     * The beans matching an instance, as the shared index set and as an array for iteration and splitting.
+     *
+     * @param index The bean index the beans came from
+     * @param set The matching indexed beans
+     * @param array The matching beans in iteration order, or the just-in-time bean when none are indexed
+     */
+    private record Matching(BeanIndex index, Set<Bean<?>> set, Bean<?>[] array) {
+    }
+
+    /**
+     * A handle over a single bean that creates its instance on the first call to {@link #get()}.
+     *
+     * @param <T> The type of the bean
+     */
+    private static final class GuicedCDIHandle<T> implements Instance.Handle<T> {
+        private final GuiceBean<T> bean;
+        private volatile T instance;
+
+        /**
+         * Constructs a new handle for the bean.
+         *
+         * @param bean The bean
+         */
+        private GuicedCDIHandle(GuiceBean<T> bean) {
+            this.bean = bean;
+        }
+
+        @Override
+        public T get() {
+            T resolved = instance;
+            if (resolved == null) {
+                resolved = bean.getProvider().get();
+                instance = resolved;
+            }
+            return resolved;
+        }
+
+        @Override
+        public Bean<T> getBean() {
+            return bean;
+        }
+
+        @Override
+        public void destroy() {
+            // Guice owns the instance lifecycle, so the handle only releases its reference
+            instance = null;
+        }
+
+        @Override
+        public void close() {
+            destroy();
         }
     }
 
@@ -203,7 +353,7 @@ public class GuicedCDI extends CDI<Object> {
      */
     @Override
     public <U extends Object> Instance<U> select(TypeLiteral<U> subtype, Annotation... qualifiers) {
-        throw new UnsupportedOperationException("TypeLiteral not supported");
+        return new GuicedCDIInstance<>(TypeKeys.typeOf(subtype), qualifiers);
     }
 
     /**
@@ -254,7 +404,7 @@ public class GuicedCDI extends CDI<Object> {
      */
     @Override
     public Handle<Object> getHandle() {
-        throw new UnsupportedOperationException("Not implemented");
+        return new GuicedCDIInstance<>(Object.class).getHandle();
     }
 
     /**
@@ -264,7 +414,17 @@ public class GuicedCDI extends CDI<Object> {
      */
     @Override
     public Iterable<? extends Handle<Object>> handles() {
-        throw new UnsupportedOperationException("Not implemented");
+        return new GuicedCDIInstance<>(Object.class).handles();
+    }
+
+    /**
+     * Gets a stream of handles for every default bean.
+     *
+     * @return A stream of handles
+     */
+    @Override
+    public Stream<? extends Handle<Object>> handlesStream() {
+        return new GuicedCDIInstance<>(Object.class).handlesStream();
     }
 
     /**
@@ -284,7 +444,17 @@ public class GuicedCDI extends CDI<Object> {
      */
     @Override
     public Iterator<Object> iterator() {
-        // Return an iterator over the singleton instance
-        return Collections.singleton(get()).iterator();
+        // Lazily iterate every default bean
+        return new GuicedCDIInstance<>(Object.class).iterator();
+    }
+
+    /**
+     * Gets a stream over every default bean.
+     *
+     * @return A stream of bean instances
+     */
+    @Override
+    public Stream<Object> stream() {
+        return new GuicedCDIInstance<>(Object.class).stream();
     }
 }
@@ -0,0 +1,23 @@
+package com.guicedee.cdi;
+
+import jakarta.enterprise.event.TransactionPhase;
+
+/**
+ * Interface for the transaction integration that defers transactional observer methods, those declared with
+ * {@code @Observes(during = ...)} other than {@link TransactionPhase#IN_PROGRESS}, to a phase of the transaction.
+ * An implementation is located through the ServiceLoader once. Without one, or when no transaction is active,
+ * transactional observers are notified immediately, as CDI specifies.
+ */
+public interface ITransactionSynchronizer
+{
+    /**
+     * Defers a notification to a phase of the transaction active on the current thread.
+     * For {@link TransactionPhase#AFTER_SUCCESS} and {@link TransactionPhase#AFTER_FAILURE}, the notification is only
+     * run when the transaction completes with the matching outcome.
+     *
+     * @param phase        The transaction phase
+     * @param notification The notification of the observer
+     * @return true if the notification was deferred, false when no transaction is active
+     */
+    boolean defer(TransactionPhase phase, Runnable notification);
+}
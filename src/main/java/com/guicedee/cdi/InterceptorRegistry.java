@@ -0,0 +1,305 @@
+package com.guicedee.cdi;
+
+import com.google.inject.matcher.Matcher;
+import jakarta.enterprise.inject.spi.InterceptionType;
+import jakarta.enterprise.inject.spi.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * The CDI interceptors of an injector, applied to its beans through Guice AOP.
+ * <p>
+ * The interceptor chains of a bean class are computed once per class, the first time Guice asks the class matcher about
+ * it: for each method, inherited ones included, the interceptor bindings of the method and of the bean class are
+ * collected, the interceptors whose bindings they satisfy are selected, and the chain is stored in priority order. A
+ * method inherited by two bean classes thus gets the chain of each. Classes without a chain are not enhanced at all.
+ * Guice does not promise in which order it asks the class and method matchers, so the method matcher decides from the
+ * method alone, and a matched method without a chain for the bean class proceeds straight to the bean method.
+ * <p>
+ * The registry is itself the single Guice {@link MethodInterceptor} of the injector. An intercepted call looks its
+ * precomputed chain up once and walks it with one small {@link InvocationContext}; each {@code @AroundInvoke} method
+ * is a direct method handle call, and the last {@code proceed()} continues into the bean method.
+ * <p>
+ * Interceptor instances are obtained from Guice on first use and shared by every intercepted bean of the injector,
+ * rather than created per intercepted instance.
+ */
+final class InterceptorRegistry implements MethodInterceptor {
+
+    private static final Comparator<GuiceInterceptor<?>> BY_PRIORITY = Comparator.comparingInt(GuiceInterceptor::getPriority);
+
+    private final List<GuiceInterceptor<?>> interceptors;
+
+    /**
+     * The chain of every intercepted method of each bean class.
+     */
+    private final ClassValue<Map<Method, Chain>> chains = new ClassValue<>() {
+        @Override
+        protected Map<Method, Chain> computeValue(Class<?> beanClass) {
+            return chainsOf(beanClass);
+        }
+    };
+
+    /**
+     * Creates the registry of an injector's interceptors.
+     *
+     * @param interceptors The interceptors, in any order
+     */
+    InterceptorRegistry(Collection<GuiceInterceptor<?>> interceptors) {
+        List<GuiceInterceptor<?>> sorted = new ArrayList<>(interceptors);
+        sorted.sort(BY_PRIORITY);
+        this.interceptors = List.copyOf(sorted);
+    }
+
+    /**
+     * Checks whether the injector has any interceptors.
+     *
+     * @return true if there is nothing to intercept with
+     */
+    boolean isEmpty() {
+        return interceptors.isEmpty();
+    }
+
+    /**
+     * Gets the matcher selecting the bean classes to intercept: those with at least one intercepted method.
+     *
+     * @param beanClasses The bean classes that may be intercepted
+     * @return The class matcher to bind the registry with
+     */
+    Matcher<Class<?>> classMatcher(Matcher<? super Class<?>> beanClasses) {
+        return new Matcher<>() {
+            @Override
+            public boolean matches(Class<?> beanClass) {
+                return beanClasses.matches(beanClass) && !chains.get(beanClass).isEmpty();
+            }
+
+            @Override
+            public String toString() {
+                return beanClasses.toString();
+            }
+        };
+    }
+
+    /**
+     * Gets the matcher selecting the methods that may have an interceptor chain. Whether they have one depends on the
+     * bean class, which Guice does not pass, so every method an interceptor could be bound to is matched.
+     *
+     * @return The method matcher to bind the registry with
+     */
+    Matcher<Method> methodMatcher() {
+        return new Matcher<>() {
+            @Override
+            public boolean matches(Method method) {
+                return isInterceptable(method);
+            }
+
+            @Override
+            public String toString() {
+                return "interceptedBy(" + interceptors + ")";
+            }
+        };
+    }
+
+    private static boolean isInterceptable(Method method) {
+        int modifiers = method.getModifiers();
+        return !method.isSynthetic() && !method.isBridge() && !Modifier.isStatic(modifiers) && !Modifier.isPrivate(modifiers)
+                && !Modifier.isFinal(modifiers) && method.getDeclaringClass() != Object.class;
+    }
+
+    /**
+     * Computes the interceptor chains of the methods of a bean class, inherited ones included.
+     *
+     * @return The chains by method, empty when the class is not intercepted
+     */
+    private Map<Method, Chain> chainsOf(Class<?> beanClass) {
+        if (interceptors.isEmpty() || beanClass.isInterface() || beanClass.isPrimitive() || beanClass.isArray()) {
+            return Map.of();
+        }
+        Map<Method, Chain> chainsOf = new HashMap<>();
+        Set<List<Object>> overridden = new HashSet<>();
+        for (Class<?> type = beanClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (!isInterceptable(method) || !overridden.add(List.of(method.getName(), List.of(method.getParameterTypes())))) {
+                    continue;
+                }
+                Chain chain = chainOf(beanClass, method);
+                if (chain != null) {
+                    chainsOf.put(method, chain);
+                }
+            }
+        }
+        return Map.copyOf(chainsOf);
+    }
+
+    /**
+     * Computes the interceptor chain of a method of a bean class.
+     *
+     * @param beanClass The bean class, declaring or inheriting the method
+     * @param method    The method
+     * @return The chain, or null when no interceptor applies to the method
+     */
+    private Chain chainOf(Class<?> beanClass, Method method) {
+        // Method level bindings override class level bindings of the same type
+        Map<Class<? extends Annotation>, Annotation> bindings = new LinkedHashMap<>();
+        for (Annotation binding : GuiceInterceptor.bindingsOf(beanClass.getAnnotations())) {
+            bindings.put(binding.annotationType(), binding);
+        }
+        for (Annotation binding : GuiceInterceptor.bindingsOf(method.getAnnotations())) {
+            bindings.put(binding.annotationType(), binding);
+        }
+        if (bindings.isEmpty()) {
+            return null;
+        }
+        List<GuiceInterceptor<?>> applicable = new ArrayList<>();
+        for (GuiceInterceptor<?> interceptor : interceptors) {
+            if (interceptor.appliesTo(bindings)) {
+                applicable.add(interceptor);
+            }
+        }
+        if (applicable.isEmpty()) {
+            return null;
+        }
+        return new Chain(applicable.toArray(new GuiceInterceptor<?>[0]), Set.copyOf(bindings.values()));
+    }
+
+    /**
+     * Resolves the interceptors applying to a set of interceptor bindings, in priority order.
+     *
+     * @param type     The interception type
+     * @param bindings The interceptor bindings
+     * @return The interceptors
+     */
+    List<Interceptor<?>> resolve(InterceptionType type, Annotation... bindings) {
+        Map<Class<? extends Annotation>, Annotation> present = new HashMap<>();
+        for (Annotation binding : GuiceInterceptor.bindingsOf(bindings)) {
+            present.putIfAbsent(binding.annotationType(), binding);
+        }
+        List<Interceptor<?>> resolved = new ArrayList<>();
+        for (GuiceInterceptor<?> interceptor : interceptors) {
+            if (interceptor.intercepts(type) && interceptor.appliesTo(present)) {
+                resolved.add(interceptor);
+            }
+        }
+        return resolved;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        // Guice enhances a bean class with a subclass of it
+        Class<?> enhanced = invocation.getThis().getClass();
+        Chain chain = chains.get(enhanced.getSuperclass()).get(invocation.getMethod());
+        if (chain == null) {
+            return invocation.proceed();
+        }
+        return new ChainInvocation(invocation, chain).proceed();
+    }
+
+    /**
+     * The interceptors of a method, in priority order, and the interceptor bindings they were selected by.
+     */
+    private static final class Chain {
+        private final GuiceInterceptor<?>[] interceptors;
+        private final Set<Annotation> bindings;
+
+        private Chain(GuiceInterceptor<?>[] interceptors, Set<Annotation> bindings) {
+            this.interceptors = interceptors;
+            this.bindings = bindings;
+        }
+    }
+
+    /**
+     * The invocation context of one intercepted call. Each {@code proceed()} advances along the chain and restores
+     * its position on return, so an interceptor may proceed more than once.
+     */
+    private static final class ChainInvocation implements InvocationContext {
+        private final MethodInvocation invocation;
+        private final Chain chain;
+        private int position;
+        private Map<String, Object> contextData;
+
+        private ChainInvocation(MethodInvocation invocation, Chain chain) {
+            this.invocation = invocation;
+            this.chain = chain;
+        }
+
+        @Override
+        public Object proceed() throws Exception {
+            int current = position;
+            GuiceInterceptor<?>[] interceptors = chain.interceptors;
+            try {
+                if (current < interceptors.length) {
+                    position = current + 1;
+                    return interceptors[current].aroundInvoke(this);
+                }
+                return invocation.proceed();
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            } finally {
+                position = current;
+            }
+        }
+
+        @Override
+        public Object getTarget() {
+            return invocation.getThis();
+        }
+
+        @Override
+        public Object getTimer() {
+            return null;
+        }
+
+        @Override
+        public Method getMethod() {
+            return invocation.getMethod();
+        }
+
+        @Override
+        public Constructor<?> getConstructor() {
+            return null;
+        }
+
+        @Override
+        public Object[] getParameters() {
+            return invocation.getArguments();
+        }
+
+        @Override
+        public void setParameters(Object[] params) {
+            Object[] arguments = invocation.getArguments();
+            Class<?>[] types = invocation.getMethod().getParameterTypes();
+            if (params == null || params.length != types.length) {
+                throw new IllegalArgumentException("Expected " + types.length + " parameters for " + invocation.getMethod());
+            }
+            for (int i = 0; i < types.length; i++) {
+                Class<?> type = MethodType.methodType(types[i]).wrap().returnType();
+                if (params[i] == null ? types[i].isPrimitive() : !type.isInstance(params[i])) {
+                    throw new IllegalArgumentException("Parameter " + i + " of " + invocation.getMethod() + " cannot be set to " + params[i]);
+                }
+            }
+            System.arraycopy(params, 0, arguments, 0, arguments.length);
+        }
+
+        @Override
+        public Map<String, Object> getContextData() {
+            if (contextData == null) {
+                contextData = new HashMap<>();
+            }
+            return contextData;
+        }
+
+        @Override
+        public Set<Annotation> getInterceptorBindings() {
+            return chain.bindings;
+        }
+    }
+}
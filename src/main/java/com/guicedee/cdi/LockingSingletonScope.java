@@ -0,0 +1,94 @@
+package com.guicedee.cdi;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.Scope;
+import com.google.inject.Scopes;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A singleton {@link Scope} safe for virtual threads, creating each instance under a per-binding {@link ReentrantLock}.
+ * <p>
+ * Once created, an instance is read from a volatile field with no locking. Threads that request a binding while its
+ * instance is being created wait on the binding's lock, which unmounts a virtual thread from its carrier instead of
+ * pinning it as a monitor would, so a burst of virtual threads hitting a cold bean does not starve the carrier pool.
+ * A binding that fails to provide is tried again by the next request.
+ * <p>
+ * Since JDK 24 (JEP 491) a virtual thread waiting on a monitor unmounts too, so the scope only matters on JDKs before
+ * 24, where a burst of virtual threads waiting on a monitor can leave no carrier for other virtual threads.
+ * <p>
+ * Unlike Guice's {@link Scopes#SINGLETON}, the scope does not detect dependency cycles between singletons created
+ * concurrently on different threads; such cycles should be broken with a {@code Provider} injection point.
+ * <p>
+ * The scope is selected for {@code @Singleton} and {@code @ApplicationScoped} with
+ * {@link com.guicedee.cdi.implementations.BindScopeProvision#setLockingSingletons(boolean)} or the
+ * {@code guicedee.cdi.lockingSingletons} system property.
+ */
+public final class LockingSingletonScope implements Scope {
+
+    /**
+     * The locking singleton scope.
+     */
+    public static final LockingSingletonScope INSTANCE = new LockingSingletonScope();
+
+    /**
+     * Marks a binding whose provider returned null, so the null is not provided again.
+     */
+    private static final Object NULL = new Object();
+
+    private LockingSingletonScope() {
+    }
+
+    @Override
+    public <T> Provider<T> scope(Key<T> key, Provider<T> unscoped) {
+        return new Holder<>(unscoped);
+    }
+
+    @Override
+    public String toString() {
+        return "LockingSingletonScope";
+    }
+
+    /**
+     * The instance of one binding.
+     */
+    private static final class Holder<T> implements Provider<T> {
+        private final Provider<T> unscoped;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Object instance;
+
+        private Holder(Provider<T> unscoped) {
+            this.unscoped = unscoped;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get() {
+            Object value = instance;
+            if (value == null) {
+                lock.lock();
+                try {
+                    value = instance;
+                    if (value == null) {
+                        T provided = unscoped.get();
+                        // A circular proxy stands in for the instance while it is constructed, it is not the singleton
+                        if (Scopes.isCircularProxy(provided)) {
+                            return provided;
+                        }
+                        value = provided == null ? NULL : provided;
+                        instance = value;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return value == NULL ? null : (T) value;
+        }
+
+        @Override
+        public String toString() {
+            return unscoped + "[LockingSingleton]";
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.guicedee.cdi;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.StringJoiner;
+
+/**
+ * Instances of annotation types whose members all have defaults, standing in for the qualifier of a key bound with
+ * {@code annotatedWith(SomeQualifier.class)}, which Guice keeps only as a type.
+ * <p>
+ * Instances follow the {@link Annotation} contract for {@code equals} and {@code hashCode}, so they match
+ * {@code AnnotationLiteral}s and annotations read reflectively. One instance is created per annotation type.
+ */
+final class MarkerAnnotation implements InvocationHandler {
+
+    private static final ClassValue<Optional<Annotation>> MARKERS = new ClassValue<>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected Optional<Annotation> computeValue(Class<?> type) {
+            return create((Class<? extends Annotation>) type);
+        }
+    };
+
+    private final Class<? extends Annotation> annotationType;
+    private final Map<String, Object> values;
+
+    private MarkerAnnotation(Class<? extends Annotation> annotationType, Map<String, Object> values) {
+        this.annotationType = annotationType;
+        this.values = values;
+    }
+
+    /**
+     * Gets the instance of an annotation type with every member set to its default.
+     *
+     * @param annotationType The annotation type
+     * @return The instance, empty when a member has no default
+     */
+    static Optional<Annotation> of(Class<? extends Annotation> annotationType) {
+        return MARKERS.get(annotationType);
+    }
+
+    private static Optional<Annotation> create(Class<? extends Annotation> annotationType) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Method member : annotationType.getDeclaredMethods()) {
+            Object value = member.getDefaultValue();
+            if (value == null) {
+                return Optional.empty();
+            }
+            values.put(member.getName(), value);
+        }
+        return Optional.of(annotationType.cast(Proxy.newProxyInstance(annotationType.getClassLoader(),
+                new Class<?>[]{annotationType}, new MarkerAnnotation(annotationType, values))));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "annotationType" -> annotationType;
+            case "hashCode" -> hashCode();
+            case "toString" -> toString();
+            case "equals" -> args != null && args.length == 1 && isEqual(args[0]);
+            default -> clone(values.get(method.getName()));
+        };
+    }
+
+    private boolean isEqual(Object other) {
+        if (!(other instanceof Annotation annotation) || annotation.annotationType() != annotationType) {
+            return false;
+        }
+        if (Proxy.isProxyClass(other.getClass()) && Proxy.getInvocationHandler(other) instanceof MarkerAnnotation marker) {
+            return equals(marker);
+        }
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            try {
+                Method member = annotationType.getDeclaredMethod(value.getKey());
+                member.setAccessible(true);
+                if (!Objects.deepEquals(value.getValue(), member.invoke(other))) {
+                    return false;
+                }
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            hash += (127 * value.getKey().hashCode()) ^ valueHash(value.getValue());
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof MarkerAnnotation marker) || marker.annotationType != annotationType) {
+            return false;
+        }
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            if (!Objects.deepEquals(value.getValue(), marker.values.get(value.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner text = new StringJoiner(", ", "@" + annotationType.getName() + "(", ")");
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            String rendered = Arrays.deepToString(new Object[]{value.getValue()});
+            text.add(value.getKey() + "=" + rendered.substring(1, rendered.length() - 1));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Hashes a member value as {@link Annotation#hashCode()} specifies, by content for arrays.
+     */
+    private static int valueHash(Object value) {
+        return value.getClass().isArray() ? Arrays.deepHashCode(new Object[]{value}) - 31 : value.hashCode();
+    }
+
+    private static Object clone(Object value) {
+        if (value != null && value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+            System.arraycopy(value, 0, copy, 0, length);
+            return copy;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,34 @@
+package com.guicedee.cdi;
+
+import com.guicedee.cdi.implementations.MetadataSnapshotFile;
+
+import java.nio.file.Path;
+
+/**
+ * Bean metadata computed reflectively on one boot and read back from a memory-mapped file on the next, for
+ * applications that cannot run the {@link BeanIndexProcessor} at build time.
+ * <p>
+ * The snapshot holds the scope annotation declared on each bean class and the injection point annotation of each
+ * member, so later boots skip parsing those annotations. It is keyed by a hash of the module path and class path, so
+ * an upgraded or rebuilt application never sees stale metadata. Each save writes a new generation beside the
+ * configured path, named {@code <file>.<n>}, rather than replacing the file a running boot may still have mapped.
+ * <p>
+ * The snapshot is disabled unless a path is set with {@link #setLocation(Path)} or the
+ * {@code guicedee.cdi.metadataSnapshot} system property.
+ */
+public final class MetadataSnapshot {
+
+    private MetadataSnapshot() {
+    }
+
+    /**
+     * Sets the path the snapshot is read from and written beside, for injectors created afterwards. Classifications
+     * that were not saved yet are discarded. Also settable with the {@code guicedee.cdi.metadataSnapshot} system
+     * property.
+     *
+     * @param location The snapshot path, or null to disable the snapshot
+     */
+    public static void setLocation(Path location) {
+        MetadataSnapshotFile.setLocation(location);
+    }
+}
@@ -0,0 +1,620 @@
+package com.guicedee.cdi;
+
+import com.google.inject.Binding;
+import com.google.inject.ConfigurationException;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.guicedee.client.IGuiceContext;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.ScanResult;
+import jakarta.decorator.Decorator;
+import jakarta.enterprise.context.Dependent;
+import jakarta.enterprise.event.NotificationOptions;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.ObservesAsync;
+import jakarta.enterprise.event.Reception;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Default;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.ObserverMethod;
+import jakarta.inject.Qualifier;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * The observer methods of an injector's beans, discovered once when the bean manager for that injector is created.
+ * <p>
+ * Observers are compiled into per event class dispatch arrays ordered by priority. The array for every observed class
+ * is built up front, and arrays for other event classes are built from the event's type closure the first time an
+ * event of that class is fired. Firing an event is then a single map lookup followed by an array walk and direct
+ * method handle calls. The observers matching an event class and qualifier mask are memoized as well, so repeated
+ * events are dispatched without filtering. Observer and event qualifiers are encoded as {@link QualifierIds} masks, so matching an event
+ * fired without qualifiers compares no annotations at all.
+ * <p>
+ * Observers are declared by the classes of the indexed beans, and by the classes listed with observer methods in the
+ * bean indexes or found in the GuicedEE scan result, which Guice binds just-in-time. Observers with
+ * {@link Reception#IF_EXISTS} are only notified once their bean exists, and observers of a transaction phase are
+ * deferred to it through the {@link ITransactionSynchronizer} when one is installed and a transaction is active.
+ * <p>
+ * Asynchronous observers run on virtual threads unless the event is fired with a {@link NotificationOptions} executor.
+ * At most {@code guicedee.cdi.async.maxConcurrency} (default 256) of them run at once on the default executor; once the
+ * limit is reached, further notifications wait in a queue and are started as running observers complete. Waiting
+ * notifications hold no thread, and {@code fireAsync} never blocks the firing thread, which may be an event loop.
+ */
+final class ObserverRegistry {
+
+    private static final System.Logger log = System.getLogger(ObserverRegistry.class.getName());
+
+    private static final GuiceObserverMethod<?>[] NO_OBSERVERS = new GuiceObserverMethod<?>[0];
+
+    private static final Comparator<GuiceObserverMethod<?>> BY_PRIORITY = Comparator.comparingInt(GuiceObserverMethod::getPriority);
+
+    /**
+     * Runs each asynchronous observer notification, and each delivery of a batch, on its own virtual thread.
+     */
+    static final ExecutorService ASYNC_EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("guicedee-cdi-async-", 0).factory());
+
+    /**
+     * Caps the asynchronous observer notifications running at once on the default executor.
+     */
+    private static final Semaphore ASYNC_PERMITS = new Semaphore(Integer.getInteger("guicedee.cdi.async.maxConcurrency", 256));
+
+    /**
+     * The notifications waiting for a permit, started in firing order as permits are released.
+     */
+    private static final Queue<Notification> PENDING = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Defers transactional observers, null when no transaction integration is installed.
+     */
+    private static final ITransactionSynchronizer TRANSACTIONS = ServiceLoader.load(ITransactionSynchronizer.class)
+            .findFirst()
+            .orElse(null);
+
+    private final QualifierIds qualifierIds;
+
+    /**
+     * Observers by observed class. Only read while observers are added, under the registry's lock.
+     */
+    private Map<Class<?>, List<GuiceObserverMethod<?>>> observersByClass;
+
+    /**
+     * Dispatch tables per event runtime class, built from a snapshot of the observers. Held in a {@link ClassValue} so
+     * the tables do not keep event classes, or their class loaders, reachable. Replaced as a whole when an observer
+     * is added, which drops every table and memoized resolution built for the previous observers.
+     */
+    private volatile ClassValue<Dispatch> dispatch;
+
+    /**
+     * Buffers events fired with {@link Batched}.
+     */
+    private final EventBatcher batcher = new EventBatcher(this);
+
+    /**
+     * Discovers the observer methods declared by the classes of the indexed beans, and by the other classes known to
+     * declare observers that Guice can bind just-in-time.
+     *
+     * @param injector     The injector providing bean instances and observer method parameters
+     * @param index        The bean index of the injector
+     * @param qualifierIds The qualifier ids to register observed qualifiers with
+     */
+    ObserverRegistry(Injector injector, BeanIndex index, QualifierIds qualifierIds) {
+        this.qualifierIds = qualifierIds;
+        Binding<ConditionalObservers> tracked = injector.getExistingBinding(Key.get(ConditionalObservers.class));
+        ConditionalObservers conditional = tracked == null ? new ConditionalObservers() : tracked.getProvider().get();
+        Map<Class<?>, Bean<?>> declaring = declaringBeans(index);
+        declaring.putAll(justInTimeBeans(injector, index, declaring.keySet()));
+        Map<Class<?>, List<GuiceObserverMethod<?>>> byClass = new HashMap<>();
+        for (Bean<?> bean : declaring.values()) {
+            for (GuiceObserverMethod<?> observer : discover(injector, (GuiceBean<?>) bean, conditional, qualifierIds)) {
+                byClass.computeIfAbsent(observer.getObservedClass(), c -> new ArrayList<>()).add(observer);
+            }
+        }
+        Map<Class<?>, List<GuiceObserverMethod<?>>> frozen = new HashMap<>(byClass.size() * 2);
+        byClass.forEach((type, observers) -> frozen.put(type, List.copyOf(observers)));
+        this.observersByClass = Map.copyOf(frozen);
+        this.dispatch = dispatchOf(observersByClass);
+        for (Class<?> observedClass : observersByClass.keySet()) {
+            dispatch.get(observedClass);
+        }
+    }
+
+    /**
+     * Adds an observer method after the observers were discovered. Dispatch tables and memoized resolutions are
+     * rebuilt on demand for the new set of observers.
+     *
+     * @param observerMethod The observer method
+     */
+    synchronized void add(ObserverMethod<?> observerMethod) {
+        GuiceObserverMethod<?> observer = observerMethod instanceof GuiceObserverMethod<?> guiceObserver
+                ? guiceObserver
+                : new GuiceObserverMethod<>(observerMethod, qualifierIds);
+        Map<Class<?>, List<GuiceObserverMethod<?>>> byClass = new HashMap<>(observersByClass);
+        List<GuiceObserverMethod<?>> observers = new ArrayList<>(byClass.getOrDefault(observer.getObservedClass(), List.of()));
+        observers.add(observer);
+        byClass.put(observer.getObservedClass(), List.copyOf(observers));
+        observersByClass = Map.copyOf(byClass);
+        dispatch = dispatchOf(observersByClass);
+    }
+
+    /**
+     * Gets the batcher buffering events fired with {@link Batched}.
+     *
+     * @return The event batcher
+     */
+    EventBatcher getBatcher() {
+        return batcher;
+    }
+
+    /**
+     * Notifies the synchronous observers of an event in priority order.
+     *
+     * @param event      The event
+     * @param eventType  The specified event type
+     * @param qualifiers The event qualifiers
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void fire(Object event, Type eventType, Annotation... qualifiers) {
+        Dispatch table = dispatch.get(requireEvent(event).getClass());
+        if (table.observers.length == 0) {
+            return;
+        }
+        for (GuiceObserverMethod observer : table.resolve(eventType, qualifierIds.event(qualifiers)).sync()) {
+            if (observer.isTransactional() && TRANSACTIONS != null
+                    && TRANSACTIONS.defer(observer.getTransactionPhase(), () -> observer.notify(event, eventType, qualifiers))) {
+                continue;
+            }
+            observer.notify(event, eventType, qualifiers);
+        }
+    }
+
+    /**
+     * Checks that an event was given, as CDI requires.
+     *
+     * @param event The event
+     * @param <U>   The event type
+     * @return The event
+     * @throws IllegalArgumentException if the event is null
+     */
+    static <U> U requireEvent(U event) {
+        if (event == null) {
+            throw new IllegalArgumentException("The event must not be null");
+        }
+        return event;
+    }
+
+    /**
+     * Notifies the asynchronous observers of an event, each on its own thread.
+     * The returned stage completes with the event once every observer has been notified. If any observer throws,
+     * it completes exceptionally with a {@link CompletionException} carrying every observer exception as suppressed.
+     *
+     * @param event      The event
+     * @param eventType  The specified event type
+     * @param options    The notification options, or null; an executor in the options replaces the default one
+     * @param qualifiers The event qualifiers
+     * @param <U>        The event type
+     * @return The stage completing when every observer has been notified
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    <U> CompletionStage<U> fireAsync(U event, Type eventType, NotificationOptions options, Annotation... qualifiers) {
+        Dispatch table = dispatch.get(requireEvent(event).getClass());
+        GuiceObserverMethod<?>[] notified = table.observers.length == 0
+                ? NO_OBSERVERS
+                : table.resolve(eventType, qualifierIds.event(qualifiers)).async();
+        if (notified.length == 0) {
+            return CompletableFuture.completedFuture(event);
+        }
+
+        Executor executor = options == null ? null : options.getExecutor();
+        CompletableFuture<U> result = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(notified.length);
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        for (GuiceObserverMethod observer : notified) {
+            Notification notification = new Notification(() -> {
+                try {
+                    observer.notify(event, eventType, qualifiers);
+                } catch (Throwable t) {
+                    failures.add(t);
+                } finally {
+                    complete(result, event, remaining, failures);
+                }
+            }, rejected -> {
+                failures.add(rejected);
+                complete(result, event, remaining, failures);
+            });
+            if (executor == null) {
+                PENDING.add(notification);
+            } else {
+                notification.start(executor);
+            }
+        }
+        if (executor == null) {
+            drain();
+        }
+        return result;
+    }
+
+    /**
+     * Starts waiting notifications on the default executor while permits are available. Called whenever a notification
+     * is queued or a permit is released, so no notification waits while a permit is free.
+     */
+    private static void drain() {
+        while (!PENDING.isEmpty() && ASYNC_PERMITS.tryAcquire()) {
+            Notification next = PENDING.poll();
+            if (next == null) {
+                ASYNC_PERMITS.release();
+                continue;
+            }
+            new Notification(() -> {
+                try {
+                    next.delivery().run();
+                } finally {
+                    ASYNC_PERMITS.release();
+                    drain();
+                }
+            }, rejected -> {
+                ASYNC_PERMITS.release();
+                next.rejection().accept(rejected);
+            }).start(ASYNC_EXECUTOR);
+        }
+    }
+
+    /**
+     * Completes the stage of an asynchronous event once its last observer has finished.
+     */
+    private static <U> void complete(CompletableFuture<U> result, U event, AtomicInteger remaining, Queue<Throwable> failures) {
+        if (remaining.decrementAndGet() != 0) {
+            return;
+        }
+        if (failures.isEmpty()) {
+            result.complete(event);
+            return;
+        }
+        CompletionException exception = new CompletionException(failures.peek());
+        for (Throwable failure : failures) {
+            exception.addSuppressed(failure);
+        }
+        result.completeExceptionally(exception);
+    }
+
+    /**
+     * Resolves the synchronous observers of an event in priority order.
+     *
+     * @param event      The event
+     * @param eventType  The specified event type
+     * @param qualifiers The event qualifiers
+     * @return The matching synchronous observer methods
+     */
+    GuiceObserverMethod<?>[] resolveSync(Object event, Type eventType, Annotation... qualifiers) {
+        Dispatch table = dispatch.get(requireEvent(event).getClass());
+        if (table.observers.length == 0) {
+            return NO_OBSERVERS;
+        }
+        return table.resolve(eventType, qualifierIds.event(qualifiers)).sync();
+    }
+
+    /**
+     * Resolves the synchronous and asynchronous observers of an event in priority order.
+     * Resolutions are memoized per event class and qualifier mask.
+     *
+     * @param event      The event
+     * @param eventType  The specified event type
+     * @param qualifiers The event qualifiers
+     * @param <T>        The event type
+     * @return The matching observer methods
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    <T> Set<ObserverMethod<? super T>> resolve(T event, Type eventType, Annotation... qualifiers) {
+        Dispatch table = dispatch.get(requireEvent(event).getClass());
+        if (table.observers.length == 0) {
+            return Set.of();
+        }
+        return (Set) table.resolve(eventType, qualifierIds.event(qualifiers)).all();
+    }
+
+    private static ClassValue<Dispatch> dispatchOf(Map<Class<?>, List<GuiceObserverMethod<?>>> observersByClass) {
+        return new ClassValue<>() {
+            @Override
+            protected Dispatch computeValue(Class<?> eventClass) {
+                return new Dispatch(compile(observersByClass, eventClass));
+            }
+        };
+    }
+
+    /**
+     * Collects the observers of every class in the type closure of an event class, ordered by priority.
+     */
+    private static GuiceObserverMethod<?>[] compile(Map<Class<?>, List<GuiceObserverMethod<?>>> observersByClass, Class<?> eventClass) {
+        List<GuiceObserverMethod<?>> observers = new ArrayList<>();
+        for (Class<?> type : TypeClosure.of(eventClass)) {
+            observers.addAll(observersByClass.getOrDefault(type, List.of()));
+        }
+        if (eventClass.isInterface()) {
+            observers.addAll(observersByClass.getOrDefault(Object.class, List.of()));
+        }
+        if (observers.isEmpty()) {
+            return NO_OBSERVERS;
+        }
+        observers.sort(BY_PRIORITY);
+        return observers.toArray(NO_OBSERVERS);
+    }
+
+    /**
+     * Chooses one bean per bean class to declare its observers, preferring the unqualified binding.
+     * Classes loaded by the bootstrap class loader and Guice's own classes cannot declare observers and are skipped.
+     */
+    static Map<Class<?>, Bean<?>> declaringBeans(BeanIndex index) {
+        Map<Class<?>, Bean<?>> beans = new LinkedHashMap<>();
+        for (Bean<?> bean : index.getBeans(Object.class, Any.Literal.INSTANCE)) {
+            Class<?> beanClass = bean.getBeanClass();
+            if (beanClass.getClassLoader() == null || beanClass.isInterface() || beanClass.getName().startsWith("com.google.inject.")) {
+                continue;
+            }
+            Bean<?> existing = beans.putIfAbsent(beanClass, bean);
+            if (existing != null && !existing.getQualifiers().contains(Default.Literal.INSTANCE)
+                    && bean.getQualifiers().contains(Default.Literal.INSTANCE)) {
+                beans.put(beanClass, bean);
+            }
+        }
+        return beans;
+    }
+
+    /**
+     * Describes the just-in-time bindings of the classes that declare observer methods but no indexed bean declares,
+     * from the bean indexes and, for the classes they do not list, the GuicedEE scan result. Getting the binding never
+     * creates an instance, and classes Guice cannot bind are left out.
+     */
+    private static Map<Class<?>, Bean<?>> justInTimeBeans(Injector injector, BeanIndex index, Set<Class<?>> declared) {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            loader = ObserverRegistry.class.getClassLoader();
+        }
+        BeanIndexFile indexFile = BeanIndexFile.of(loader);
+        Set<String> classNames = new LinkedHashSet<>(indexFile.classesWithObservers());
+        try {
+            ScanResult scanResult = IGuiceContext.instance().getScanResult();
+            if (scanResult != null) {
+                // Indexed classes are taken from the index alone
+                for (Class<? extends Annotation> observes : List.of(Observes.class, ObservesAsync.class)) {
+                    for (ClassInfo info : scanResult.getClassesWithMethodParameterAnnotation(observes)) {
+                        if (!indexFile.contains(info.getName())) {
+                            classNames.add(info.getName());
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.log(System.Logger.Level.WARNING, "Could not read the observer classes from the scan result", e);
+        }
+
+        Map<Class<?>, Bean<?>> beans = new LinkedHashMap<>();
+        for (String className : classNames) {
+            Class<?> type;
+            try {
+                type = Class.forName(className, false, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                log.log(System.Logger.Level.DEBUG, "Observer class {0} is not visible, its observers are not registered", className);
+                continue;
+            }
+            if (declared.contains(type) || type.isInterface() || Modifier.isAbstract(type.getModifiers())
+                    || type.isAnnotationPresent(jakarta.interceptor.Interceptor.class) || type.isAnnotationPresent(Decorator.class)) {
+                continue;
+            }
+            try {
+                beans.put(type, index.beanOf(injector.getBinding(type)));
+            } catch (ConfigurationException e) {
+                log.log(System.Logger.Level.DEBUG, "Observer class {0} cannot be bound just-in-time, its observers are not registered", className);
+            }
+        }
+        return beans;
+    }
+
+    /**
+     * Finds the observer methods of a bean class and its superclasses. Methods overridden in a subclass are only
+     * observers when the overriding method is. Classes listed in a {@link BeanIndexFile} are only looked at when the
+     * index lists observers for them.
+     */
+    private static List<GuiceObserverMethod<?>> discover(Injector injector, GuiceBean<?> bean, ConditionalObservers conditional,
+                                                        QualifierIds qualifierIds) {
+        List<GuiceObserverMethod<?>> observers = new ArrayList<>();
+        Set<String> overridden = new HashSet<>();
+        for (Class<?> type = bean.getBeanClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+            // Classes compiled with the bean index processor list their observers, the others are reflected over
+            BeanIndexFile.Entry indexed = BeanIndexFile.entryOf(type);
+            if (indexed != null && !indexed.hasObserverMethods()) {
+                continue;
+            }
+            for (Method method : type.getDeclaredMethods()) {
+                if (method.isBridge() || method.isSynthetic() || method.getParameterCount() == 0
+                        || (indexed != null && !indexed.listsObserver(method))) {
+                    continue;
+                }
+                if (!Modifier.isPrivate(method.getModifiers()) && !Modifier.isStatic(method.getModifiers())
+                        && !overridden.add(method.getName() + Arrays.toString(method.getParameterTypes()))) {
+                    continue;
+                }
+                int eventPosition = eventPosition(method);
+                if (eventPosition >= 0) {
+                    GuiceObserverMethod<?> observer = compile(injector, bean, method, eventPosition, conditional, qualifierIds);
+                    if (observer != null) {
+                        observers.add(observer);
+                    }
+                }
+            }
+        }
+        return observers;
+    }
+
+    private static int eventPosition(Method method) {
+        Parameter[] parameters = method.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i].isAnnotationPresent(Observes.class) || parameters[i].isAnnotationPresent(ObservesAsync.class)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static GuiceObserverMethod<?> compile(Injector injector, GuiceBean<?> bean, Method method, int eventPosition,
+                                                  ConditionalObservers conditional, QualifierIds qualifierIds) {
+        boolean ifExists = ConditionalObservers.isConditional(method) && !Modifier.isStatic(method.getModifiers());
+        if (ifExists && bean.getScope() == Dependent.class) {
+            log.log(System.Logger.Level.WARNING, "Observer method {0} of a @Dependent bean cannot be declared with Reception.IF_EXISTS", method);
+            return null;
+        }
+        try {
+            if (!method.trySetAccessible()) {
+                log.log(System.Logger.Level.WARNING, "Observer method {0} is not accessible, open its package to com.guicedee.cdi", method);
+                return null;
+            }
+            Parameter[] parameters = method.getParameters();
+            Provider<?>[] arguments = new Provider<?>[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                if (i != eventPosition) {
+                    arguments[i] = injector.getProvider(keyOf(parameters[i]));
+                }
+            }
+            // Observers are notified on the contextual instance, not on its client proxy
+            Provider<?> beanProvider = bean.getProvider();
+            Provider<?> receiver;
+            if (Modifier.isStatic(method.getModifiers())) {
+                receiver = null;
+            } else if (ifExists) {
+                // Conditional observers get no receiver, and are skipped, until their bean exists
+                receiver = () -> conditional.exists(bean) ? ClientProxy.unwrap(beanProvider.get()) : null;
+            } else {
+                receiver = () -> ClientProxy.unwrap(beanProvider.get());
+            }
+            return new GuiceObserverMethod<>(bean, method, eventPosition, receiver, arguments, qualifierIds);
+        } catch (ConfigurationException | IllegalAccessException e) {
+            log.log(System.Logger.Level.WARNING, "Observer method " + method + " cannot be registered", e);
+            return null;
+        }
+    }
+
+    /**
+     * Gets the Guice key of an observer method parameter from its type and qualifier.
+     */
+    private static Key<?> keyOf(Parameter parameter) {
+        for (Annotation annotation : parameter.getAnnotations()) {
+            if (annotation.annotationType().isAnnotationPresent(Qualifier.class)
+                    || annotation.annotationType().isAnnotationPresent(com.google.inject.BindingAnnotation.class)) {
+                return Key.get(parameter.getParameterizedType(), annotation);
+            }
+        }
+        return Key.get(parameter.getParameterizedType());
+    }
+
+    /**
+     * The asynchronous notification of an observer, and what to do when the executor rejects it.
+     *
+     * @param delivery  Notifies the observer and records its outcome
+     * @param rejection Records the rejection of the notification by the executor
+     */
+    private record Notification(Runnable delivery, Consumer<RuntimeException> rejection) {
+
+        void start(Executor executor) {
+            try {
+                executor.execute(delivery);
+            } catch (RuntimeException e) {
+                rejection.accept(e);
+            }
+        }
+    }
+
+    /**
+     * The observers of an event class, and their memoized resolutions per event qualifier mask.
+     */
+    private static final class Dispatch {
+        private final GuiceObserverMethod<?>[] observers;
+        private final Map<MaskKey, Resolution> resolutions = new ConcurrentHashMap<>();
+        private volatile Resolution unqualified;
+
+        private Dispatch(GuiceObserverMethod<?>[] observers) {
+            this.observers = observers;
+        }
+
+        /**
+         * Resolves the observers of an event. Resolutions for events specified by class depend only on the
+         * qualifier mask and are memoized; parameterized event types are filtered on every call.
+         */
+        Resolution resolve(Type eventType, long[] eventMask) {
+            if (!(eventType instanceof Class<?>)) {
+                return Resolution.of(observers, eventType, eventMask);
+            }
+            if (eventMask == QualifierIds.DEFAULT_MASK) {
+                Resolution resolution = unqualified;
+                if (resolution == null) {
+                    resolution = Resolution.of(observers, eventType, eventMask);
+                    unqualified = resolution;
+                }
+                return resolution;
+            }
+            return resolutions.computeIfAbsent(new MaskKey(eventMask), key -> Resolution.of(observers, eventType, eventMask));
+        }
+    }
+
+    /**
+     * The observers matching an event, split by delivery mode, in priority order.
+     *
+     * @param sync  The synchronous observers
+     * @param async The asynchronous observers
+     * @param all   Every matching observer method as reported by resolution
+     */
+    private record Resolution(GuiceObserverMethod<?>[] sync, GuiceObserverMethod<?>[] async, Set<ObserverMethod<?>> all) {
+
+        static Resolution of(GuiceObserverMethod<?>[] observers, Type eventType, long[] eventMask) {
+            List<GuiceObserverMethod<?>> sync = new ArrayList<>();
+            List<GuiceObserverMethod<?>> async = new ArrayList<>();
+            Set<ObserverMethod<?>> all = new LinkedHashSet<>();
+            for (GuiceObserverMethod<?> observer : observers) {
+                if (observer.observes(eventType, eventMask)) {
+                    (observer.isAsync() ? async : sync).add(observer);
+                    all.add(observer.unwrap());
+                }
+            }
+            return new Resolution(sync.toArray(NO_OBSERVERS), async.toArray(NO_OBSERVERS), Collections.unmodifiableSet(all));
+        }
+    }
+
+    /**
+     * A hash key over the words of a qualifier mask.
+     */
+    private static final class MaskKey {
+        private final long[] mask;
+        private final int hash;
+
+        private MaskKey(long[] mask) {
+            this.mask = mask;
+            this.hash = Arrays.hashCode(mask);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof MaskKey other && other.hash == hash && Arrays.equals(other.mask, mask);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
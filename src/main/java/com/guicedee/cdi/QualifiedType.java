@@ -0,0 +1,56 @@
+package com.guicedee.cdi;
+
+import com.google.inject.Key;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Default;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * A canonical (type, qualifier set) pair used to cache resolved bean providers.
+ * Qualifier order and duplicates do not affect equality.
+ *
+ * @param type       The bean type
+ * @param qualifiers The qualifiers, as an immutable set
+ */
+record QualifiedType(Type type, Set<Annotation> qualifiers) {
+
+    /**
+     * Creates a canonical qualified type.
+     *
+     * @param type       The bean type
+     * @param qualifiers The qualifiers
+     * @return The qualified type
+     */
+    static QualifiedType of(Type type, Annotation... qualifiers) {
+        if (qualifiers == null || qualifiers.length == 0) {
+            return new QualifiedType(type, Set.of());
+        }
+        return new QualifiedType(type, Set.copyOf(Arrays.asList(qualifiers)));
+    }
+
+    /**
+     * Converts this qualified type into the Guice key it is bound under.
+     * The CDI built-in {@code @Default} and {@code @Any} qualifiers carry no binding annotation in Guice.
+     *
+     * @return The Guice key
+     * @throws IllegalArgumentException if more than one binding qualifier is present, as Guice keys hold only one
+     */
+    Key<?> toKey() {
+        Annotation bindingQualifier = null;
+        for (Annotation qualifier : qualifiers) {
+            Class<? extends Annotation> qualifierType = qualifier.annotationType();
+            if (qualifierType == Default.class || qualifierType == Any.class) {
+                continue;
+            }
+            if (bindingQualifier != null) {
+                throw new IllegalArgumentException("Guice keys support a single binding annotation, found " + qualifiers + " for " + type);
+            }
+            bindingQualifier = qualifier;
+        }
+        return bindingQualifier == null ? Key.get(type) : Key.get(type, bindingQualifier);
+    }
+}
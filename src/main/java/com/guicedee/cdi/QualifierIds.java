@@ -0,0 +1,230 @@
+package com.guicedee.cdi;
+
+import com.google.inject.name.Names;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Default;
+
+import java.lang.annotation.Annotation;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns a small integer to every distinct qualifier of an injector's beans and observers, so qualifier sets can be
+ * encoded as bit masks and matched with bitwise containment instead of annotation comparisons.
+ * <p>
+ * Ids are registered while the bean index and observers are built, and whenever an observer is added later.
+ * The qualifier sets of beans and observers are {@linkplain #intern(Collection) interned} with their mask, so matching
+ * those sets again never hashes an annotation. Other sets are encoded by looking each annotation up by its hash code.
+ * Qualifiers only seen at lookup time are never registered, since nothing can require them; a lookup that
+ * requires such a qualifier reports it with a null mask so the caller can fall back to comparing annotations.
+ * {@code @Any} and {@code @Default} always have ids 0 and 1, so the masks of unqualified lookups are constants.
+ */
+final class QualifierIds {
+
+    private static final int ANY = 0;
+    private static final int DEFAULT = 1;
+
+    /**
+     * The mask of an event or lookup without qualifiers: {@code @Any} and {@code @Default}.
+     */
+    static final long[] DEFAULT_MASK = {(1L << ANY) | (1L << DEFAULT)};
+
+    /**
+     * The mask a lookup without qualifiers requires: {@code @Default}.
+     */
+    static final long[] DEFAULT_REQUIRED = {1L << DEFAULT};
+
+    private final Map<Annotation, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Creates the ids of an injector with {@code @Any} and {@code @Default} preassigned.
+     */
+    QualifierIds() {
+        register(Any.Literal.INSTANCE);
+        register(Default.Literal.INSTANCE);
+    }
+
+    /**
+     * Gets the id of a qualifier, assigning a new one when the qualifier has not been seen before.
+     *
+     * @param qualifier The qualifier
+     * @return The qualifier id
+     */
+    int register(Annotation qualifier) {
+        return ids.computeIfAbsent(normalize(qualifier), q -> next.getAndIncrement());
+    }
+
+    /**
+     * Registers every qualifier of a set and encodes it as a mask.
+     *
+     * @param qualifiers The qualifiers
+     * @return The mask of the qualifiers
+     */
+    long[] register(Collection<Annotation> qualifiers) {
+        long[] mask = new long[1];
+        for (Annotation qualifier : qualifiers) {
+            mask = set(mask, register(qualifier));
+        }
+        return mask;
+    }
+
+    /**
+     * Registers every qualifier of a set and interns the set with its mask.
+     *
+     * @param qualifiers The qualifiers of a bean or observer
+     * @return The immutable set, carrying its mask
+     */
+    Set<Annotation> intern(Collection<Annotation> qualifiers) {
+        return new Interned(this, Set.copyOf(qualifiers), register(qualifiers));
+    }
+
+    /**
+     * Gets the mask a set was interned with.
+     *
+     * @param qualifiers The qualifiers
+     * @return The mask, or null when the set was not interned with these ids
+     */
+    long[] internedMask(Set<Annotation> qualifiers) {
+        return qualifiers instanceof Interned interned && interned.ids == this ? interned.mask : null;
+    }
+
+    /**
+     * Encodes the qualifiers a lookup or observer requires.
+     *
+     * @param qualifiers The required qualifiers
+     * @return The mask, or null when a qualifier was never registered
+     */
+    long[] required(Collection<Annotation> qualifiers) {
+        long[] mask = new long[1];
+        for (Annotation qualifier : qualifiers) {
+            Integer id = ids.get(normalize(qualifier));
+            if (id == null) {
+                return null;
+            }
+            mask = set(mask, id);
+        }
+        return mask;
+    }
+
+    /**
+     * Encodes the qualifiers an event is fired with. Every event has {@code @Any}, and {@code @Default} when it has no
+     * other qualifiers. Qualifiers that were never registered cannot be required and are left out.
+     *
+     * @param qualifiers The event qualifiers
+     * @return The mask of the event
+     */
+    long[] event(Annotation... qualifiers) {
+        if (qualifiers == null || qualifiers.length == 0) {
+            return DEFAULT_MASK;
+        }
+        long[] mask = {1L << ANY};
+        for (Annotation qualifier : qualifiers) {
+            Integer id = ids.get(normalize(qualifier));
+            if (id != null) {
+                mask = set(mask, id);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Encodes the qualifiers a bean or event has, leaving out those that were never registered.
+     *
+     * @param qualifiers The qualifiers
+     * @return The mask of the known qualifiers
+     */
+    long[] present(Collection<Annotation> qualifiers) {
+        long[] mask = new long[1];
+        for (Annotation qualifier : qualifiers) {
+            Integer id = ids.get(normalize(qualifier));
+            if (id != null) {
+                mask = set(mask, id);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Checks whether every bit of the required mask is set in the present mask.
+     *
+     * @param present  The mask of the qualifiers present
+     * @param required The mask of the required qualifiers
+     * @return true if the present qualifiers contain all required qualifiers
+     */
+    static boolean containsAll(long[] present, long[] required) {
+        if (required.length > present.length) {
+            for (int i = present.length; i < required.length; i++) {
+                if (required[i] != 0) {
+                    return false;
+                }
+            }
+        }
+        int words = Math.min(present.length, required.length);
+        for (int i = 0; i < words; i++) {
+            if ((present[i] & required[i]) != required[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Maps a CDI {@code @Named} qualifier to the Guice {@code @Named} its beans are bound with.
+     *
+     * @param qualifier The qualifier
+     * @return The equivalent qualifier beans are registered with
+     */
+    static Annotation normalize(Annotation qualifier) {
+        if (qualifier instanceof jakarta.inject.Named named) {
+            return Names.named(named.value());
+        }
+        return qualifier;
+    }
+
+    /**
+     * An immutable qualifier set of a bean or observer, with the mask of its qualifiers.
+     */
+    private static final class Interned extends AbstractSet<Annotation> {
+        private final QualifierIds ids;
+        private final Set<Annotation> qualifiers;
+        private final long[] mask;
+
+        private Interned(QualifierIds ids, Set<Annotation> qualifiers, long[] mask) {
+            this.ids = ids;
+            this.qualifiers = qualifiers;
+            this.mask = mask;
+        }
+
+        @Override
+        public Iterator<Annotation> iterator() {
+            return qualifiers.iterator();
+        }
+
+        @Override
+        public int size() {
+            return qualifiers.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return qualifiers.contains(o);
+        }
+    }
+
+    private static long[] set(long[] mask, int id) {
+        int word = id >>> 6;
+        if (word >= mask.length) {
+            long[] grown = new long[word + 1];
+            System.arraycopy(mask, 0, grown, 0, mask.length);
+            mask = grown;
+        }
+        mask[word] |= 1L << (id & 63);
+        return mask;
+    }
+}
@@ -0,0 +1,124 @@
+package com.guicedee.cdi;
+
+import jakarta.enterprise.context.ContextNotActiveException;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.context.control.RequestContextController;
+import jakarta.enterprise.context.spi.AlterableContext;
+import jakarta.enterprise.context.spi.Contextual;
+import jakarta.enterprise.context.spi.CreationalContext;
+
+import java.util.Map;
+
+/**
+ * The CDI {@link AlterableContext} of {@code @RequestScoped} beans, backed by the {@link RequestScope} of the current thread.
+ * <p>
+ * Beans of Guice bindings are looked up in their request scope slots. Other contextuals are created through the
+ * context itself and destroyed with the request.
+ */
+final class RequestContext implements AlterableContext {
+
+    /**
+     * The request context.
+     */
+    static final RequestContext INSTANCE = new RequestContext();
+
+    private RequestContext() {
+    }
+
+    @Override
+    public Class<RequestScoped> getScope() {
+        return RequestScoped.class;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Contextual<T> contextual, CreationalContext<T> creationalContext) {
+        RequestScope.Instances instances = active();
+        if (contextual instanceof GuiceBean<T> bean) {
+            return bean.create(creationalContext);
+        }
+        synchronized (instances) {
+            Map<Object, Object> created = instances.contextual();
+            T instance = (T) created.get(contextual);
+            if (instance == null && creationalContext != null) {
+                T newInstance = contextual.create(creationalContext);
+                created.put(contextual, newInstance);
+                instances.onDestroy(() -> {
+                    if (created.remove(contextual) == newInstance) {
+                        contextual.destroy(newInstance, creationalContext);
+                    }
+                });
+                instance = newInstance;
+            }
+            return instance;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Contextual<T> contextual) {
+        RequestScope.Instances instances = active();
+        if (contextual instanceof GuiceBean<T> bean) {
+            Object instance = instances.get(bean.getBinding().getKey());
+            return instance == null || !bean.getBeanClass().isInstance(instance) ? null : (T) instance;
+        }
+        synchronized (instances) {
+            return (T) instances.contextual().get(contextual);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void destroy(Contextual<?> contextual) {
+        RequestScope.Instances instances = active();
+        if (contextual instanceof GuiceBean<?> bean) {
+            instances.destroy(bean.getBinding().getKey());
+            return;
+        }
+        Object instance;
+        synchronized (instances) {
+            instance = instances.contextual().remove(contextual);
+        }
+        if (instance != null) {
+            ((Contextual<Object>) contextual).destroy(instance, null);
+        }
+    }
+
+    @Override
+    public boolean isActive() {
+        return RequestScope.INSTANCE.isActive();
+    }
+
+    private static RequestScope.Instances active() {
+        RequestScope.Instances instances = RequestScope.INSTANCE.getInstances();
+        if (instances == null) {
+            throw new ContextNotActiveException("No request context is active on this thread");
+        }
+        return instances;
+    }
+
+    /**
+     * A {@link RequestContextController} activating the request context of the current thread, and deactivating it
+     * only if this controller was the one to activate it.
+     */
+    static final class Controller implements RequestContextController {
+        private boolean activated;
+
+        @Override
+        public boolean activate() {
+            activated = RequestScope.INSTANCE.activate();
+            return activated;
+        }
+
+        @Override
+        public void deactivate() {
+            if (!RequestScope.INSTANCE.isActive()) {
+                throw new ContextNotActiveException("No request context is active on this thread");
+            }
+            if (activated) {
+                activated = false;
+                RequestScope.INSTANCE.deactivate();
+            }
+        }
+    }
+}
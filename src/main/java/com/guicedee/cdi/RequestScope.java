@@ -0,0 +1,558 @@
+package com.guicedee.cdi;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.Scope;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ContextNotActiveException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The Guice {@link Scope} of {@code @RequestScoped} beans.
+ * <p>
+ * A request context is activated on a thread with {@link #activate()} and ends with {@link #deactivate()}, or is bound
+ * to a unit of work with {@link #run(Runnable)} and {@link #call(Callable)}, which back {@code @ActivateRequestContext}.
+ * Ending a request calls the {@code @PreDestroy} methods of the instances created during it, most recent first.
+ * <p>
+ * Contexts follow work onto other threads through {@link ScopedValue} bindings: tasks forked in a
+ * {@link java.util.concurrent.StructuredTaskScope} inherit the context, and {@link #propagate(Runnable)},
+ * {@link #propagate(Supplier)} and {@link #propagating(Executor)} bind it for executors and {@code CompletableFuture}s.
+ * Propagated work shares the request's instances with its parent, nothing is copied.
+ * <p>
+ * Each request scoped binding is assigned a slot number when the injector is created, and a request stores its instances in a plain array
+ * indexed by slot, so a lookup is an array load with no hashing and no boxing. Slots are numbered per injector, from a
+ * table held by the injector's scoped providers, so building injectors again does not grow the tables of later requests
+ * and the keys of a discarded injector are released with it.
+ * <p>
+ * The scope is bound to {@code @RequestScoped} by {@link com.guicedee.cdi.implementations.BindScopeProvision}, and
+ * backs the CDI request {@link jakarta.enterprise.context.spi.Context} and
+ * {@link jakarta.enterprise.context.control.RequestContextController} of the bean manager.
+ * <p>
+ * Usage:
+ * {@code RequestScope.INSTANCE.activate(); try { handle(); } finally { RequestScope.INSTANCE.deactivate(); }}
+ */
+public final class RequestScope implements Scope {
+
+    private static final System.Logger log = System.getLogger(RequestScope.class.getName());
+
+    /**
+     * The request scope.
+     */
+    public static final RequestScope INSTANCE = new RequestScope();
+
+    /**
+     * Marks a slot whose provider returned null, so the null is not provided again.
+     */
+    private static final Object NULL = new Object();
+
+    /**
+     * The {@code @PreDestroy} methods of each class, superclass methods first, as {@code (Object)void} handles.
+     */
+    private static final ClassValue<MethodHandle[]> PRE_DESTROY = new ClassValue<>() {
+        @Override
+        protected MethodHandle[] computeValue(Class<?> type) {
+            Deque<Class<?>> hierarchy = new ArrayDeque<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                hierarchy.push(c);
+            }
+            List<MethodHandle> handles = new ArrayList<>();
+            for (Class<?> c : hierarchy) {
+                for (Method method : c.getDeclaredMethods()) {
+                    if (!method.isAnnotationPresent(PreDestroy.class) || method.getParameterCount() != 0
+                            || Modifier.isStatic(method.getModifiers()) || !method.trySetAccessible()) {
+                        continue;
+                    }
+                    try {
+                        handles.add(MethodHandles.lookup().unreflect(method)
+                                .asType(MethodType.methodType(void.class, Object.class)));
+                    } catch (IllegalAccessException e) {
+                        log.log(System.Logger.Level.WARNING, "@PreDestroy method " + method + " cannot be accessed", e);
+                    }
+                }
+            }
+            return handles.toArray(new MethodHandle[0]);
+        }
+    };
+
+    /**
+     * The slot table of the injector being built on the current thread.
+     */
+    private final ThreadLocal<Slots> building = new ThreadLocal<>();
+    private final ThreadLocal<Instances> current = new ThreadLocal<>();
+    private final ScopedValue<Instances> scoped = ScopedValue.newInstance();
+
+    private RequestScope() {
+    }
+
+    @Override
+    public <T> Provider<T> scope(Key<T> key, Provider<T> unscoped) {
+        // Bindings scoped outside a GuiceCDIModule build, such as just-in-time ones, get a table of their own
+        Slots table = building.get();
+        if (table == null) {
+            table = new Slots();
+        }
+        Slots slots = table;
+        int slot = slots.assign(key);
+        return new Provider<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public T get() {
+                Instances instances = getInstances();
+                if (instances == null) {
+                    throw new ContextNotActiveException("No request context is active on this thread for " + key);
+                }
+                Object instance = instances.get(slots, slot);
+                if (instance == null) {
+                    instance = instances.create(slots, slot, unscoped);
+                }
+                return instance == NULL ? null : (T) instance;
+            }
+
+            @Override
+            public String toString() {
+                return unscoped + "[RequestScoped]";
+            }
+        };
+    }
+
+    /**
+     * Activates a request context on the current thread, until {@link #deactivate()} is called.
+     *
+     * @return true if a new context was activated, false if one was already active
+     */
+    public boolean activate() {
+        if (getInstances() != null) {
+            return false;
+        }
+        current.set(new Instances());
+        return true;
+    }
+
+    /**
+     * Ends the request context activated on the current thread, calling the {@code @PreDestroy} methods of its instances.
+     *
+     * @throws ContextNotActiveException if no request context is active on the current thread
+     * @throws IllegalStateException     if the active context was bound by {@link #run(Runnable)}, {@link #call(Callable)}
+     *                                   or propagation, and so ends with the work it was bound for
+     */
+    public void deactivate() {
+        Instances instances = current.get();
+        if (instances == null) {
+            if (scoped.isBound()) {
+                throw new IllegalStateException("The request context of this thread was not activated by activate()");
+            }
+            throw new ContextNotActiveException("No request context is active on this thread");
+        }
+        current.remove();
+        instances.destroy();
+    }
+
+    /**
+     * Checks whether a request context is active on the current thread.
+     *
+     * @return true if a request context is active
+     */
+    public boolean isActive() {
+        return getInstances() != null;
+    }
+
+    /**
+     * Runs a task in a request context. When no context is active, a new one is bound for the duration of the task,
+     * and ended once it returns.
+     *
+     * @param task The task
+     */
+    public void run(Runnable task) {
+        if (isActive()) {
+            task.run();
+            return;
+        }
+        Instances instances = new Instances();
+        try {
+            ScopedValue.where(scoped, instances).run(task);
+        } finally {
+            instances.destroy();
+        }
+    }
+
+    /**
+     * Calls a task in a request context. When no context is active, a new one is bound for the duration of the task,
+     * and ended once it returns.
+     *
+     * @param task The task
+     * @param <T>  The result type
+     * @return The result of the task
+     * @throws Exception if the task throws
+     */
+    public <T> T call(Callable<T> task) throws Exception {
+        if (isActive()) {
+            return task.call();
+        }
+        Instances instances = new Instances();
+        try {
+            return ScopedValue.where(scoped, instances).call(task::call);
+        } finally {
+            instances.destroy();
+        }
+    }
+
+    /**
+     * Wraps a task so it runs in the request context active when this method is called, on whichever thread runs it.
+     * The task shares the context's instances rather than a copy; the context must not end before the task does.
+     *
+     * @param task The task
+     * @return The task bound to the current request context, or the task itself when no context is active
+     */
+    public Runnable propagate(Runnable task) {
+        Instances instances = getInstances();
+        if (instances == null) {
+            return task;
+        }
+        return () -> ScopedValue.where(scoped, instances).run(task);
+    }
+
+    /**
+     * Wraps a supplier so it runs in the request context active when this method is called, on whichever thread runs it.
+     * Useful with {@link java.util.concurrent.CompletableFuture#supplyAsync(Supplier, Executor)}.
+     *
+     * @param task The supplier
+     * @param <T>  The result type
+     * @return The supplier bound to the current request context, or the supplier itself when no context is active
+     */
+    public <T> Supplier<T> propagate(Supplier<T> task) {
+        Instances instances = getInstances();
+        if (instances == null) {
+            return task;
+        }
+        return () -> {
+            try {
+                return ScopedValue.where(scoped, instances).call(task::get);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        };
+    }
+
+    /**
+     * Wraps an executor so every task submitted to it runs in the request context active when it is submitted.
+     * Useful for {@link java.util.concurrent.CompletionStage} continuations such as {@code thenApplyAsync(fn, executor)}.
+     *
+     * @param executor The executor
+     * @return The propagating executor
+     */
+    public Executor propagating(Executor executor) {
+        return task -> executor.execute(propagate(task));
+    }
+
+    /**
+     * Gets the instances of the request context active on the current thread: the one activated on the thread,
+     * or else the one bound by {@link #run(Runnable)}, {@link #call(Callable)} or propagation.
+     *
+     * @return The instances, or null when no request context is active
+     */
+    Instances getInstances() {
+        Instances instances = current.get();
+        if (instances == null && scoped.isBound()) {
+            return scoped.get();
+        }
+        return instances;
+    }
+
+    /**
+     * Starts the slot table of an injector being built on the current thread. The request scoped bindings of the
+     * injector take their slots from it until {@link Slots#end()}.
+     *
+     * @return The slot table
+     */
+    Slots begin() {
+        Slots slots = new Slots();
+        building.set(slots);
+        return slots;
+    }
+
+    /**
+     * Calls the {@code @PreDestroy} methods of an instance, logging failures so the other instances are still destroyed.
+     *
+     * @param instance The instance
+     */
+    static void preDestroy(Object instance) {
+        for (MethodHandle handle : PRE_DESTROY.get(instance.getClass())) {
+            try {
+                handle.invokeExact(instance);
+            } catch (Throwable t) {
+                log.log(System.Logger.Level.ERROR, "@PreDestroy failed for " + instance.getClass().getName(), t);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RequestScope";
+    }
+
+    /**
+     * The slots of the request scoped bindings of one injector.
+     */
+    static final class Slots {
+        private final AtomicInteger next = new AtomicInteger();
+        private final Map<Key<?>, Integer> byKey = new ConcurrentHashMap<>();
+
+        private int assign(Key<?> key) {
+            int slot = next.getAndIncrement();
+            byKey.put(key, slot);
+            return slot;
+        }
+
+        /**
+         * Gets the slot of a request scoped key.
+         *
+         * @param key The binding key
+         * @return The slot, or -1 if the key is not request scoped in this table
+         */
+        int slotOf(Key<?> key) {
+            Integer slot = byKey.get(key);
+            return slot == null ? -1 : slot;
+        }
+
+        /**
+         * Ends the build of the injector this table was started for, so later bindings scoped on the thread do not
+         * take slots from it.
+         *
+         * @return This table
+         */
+        Slots end() {
+            if (INSTANCE.building.get() == this) {
+                INSTANCE.building.remove();
+            }
+            return this;
+        }
+    }
+
+    /**
+     * The instances of one request, by slot table and slot, and the order they were created in.
+     * <p>
+     * A request may be shared by the threads its work was propagated to. Slots are read with acquire semantics and
+     * without locking; creating, removing and destroying instances is serialized on the request.
+     */
+    static final class Instances {
+        private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
+        private static final Object[] NO_TABLES = new Object[0];
+
+        /**
+         * The instances of each slot table the request has used, as pairs of table and instances by slot. A request
+         * nearly always uses the table of a single injector.
+         */
+        private volatile Object[] tables = NO_TABLES;
+        private Slots[] createdIn;
+        private int[] created;
+        private int count;
+        private boolean destroyed;
+        private List<Runnable> destroyers;
+        private Map<Object, Object> contextual;
+
+        private Instances() {
+            this.createdIn = new Slots[8];
+            this.created = new int[8];
+        }
+
+        /**
+         * Gets the instance in a slot.
+         *
+         * @param slots The slot table
+         * @param slot  The slot
+         * @return The instance, {@link #NULL} for a provided null, or null when no instance was created yet
+         */
+        Object get(Slots slots, int slot) {
+            Object[] array = instancesOf(slots);
+            return array != null && slot < array.length ? SLOTS.getAcquire(array, slot) : null;
+        }
+
+        /**
+         * Gets the instance of a request scoped key, from the first slot table of the request scoping it.
+         *
+         * @param key The binding key
+         * @return The instance, {@link #NULL} for a provided null, or null when no instance was created yet
+         */
+        Object get(Key<?> key) {
+            Object[] tables = this.tables;
+            for (int i = 0; i < tables.length; i += 2) {
+                int slot = ((Slots) tables[i]).slotOf(key);
+                if (slot >= 0) {
+                    return get((Slots) tables[i], slot);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Gets the instance in a slot, creating it if no thread of the request has yet.
+         *
+         * @param slots    The slot table
+         * @param slot     The slot
+         * @param unscoped The provider of new instances
+         * @return The instance, or {@link #NULL} for a provided null
+         */
+        synchronized Object create(Slots slots, int slot, Provider<?> unscoped) {
+            Object instance = get(slots, slot);
+            if (instance == null) {
+                if (destroyed) {
+                    throw new ContextNotActiveException("The request context has ended");
+                }
+                Object provided = unscoped.get();
+                instance = provided == null ? NULL : provided;
+                put(slots, slot, instance);
+            }
+            return instance;
+        }
+
+        /**
+         * Removes the instance of a request scoped key and calls its {@code @PreDestroy} methods.
+         *
+         * @param key The binding key
+         */
+        synchronized void destroy(Key<?> key) {
+            Object[] tables = this.tables;
+            for (int i = 0; i < tables.length; i += 2) {
+                Slots slots = (Slots) tables[i];
+                int slot = slots.slotOf(key);
+                if (slot >= 0) {
+                    destroy(slots, slot);
+                    return;
+                }
+            }
+        }
+
+        private void destroy(Slots slots, int slot) {
+            Object instance = get(slots, slot);
+            if (instance == null) {
+                return;
+            }
+            SLOTS.setRelease(instancesOf(slots), slot, null);
+            for (int i = 0; i < count; i++) {
+                if (created[i] == slot && createdIn[i] == slots) {
+                    System.arraycopy(created, i + 1, created, i, count - i - 1);
+                    System.arraycopy(createdIn, i + 1, createdIn, i, count - i - 1);
+                    createdIn[--count] = null;
+                    break;
+                }
+            }
+            if (instance != NULL) {
+                preDestroy(instance);
+            }
+        }
+
+        private Object[] instancesOf(Slots slots) {
+            Object[] tables = this.tables;
+            for (int i = 0; i < tables.length; i += 2) {
+                if (tables[i] == slots) {
+                    return (Object[]) tables[i + 1];
+                }
+            }
+            return null;
+        }
+
+        private void put(Slots slots, int slot, Object instance) {
+            Object[] array = instancesOf(slots);
+            if (array == null || slot >= array.length) {
+                Object[] grown = new Object[Math.max(Math.max(slot + 1, slots.next.get()), array == null ? 8 : array.length * 2)];
+                if (array != null) {
+                    System.arraycopy(array, 0, grown, 0, array.length);
+                }
+                grown[slot] = instance;
+                replace(slots, grown);
+            } else {
+                SLOTS.setRelease(array, slot, instance);
+            }
+            if (count == created.length) {
+                created = Arrays.copyOf(created, count * 2);
+                createdIn = Arrays.copyOf(createdIn, count * 2);
+            }
+            createdIn[count] = slots;
+            created[count++] = slot;
+        }
+
+        private void replace(Slots slots, Object[] array) {
+            Object[] tables = this.tables;
+            for (int i = 0; i < tables.length; i += 2) {
+                if (tables[i] == slots) {
+                    Object[] replaced = tables.clone();
+                    replaced[i + 1] = array;
+                    this.tables = replaced;
+                    return;
+                }
+            }
+            Object[] added = Arrays.copyOf(tables, tables.length + 2);
+            added[tables.length] = slots;
+            added[tables.length + 1] = array;
+            this.tables = added;
+        }
+
+        /**
+         * Gets the instances of the request created through the CDI context for contextuals other than Guice bindings.
+         * Callers synchronize on the request while using the map.
+         *
+         * @return The instances by contextual
+         */
+        Map<Object, Object> contextual() {
+            if (contextual == null) {
+                contextual = new HashMap<>();
+            }
+            return contextual;
+        }
+
+        /**
+         * Registers an action to run when the request ends, for instances created outside the Guice scope.
+         *
+         * @param destroyer The action
+         */
+        synchronized void onDestroy(Runnable destroyer) {
+            if (destroyers == null) {
+                destroyers = new ArrayList<>();
+            }
+            destroyers.add(destroyer);
+        }
+
+        private synchronized void destroy() {
+            if (destroyers != null) {
+                for (int i = destroyers.size() - 1; i >= 0; i--) {
+                    try {
+                        destroyers.get(i).run();
+                    } catch (RuntimeException e) {
+                        log.log(System.Logger.Level.ERROR, "Could not destroy a request scoped instance", e);
+                    }
+                }
+            }
+            destroyed = true;
+            for (int i = count - 1; i >= 0; i--) {
+                Object instance = get(createdIn[i], created[i]);
+                if (instance != NULL) {
+                    preDestroy(instance);
+                }
+            }
+            tables = NO_TABLES;
+            count = 0;
+            createdIn = new Slots[0];
+        }
+    }
+}
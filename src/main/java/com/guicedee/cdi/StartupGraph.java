@@ -0,0 +1,315 @@
+package com.guicedee.cdi;
+
+import com.google.inject.Binding;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.spi.Dependency;
+import com.google.inject.spi.HasDependencies;
+import jakarta.enterprise.event.Startup;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.DeploymentException;
+
+import java.lang.annotation.Annotation;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The eager beans of an injector and the dependencies between them, initialised concurrently at startup.
+ * <p>
+ * Eager beans are those declaring an observer of the CDI {@link Startup} event, and those whose class carries
+ * {@code jakarta.ejb.Startup} or one of the annotations named, fully qualified and separated by commas, by the
+ * {@code guicedee.cdi.startupAnnotations} system property. Initialising a bean creates its contextual
+ * instance, behind any client proxy, and notifies its {@code Startup} observers in priority order.
+ * <p>
+ * The dependency graph is built from the Guice {@link Dependency} metadata of the bindings: a bean depends on every
+ * eager bean reachable through the dependencies of its binding, other than through a {@code Provider}, which defers the
+ * lookup. Each bean is initialised on a bounded pool as soon as the beans it depends on are, so independent subgraphs
+ * are initialised concurrently. Observers of independent beans may therefore run concurrently and in any order;
+ * {@code @Priority} orders the observers of one bean. Cycles are broken by ignoring the edge that closes them.
+ * <p>
+ * The pool has one thread per available processor, or the number set with the {@code guicedee.cdi.startupThreads}
+ * system property.
+ */
+final class StartupGraph {
+
+    private static final System.Logger log = System.getLogger(StartupGraph.class.getName());
+
+    private static final Annotation[] NO_QUALIFIERS = new Annotation[0];
+
+    private static final String EJB_STARTUP = "jakarta.ejb.Startup";
+
+    private final Injector injector;
+    private final Set<String> eagerAnnotations = eagerAnnotations();
+    private final Startup event = new Startup();
+    private final Map<Bean<?>, Node> nodes = new LinkedHashMap<>();
+    private final List<GuiceObserverMethod<?>> unboundObservers = new ArrayList<>();
+    private final Queue<Node> finished = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Finds the eager beans of an injector and the dependencies between them.
+     *
+     * @param injector  The injector
+     * @param index     The bean index of the injector
+     * @param observers The observers of the injector
+     */
+    StartupGraph(Injector injector, BeanIndex index, ObserverRegistry observers) {
+        this.injector = injector;
+        for (GuiceObserverMethod<?> observer : observers.resolveSync(event, Startup.class)) {
+            if (observer.getDeclaringBean() instanceof GuiceBean<?> bean) {
+                Node node = nodes.computeIfAbsent(bean, Node::new);
+                node.observers.add(observer);
+                node.instantiate |= !observer.isStatic();
+            } else {
+                unboundObservers.add(observer);
+            }
+        }
+        for (Bean<?> bean : ObserverRegistry.declaringBeans(index).values()) {
+            if (isEager(bean.getBeanClass())) {
+                nodes.computeIfAbsent(bean, Node::new).instantiate = true;
+            }
+        }
+        Map<Key<?>, Node> byKey = new HashMap<>();
+        for (Node node : nodes.values()) {
+            byKey.put(node.bean.getBinding().getKey(), node);
+        }
+        for (Node node : nodes.values()) {
+            node.dependencies.addAll(eagerDependencies(node, byKey));
+        }
+    }
+
+    private static Set<String> eagerAnnotations() {
+        Set<String> names = new HashSet<>();
+        names.add(EJB_STARTUP);
+        for (String name : System.getProperty("guicedee.cdi.startupAnnotations", "").split(",")) {
+            if (!name.isBlank()) {
+                names.add(name.strip());
+            }
+        }
+        return names;
+    }
+
+    private boolean isEager(Class<?> beanClass) {
+        for (Annotation annotation : beanClass.getAnnotations()) {
+            if (eagerAnnotations.contains(annotation.annotationType().getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Walks the dependencies of a bean's binding up to the first eager bean on each path.
+     */
+    private Set<Node> eagerDependencies(Node node, Map<Key<?>, Node> byKey) {
+        Set<Node> dependencies = new LinkedHashSet<>();
+        Set<Key<?>> visited = new HashSet<>();
+        Deque<Binding<?>> pending = new ArrayDeque<>();
+        pending.push(node.bean.getBinding());
+        while (!pending.isEmpty()) {
+            if (!(pending.pop() instanceof HasDependencies binding)) {
+                continue;
+            }
+            for (Dependency<?> dependency : binding.getDependencies()) {
+                Key<?> key = dependency.getKey();
+                Class<?> type = key.getTypeLiteral().getRawType();
+                if (type == com.google.inject.Provider.class || type == jakarta.inject.Provider.class || !visited.add(key)) {
+                    continue;
+                }
+                Node other = byKey.get(key);
+                if (other != null) {
+                    if (other != node) {
+                        dependencies.add(other);
+                    }
+                    continue;
+                }
+                Binding<?> next = injector.getExistingBinding(key);
+                if (next != null) {
+                    pending.push(next);
+                }
+            }
+        }
+        return dependencies;
+    }
+
+    /**
+     * Initialises the eager beans, then notifies the {@code Startup} observers that no bean declares.
+     *
+     * @return The report of the startup
+     * @throws DeploymentException if any bean fails to initialise
+     */
+    StartupReport run() {
+        if (nodes.isEmpty() && unboundObservers.isEmpty()) {
+            return StartupReport.EMPTY;
+        }
+        int threads = Math.max(1, Math.min(Integer.getInteger("guicedee.cdi.startupThreads",
+                Runtime.getRuntime().availableProcessors()), nodes.size()));
+        ExecutorService pool = threads == 1 ? null : Executors.newFixedThreadPool(threads, new StartupThreads());
+        Executor executor = pool == null ? Runnable::run : pool;
+        long start = System.nanoTime();
+        try {
+            Map<Node, CompletableFuture<Void>> scheduled = new HashMap<>();
+            for (Node node : nodes.values()) {
+                schedule(node, scheduled, new HashSet<>(), executor);
+            }
+            for (CompletableFuture<Void> future : scheduled.values()) {
+                future.exceptionally(t -> null).join();
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+        List<Throwable> failures = new ArrayList<>();
+        for (Node node : nodes.values()) {
+            if (node.failure != null) {
+                failures.add(node.failure);
+            }
+        }
+        if (!failures.isEmpty()) {
+            DeploymentException exception = new DeploymentException("Could not initialise " + failures.size() + " eager beans at startup",
+                    failures.get(0));
+            failures.subList(1, failures.size()).forEach(exception::addSuppressed);
+            throw exception;
+        }
+        notifyUnbound();
+        StartupReport report = report(Duration.ofNanos(System.nanoTime() - start), threads);
+        log(report);
+        return report;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void notifyUnbound() {
+        for (GuiceObserverMethod observer : unboundObservers) {
+            observer.notify(event, Startup.class, NO_QUALIFIERS);
+        }
+    }
+
+    private CompletableFuture<Void> schedule(Node node, Map<Node, CompletableFuture<Void>> scheduled, Set<Node> visiting, Executor executor) {
+        CompletableFuture<Void> future = scheduled.get(node);
+        if (future != null) {
+            return future;
+        }
+        visiting.add(node);
+        List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+        for (Node dependency : node.dependencies) {
+            if (visiting.contains(dependency)) {
+                log.log(System.Logger.Level.WARNING, "Eager beans {0} and {1} depend on each other, {0} is not waited for",
+                        dependency.bean, node.bean);
+                continue;
+            }
+            node.awaited.add(dependency);
+            dependencies.add(schedule(dependency, scheduled, visiting, executor));
+        }
+        visiting.remove(node);
+        future = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[0])).thenRunAsync(node::initialise, executor);
+        scheduled.put(node, future);
+        return future;
+    }
+
+    /**
+     * Reports each bean in the order they finished, which is a topological order of the awaited dependencies, and
+     * the chain of awaited dependencies with the longest total duration.
+     */
+    private StartupReport report(Duration elapsed, int threads) {
+        Map<Node, StartupReport.BeanStartup> reported = new HashMap<>();
+        Map<Node, Long> longest = new HashMap<>();
+        Map<Node, Node> previous = new HashMap<>();
+        List<StartupReport.BeanStartup> beans = new ArrayList<>();
+        Node last = null;
+        for (Node node : finished) {
+            Set<Bean<?>> dependencies = new LinkedHashSet<>();
+            long before = 0;
+            for (Node dependency : node.awaited) {
+                dependencies.add(dependency.bean);
+                long length = longest.getOrDefault(dependency, 0L);
+                if (length > before) {
+                    before = length;
+                    previous.put(node, dependency);
+                }
+            }
+            longest.put(node, before + node.nanos);
+            if (last == null || longest.get(node) > longest.get(last)) {
+                last = node;
+            }
+            StartupReport.BeanStartup bean = new StartupReport.BeanStartup(node.bean, Duration.ofNanos(node.nanos), Set.copyOf(dependencies));
+            reported.put(node, bean);
+            beans.add(bean);
+        }
+        Deque<StartupReport.BeanStartup> criticalPath = new ArrayDeque<>();
+        for (Node node = last; node != null; node = previous.get(node)) {
+            criticalPath.push(reported.get(node));
+        }
+        return new StartupReport(List.copyOf(beans), List.copyOf(criticalPath), elapsed, threads);
+    }
+
+    private static void log(StartupReport report) {
+        if (log.isLoggable(System.Logger.Level.DEBUG)) {
+            for (StartupReport.BeanStartup bean : report.beans()) {
+                log.log(System.Logger.Level.DEBUG, "Initialised {0} in {1} ms after {2}", bean.bean(), bean.duration().toMillis(), bean.dependencies());
+            }
+        }
+        StringJoiner path = new StringJoiner(" -> ");
+        for (StartupReport.BeanStartup bean : report.criticalPath()) {
+            path.add(bean.bean().getBeanClass().getSimpleName() + " (" + bean.duration().toMillis() + " ms)");
+        }
+        log.log(System.Logger.Level.INFO, "Initialised {0} eager beans in {1} ms on {2} threads, critical path {3} ms: {4}",
+                report.beans().size(), report.elapsed().toMillis(), report.threads(), report.criticalPathDuration().toMillis(), path);
+    }
+
+    /**
+     * An eager bean, the eager beans it depends on and how its initialisation went.
+     */
+    private final class Node {
+        private final GuiceBean<?> bean;
+        private final List<GuiceObserverMethod<?>> observers = new ArrayList<>();
+        private final Set<Node> dependencies = new LinkedHashSet<>();
+        private final List<Node> awaited = new ArrayList<>();
+        private boolean instantiate;
+        private long nanos;
+        private Throwable failure;
+
+        private Node(Bean<?> bean) {
+            this.bean = (GuiceBean<?>) bean;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private void initialise() {
+            long start = System.nanoTime();
+            try {
+                if (instantiate) {
+                    ClientProxy.unwrap(injector.getInstance(bean.getBinding().getKey()));
+                }
+                for (GuiceObserverMethod observer : observers) {
+                    observer.notify(event, Startup.class, NO_QUALIFIERS);
+                }
+            } catch (RuntimeException | Error e) {
+                failure = e;
+                throw e;
+            } finally {
+                nanos = System.nanoTime() - start;
+            }
+            finished.add(this);
+        }
+    }
+
+    /**
+     * Names the daemon threads of the startup pool.
+     */
+    private static final class StartupThreads implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "guicedee-cdi-startup-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
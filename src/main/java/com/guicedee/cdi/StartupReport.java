@@ -0,0 +1,47 @@
+package com.guicedee.cdi;
+
+import jakarta.enterprise.inject.spi.Bean;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * How the eager beans of an injector were initialised at startup.
+ *
+ * @param beans        The eager beans, in the order they finished initialising
+ * @param criticalPath The chain of dependent beans with the longest total initialisation time, dependencies first
+ * @param elapsed      The wall clock time from the first bean starting to the last one finishing
+ * @param threads      The number of threads the beans were initialised on
+ */
+public record StartupReport(List<BeanStartup> beans, List<BeanStartup> criticalPath, Duration elapsed, int threads) {
+
+    /**
+     * The report of an injector without eager beans.
+     */
+    static final StartupReport EMPTY = new StartupReport(List.of(), List.of(), Duration.ZERO, 0);
+
+    /**
+     * Gets the total initialisation time of the beans on the critical path, the shortest the startup can take
+     * however many threads it runs on.
+     *
+     * @return The duration of the critical path
+     */
+    public Duration criticalPathDuration() {
+        Duration total = Duration.ZERO;
+        for (BeanStartup bean : criticalPath) {
+            total = total.plus(bean.duration());
+        }
+        return total;
+    }
+
+    /**
+     * The initialisation of one eager bean: creating its instance and notifying its {@code Startup} observers.
+     *
+     * @param bean         The bean
+     * @param duration     The time the bean took to initialise, excluding its eager dependencies
+     * @param dependencies The eager beans it depends on, which were initialised before it
+     */
+    public record BeanStartup(Bean<?> bean, Duration duration, Set<Bean<?>> dependencies) {
+    }
+}
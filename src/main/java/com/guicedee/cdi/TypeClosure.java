@@ -0,0 +1,45 @@
+package com.guicedee.cdi;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Computes and caches the type closure of a class: the class itself, its superclasses and every interface it implements.
+ * Closures are cached per class through a {@link ClassValue}, so they are computed once and released with the class loader.
+ */
+final class TypeClosure {
+
+    private static final ClassValue<Set<Class<?>>> CLOSURES = new ClassValue<>() {
+        @Override
+        protected Set<Class<?>> computeValue(Class<?> type) {
+            Set<Class<?>> closure = new LinkedHashSet<>();
+            collect(type, closure);
+            return Collections.unmodifiableSet(closure);
+        }
+    };
+
+    private TypeClosure() {
+        // Utility class
+    }
+
+    /**
+     * Gets the type closure of the given class, ordered from the class itself outwards.
+     *
+     * @param type The class
+     * @return The immutable set of the class, its superclasses and interfaces
+     */
+    static Set<Class<?>> of(Class<?> type) {
+        return CLOSURES.get(type);
+    }
+
+    private static void collect(Class<?> type, Set<Class<?>> closure) {
+        if (type == null || !closure.add(type)) {
+            return;
+        }
+        collect(type.getSuperclass(), closure);
+        for (Class<?> anInterface : type.getInterfaces()) {
+            collect(anInterface, closure);
+        }
+    }
+}
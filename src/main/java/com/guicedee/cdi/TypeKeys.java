@@ -0,0 +1,61 @@
+package com.guicedee.cdi;
+
+import jakarta.enterprise.util.TypeLiteral;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * Canonicalizes the generic types requested through CDI into the form Guice binds them under.
+ * <p>
+ * A CDI {@link TypeLiteral} is an anonymous subclass created at its call site, and its type is fixed by that subclass,
+ * so it is resolved once per subclass through a {@link ClassValue} rather than by reflecting on each new literal instance.
+ * Other types are converted to their Guice canonical form on each call and compared with {@code equals}; they are not
+ * interned, as a static table of types would keep the class loaders of every type ever requested reachable.
+ */
+final class TypeKeys {
+
+    /**
+     * The canonical type of each type literal subclass, read from the type argument it passes to {@link TypeLiteral}.
+     */
+    private static final ClassValue<Type> LITERAL_TYPES = new ClassValue<>() {
+        @Override
+        protected Type computeValue(Class<?> literalClass) {
+            Class<?> subclass = literalClass;
+            while (subclass.getSuperclass() != TypeLiteral.class) {
+                subclass = subclass.getSuperclass();
+            }
+            if (!(subclass.getGenericSuperclass() instanceof ParameterizedType literalType)) {
+                throw new IllegalArgumentException(literalClass + " does not specify the type parameter T of TypeLiteral<T>");
+            }
+            return canonicalize(literalType.getActualTypeArguments()[0]);
+        }
+    };
+
+    private TypeKeys() {
+        // Utility class
+    }
+
+    /**
+     * Gets the canonical type a CDI type literal represents.
+     *
+     * @param literal The type literal
+     * @return The canonical type
+     */
+    static Type typeOf(TypeLiteral<?> literal) {
+        return LITERAL_TYPES.get(literal.getClass());
+    }
+
+    /**
+     * Converts a type to its Guice canonical form. Classes are already canonical and are returned as is.
+     *
+     * @param type The type
+     * @return The canonical form of the type, equal to every other canonical form of it
+     */
+    static Type canonicalize(Type type) {
+        if (type instanceof Class<?>) {
+            return type;
+        }
+        return com.google.inject.TypeLiteral.get(type).getType();
+    }
+}
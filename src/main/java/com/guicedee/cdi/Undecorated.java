@@ -0,0 +1,41 @@
+package com.guicedee.cdi;
+
+import jakarta.enterprise.util.AnnotationLiteral;
+import jakarta.inject.Qualifier;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Qualifies the original binding of a decorated key, which the decorated key's provider wraps with its decorators.
+ * Bindings with this qualifier are internal and never reported as beans.
+ */
+@Qualifier
+@Retention(RetentionPolicy.RUNTIME)
+@interface Undecorated {
+
+    /**
+     * The decorated key the original binding was moved from.
+     *
+     * @return The decorated key's description
+     */
+    String value();
+
+    /**
+     * Supports inline instantiation of the {@link Undecorated} qualifier.
+     */
+    final class Literal extends AnnotationLiteral<Undecorated> implements Undecorated {
+        private static final long serialVersionUID = 1L;
+
+        private final String value;
+
+        Literal(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String value() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.guicedee.cdi;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A map from instances, compared by identity, to values, which does not keep the instances reachable.
+ * <p>
+ * Lookups allocate nothing and take no lock: each of the striped segments is an open addressed table whose slots are
+ * read with acquire semantics. Writes lock their segment, and the entries of collected instances are removed on the
+ * next write. A value must not refer to its instance strongly, or the instance is never collected.
+ *
+ * @param <V> The value type
+ */
+final class WeakIdentityMap<V> {
+
+    private static final int SEGMENTS = 16;
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Marks a removed slot, which lookups probe past. It refers to no instance, so it is dropped like a collected entry.
+     */
+    private static final Entry<Object> REMOVED = new Entry<>(null, 0, null, null);
+
+    private final Segment<V>[] segments;
+    private final ReferenceQueue<Object> released = new ReferenceQueue<>();
+
+    @SuppressWarnings("unchecked")
+    WeakIdentityMap() {
+        segments = (Segment<V>[]) new Segment<?>[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>(released);
+        }
+    }
+
+    /**
+     * Gets the value of an instance.
+     *
+     * @param instance The instance
+     * @return The value, or null if none was put for the instance
+     */
+    @SuppressWarnings("unchecked")
+    V get(Object instance) {
+        int hash = System.identityHashCode(instance);
+        AtomicReferenceArray<Entry<?>> table = segments[hash & (SEGMENTS - 1)].table;
+        int mask = table.length() - 1;
+        for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+            Entry<?> entry = table.getAcquire(i);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.hash == hash && entry.refersTo(instance)) {
+                return (V) entry.value;
+            }
+        }
+    }
+
+    /**
+     * Puts the value of an instance, unless it already has one.
+     *
+     * @param instance The instance
+     * @param value    The value
+     * @return The value the instance has after the call
+     */
+    V putIfAbsent(Object instance, V value) {
+        for (Reference<?> reference; (reference = released.poll()) != null; ) {
+            Entry<?> entry = (Entry<?>) reference;
+            segments[entry.hash & (SEGMENTS - 1)].remove(entry);
+        }
+        int hash = System.identityHashCode(instance);
+        return segments[hash & (SEGMENTS - 1)].putIfAbsent(instance, hash, value);
+    }
+
+    /**
+     * Spreads the hash bits the segment is chosen by out of the slot index.
+     */
+    private static int spread(int hash) {
+        return hash >>> 4;
+    }
+
+    private static final class Entry<V> extends WeakReference<Object> {
+        private final int hash;
+        private final V value;
+
+        private Entry(Object instance, int hash, V value, ReferenceQueue<Object> queue) {
+            super(instance, queue);
+            this.hash = hash;
+            this.value = value;
+        }
+    }
+
+    private static final class Segment<V> {
+        private final ReferenceQueue<Object> released;
+        private volatile AtomicReferenceArray<Entry<?>> table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+
+        /**
+         * The occupied slots of the table, removed ones included.
+         */
+        private int used;
+
+        private Segment(ReferenceQueue<Object> released) {
+            this.released = released;
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized V putIfAbsent(Object instance, int hash, V value) {
+            AtomicReferenceArray<Entry<?>> current = table;
+            int mask = current.length() - 1;
+            int i = spread(hash) & mask;
+            for (Entry<?> entry; (entry = current.get(i)) != null; i = (i + 1) & mask) {
+                if (entry.hash == hash && entry.refersTo(instance)) {
+                    return (V) entry.value;
+                }
+            }
+            if ((used + 1) * 4 > current.length() * 3) {
+                current = resize(current);
+                mask = current.length() - 1;
+                i = spread(hash) & mask;
+                while (current.get(i) != null) {
+                    i = (i + 1) & mask;
+                }
+            }
+            current.setRelease(i, new Entry<>(instance, hash, value, released));
+            used++;
+            return value;
+        }
+
+        synchronized void remove(Entry<?> entry) {
+            AtomicReferenceArray<Entry<?>> current = table;
+            int mask = current.length() - 1;
+            for (int i = spread(entry.hash) & mask; current.get(i) != null; i = (i + 1) & mask) {
+                if (current.get(i) == entry) {
+                    current.setRelease(i, REMOVED);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Copies the live entries to a table at most half full, and publishes it.
+         */
+        private AtomicReferenceArray<Entry<?>> resize(AtomicReferenceArray<Entry<?>> current) {
+            int live = 0;
+            for (int i = 0; i < current.length(); i++) {
+                Entry<?> entry = current.get(i);
+                if (entry != null && !entry.refersTo(null)) {
+                    live++;
+                }
+            }
+            int capacity = INITIAL_CAPACITY;
+            while (capacity < (live + 1) * 2) {
+                capacity <<= 1;
+            }
+            AtomicReferenceArray<Entry<?>> resized = new AtomicReferenceArray<>(capacity);
+            int mask = capacity - 1;
+            for (int i = 0; i < current.length(); i++) {
+                Entry<?> entry = current.get(i);
+                if (entry == null || entry.refersTo(null)) {
+                    continue;
+                }
+                int j = spread(entry.hash) & mask;
+                while (resized.get(j) != null) {
+                    j = (j + 1) & mask;
+                }
+                resized.set(j, entry);
+            }
+            used = live;
+            table = resized;
+            return resized;
+        }
+    }
+}
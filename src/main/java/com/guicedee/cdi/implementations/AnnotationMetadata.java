@@ -0,0 +1,137 @@
+package com.guicedee.cdi.implementations;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The injection point metadata {@link InjectionPointProvision} answers Guice with, cached so the reflective passes
+ * Guice makes over every class while creating an injector do not look at the same annotations again.
+ * <p>
+ * Each annotation type is classified once through a {@link ClassValue}. The injection point of a member is classified
+ * once from a single pass over its declared annotations and cached in a map held per declaring class through a
+ * {@link ClassValue}, so the cache is released with the class loader. Members that are not injection points are cached with a sentinel, since they are
+ * by far the most common.
+ */
+final class AnnotationMetadata
+{
+    /**
+     * The role of an annotation type at an injection point.
+     */
+    enum Kind
+    {
+        INJECT,
+        NAMED,
+        POST_CONSTRUCT,
+        OTHER
+    }
+
+    /**
+     * Caches the members of a class that are not injection points.
+     */
+    private static final Object NONE = new Object();
+
+    private static final ClassValue<Kind> KINDS = new ClassValue<>()
+    {
+        @Override
+        protected Kind computeValue(Class<?> type)
+        {
+            if (type == jakarta.inject.Inject.class)
+            {
+                return Kind.INJECT;
+            }
+            if (type == jakarta.inject.Named.class)
+            {
+                return Kind.NAMED;
+            }
+            if (type == jakarta.annotation.PostConstruct.class)
+            {
+                return Kind.POST_CONSTRUCT;
+            }
+            return Kind.OTHER;
+        }
+    };
+
+    private static final ClassValue<Map<AnnotatedElement, Object>> INJECTION_POINTS = new ClassValue<>()
+    {
+        @Override
+        protected Map<AnnotatedElement, Object> computeValue(Class<?> type)
+        {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private AnnotationMetadata()
+    {
+        // Utility class
+    }
+
+    /**
+     * Gets the role of an annotation type at an injection point.
+     *
+     * @param annotationType The annotation type
+     * @return The role, {@link Kind#OTHER} when the annotation plays none
+     */
+    static Kind kindOf(Class<? extends Annotation> annotationType)
+    {
+        return KINDS.get(annotationType);
+    }
+
+    /**
+     * Gets the CDI annotation that drives the injection point of a member, preferring {@code @Inject}, then
+     * {@code @Named}, then {@code @PostConstruct}. Members that are not fields, methods or constructors are not cached.
+     *
+     * @param member The annotated member
+     * @return The annotation type, or null when the member is not an injection point
+     */
+    @SuppressWarnings("unchecked")
+    static Class<? extends Annotation> injectionPoint(AnnotatedElement member)
+    {
+        // Checked against the classes rather than the Member interface, which is slower for mixed fields and methods
+        Class<?> declaringClass;
+        if (member instanceof Field field)
+        {
+            declaringClass = field.getDeclaringClass();
+        }
+        else if (member instanceof Executable executable)
+        {
+            declaringClass = executable.getDeclaringClass();
+        }
+        else
+        {
+            return classify(member);
+        }
+        Map<AnnotatedElement, Object> injectionPoints = INJECTION_POINTS.get(declaringClass);
+        Object injectionPoint = injectionPoints.get(member);
+        if (injectionPoint == null)
+        {
+            Class<? extends Annotation> classified = MetadataSnapshotFile.injectionPoint(member, AnnotationMetadata::classify);
+            injectionPoint = classified == null ? NONE : classified;
+            injectionPoints.putIfAbsent(member, injectionPoint);
+        }
+        return injectionPoint == NONE ? null : (Class<? extends Annotation>) injectionPoint;
+    }
+
+    private static Class<? extends Annotation> classify(AnnotatedElement member)
+    {
+        Kind found = Kind.OTHER;
+        for (Annotation annotation : member.getDeclaredAnnotations())
+        {
+            Kind kind = kindOf(annotation.annotationType());
+            if (kind.ordinal() < found.ordinal())
+            {
+                found = kind;
+            }
+        }
+        return switch (found)
+        {
+            case INJECT -> jakarta.inject.Inject.class;
+            case NAMED -> jakarta.inject.Named.class;
+            case POST_CONSTRUCT -> jakarta.annotation.PostConstruct.class;
+            case OTHER -> null;
+        };
+    }
+}
@@ -2,23 +2,55 @@ package com.guicedee.cdi.implementations;
 
 import com.google.inject.gee.BindScopeProvider;
 import com.google.inject.Binder;
+import com.guicedee.cdi.ApplicationScope;
+import com.guicedee.cdi.LockingSingletonScope;
+import com.guicedee.cdi.RequestScope;
 
 import static com.google.inject.Scopes.SINGLETON;
 
 /**
- * Registers CDI scope annotations with Guice's singleton scope.
+ * Registers {@code @Singleton} with Guice's singleton scope, and the CDI normal scopes with the client proxied
+ * application scope and the request scope.
+ * <p>
+ * With locking singletons enabled, {@code @Singleton} and {@code @ApplicationScoped} instances are created by the
+ * {@link LockingSingletonScope} instead, which does not pin virtual threads waiting for a bean under construction.
  */
 public class BindScopeProvision implements BindScopeProvider
 {
     /**
-     * Binds CDI scope annotations to Guice's singleton scope.
+     * When set, singletons are created under per-binding locks rather than Guice's singleton scope.
+     */
+    private static volatile boolean lockingSingletons = Boolean.getBoolean("guicedee.cdi.lockingSingletons");
+
+    /**
+     * Binds the CDI scope annotations to their Guice scopes.
      *
      * @param binder The Guice binder to configure
      */
     @Override
     public void bindScope(Binder binder)
     {
-        binder.bindScope(jakarta.inject.Singleton.class, SINGLETON);
-        binder.bindScope(jakarta.enterprise.context.ApplicationScoped.class, SINGLETON);
+        if (lockingSingletons)
+        {
+            binder.bindScope(jakarta.inject.Singleton.class, LockingSingletonScope.INSTANCE);
+            binder.bindScope(jakarta.enterprise.context.ApplicationScoped.class, ApplicationScope.LOCKING);
+        }
+        else
+        {
+            binder.bindScope(jakarta.inject.Singleton.class, SINGLETON);
+            binder.bindScope(jakarta.enterprise.context.ApplicationScoped.class, ApplicationScope.INSTANCE);
+        }
+        binder.bindScope(jakarta.enterprise.context.RequestScoped.class, RequestScope.INSTANCE);
+    }
+
+    /**
+     * Sets whether {@code @Singleton} and {@code @ApplicationScoped} use the {@link LockingSingletonScope}, for
+     * injectors created afterwards. Also settable with the {@code guicedee.cdi.lockingSingletons} system property.
+     *
+     * @param lockingSingletons true to create singletons under per-binding locks
+     */
+    public static void setLockingSingletons(boolean lockingSingletons)
+    {
+        BindScopeProvision.lockingSingletons = lockingSingletons;
     }
 }
@@ -7,6 +7,10 @@ import java.lang.reflect.AnnotatedElement;
 
 /**
  * Maps CDI-related annotations to Guice injection point types.
+ * <p>
+ * Each member is classified once and cached per declaring class, see {@link AnnotationMetadata}. Classifications are
+ * also read from the {@link MetadataSnapshotFile} when one is enabled, so a restart does not parse the annotations of
+ * every member again.
  */
 public class InjectionPointProvision implements InjectionPointProvider
 {
@@ -19,21 +23,6 @@ public class InjectionPointProvision implements InjectionPointProvider
     @Override
     public Class<? extends Annotation> injectionPoint(AnnotatedElement member)
     {
-        Annotation a = member.getAnnotation(jakarta.inject.Inject.class);
-        if (a != null) {
-            return jakarta.inject.Inject.class;
-        }
-
-        a = member.getAnnotation(jakarta.inject.Named.class);
-        if (a != null) {
-            return jakarta.inject.Named.class;
-        }
-
-        a = member.getAnnotation(jakarta.annotation.PostConstruct.class);
-        if (a != null) {
-            return jakarta.annotation.PostConstruct.class;
-        }
-
-        return null;
+        return AnnotationMetadata.injectionPoint(member);
     }
 }
@@ -0,0 +1,634 @@
+package com.guicedee.cdi.implementations;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Bean metadata computed reflectively on one boot and read back from a memory-mapped file on the next, for
+ * applications that cannot run the {@link com.guicedee.cdi.BeanIndexProcessor} at build time. Enabled through
+ * {@link com.guicedee.cdi.MetadataSnapshot}.
+ * <p>
+ * The snapshot holds the scope annotation declared on each bean class, and the injection point annotation of each
+ * member Guice asks the {@link InjectionPointProvision} about, so later boots skip parsing those annotations. It is
+ * written once the injector's eager beans are initialised, only when something new was classified. Classes are looked
+ * up in an open addressing table of the mapped file, and each class's record is decoded from the mapping the first
+ * time the class is asked about, rather than reading the whole file.
+ * <p>
+ * The record of a class lives in a {@link ClassValue} on the class, and caches the annotation types its names resolve
+ * to, so a class is decoded and each of its names loaded once per boot. Records of classes that were not asked about
+ * and no longer have a class file are dropped by the next save.
+ * <p>
+ * The file is keyed by a hash of the module path and class path, with the size and modification time of each jar on
+ * them. Exploded directories are not walked; instead the record of each class holds the size and modification time
+ * of the jar or class file it was loaded from, checked when the class is first asked about. A snapshot written for a
+ * different hash, or the record of a rebuilt class, is ignored and replaced, so an upgraded or rebuilt application
+ * never sees stale metadata.
+ * <p>
+ * A mapped file is never written over, since a mapping cannot be released on demand and some platforms refuse to
+ * replace a mapped file. Each save writes the next generation beside the configured path, {@code <file>.<n>}, and
+ * boots map the highest generation. Older generations are deleted once written over, or by a later save if they
+ * were still mapped.
+ */
+public final class MetadataSnapshotFile {
+
+    private static final System.Logger log = System.getLogger(MetadataSnapshotFile.class.getName());
+
+    private static final int MAGIC = 0x47434453;
+    private static final int VERSION = 2;
+    private static final int HASH_LENGTH = 32;
+    private static final int HEADER_LENGTH = 4 + 2 + HASH_LENGTH + 4 + 4;
+
+    private static final byte SCOPE_UNKNOWN = 0;
+    private static final byte SCOPE_NONE = 1;
+    private static final byte SCOPE_DECLARED = 2;
+
+    /**
+     * The classification of a class without a scope annotation, or of a member that is not an injection point.
+     */
+    private static final String NONE = "";
+
+    /**
+     * Caches a recorded name that no longer resolves to an annotation type.
+     */
+    private static final Class<?> UNRESOLVED = void.class;
+
+    /**
+     * Marks a class location that is an exploded directory, whose classes are stamped one by one.
+     */
+    private static final long DIRECTORY = Long.MIN_VALUE;
+
+    private static volatile Path location = Optional.ofNullable(System.getProperty("guicedee.cdi.metadataSnapshot"))
+            .filter(path -> !path.isBlank())
+            .map(Path::of)
+            .orElse(null);
+
+    private static volatile MetadataSnapshotFile current;
+
+    private final Path file;
+    private final byte[] hash;
+    /**
+     * The stamps of the jars classes are loaded from, or {@link #DIRECTORY} for exploded directories, by location.
+     */
+    private final Map<URL, Long> locations = new ConcurrentHashMap<>();
+    private final ByteBuffer mapped;
+    private final int slots;
+
+    /**
+     * The records of every class asked about, decoded from the mapping or started empty.
+     */
+    private final ClassValue<ClassRecord> records = new ClassValue<>() {
+        @Override
+        protected ClassRecord computeValue(Class<?> type) {
+            seen.add(type.getName());
+            long stamp = stamp(type);
+            ClassRecord record = mapped == null ? null : decode(type.getName());
+            return record != null && record.stamp == stamp ? record : new ClassRecord(type.getName(), stamp);
+        }
+    };
+
+    /**
+     * The names of the classes asked about on this boot, whose records are kept by the next save.
+     */
+    private final Set<String> seen = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The records that gained a classification on this boot, to be written with the next save.
+     */
+    private final Map<String, ClassRecord> changed = new ConcurrentHashMap<>();
+
+    private volatile boolean dirty;
+
+    private MetadataSnapshotFile(Path file, byte[] hash, ByteBuffer mapped) {
+        this.file = file;
+        this.hash = hash;
+        this.mapped = mapped;
+        this.slots = mapped == null ? 0 : mapped.getInt(HEADER_LENGTH - 4);
+    }
+
+    /**
+     * Sets the path the snapshot generations are read from and written beside, for injectors created afterwards.
+     * Classifications not saved yet are discarded.
+     *
+     * @param location The snapshot path, or null to disable the snapshot
+     */
+    public static void setLocation(Path location) {
+        synchronized (MetadataSnapshotFile.class) {
+            MetadataSnapshotFile.location = location;
+            current = null;
+        }
+    }
+
+    /**
+     * Gets the injection point annotation of a member from the snapshot, classifying it and recording the result when
+     * the snapshot does not have it.
+     *
+     * @param member     A field, method or constructor
+     * @param classifier Finds the injection point annotation of a member, or null when it is not an injection point
+     * @return The injection point annotation, or null
+     */
+    static Class<? extends Annotation> injectionPoint(AnnotatedElement member,
+                                                      Function<? super AnnotatedElement, Class<? extends Annotation>> classifier) {
+        MetadataSnapshotFile snapshot = snapshot();
+        String key = snapshot == null ? null : memberKey(member);
+        if (key == null || !recordable(((Member) member).getDeclaringClass())) {
+            return classifier.apply(member);
+        }
+        Class<?> declaringClass = ((Member) member).getDeclaringClass();
+        ClassRecord record = snapshot.records.get(declaringClass);
+        String recorded = record.members.get(key);
+        if (recorded != null) {
+            Class<? extends Annotation> annotationType = record.resolve(recorded, declaringClass);
+            if (recorded.equals(NONE) || annotationType != null) {
+                return annotationType;
+            }
+        }
+        Class<? extends Annotation> annotationType = classifier.apply(member);
+        record.members.put(key, annotationType == null ? NONE : annotationType.getName());
+        snapshot.changed(record);
+        return annotationType;
+    }
+
+    /**
+     * Gets the scope annotation declared on a bean class from the snapshot, classifying it and recording the result
+     * when the snapshot does not have it.
+     *
+     * @param beanClass  The bean class
+     * @param classifier Finds the scope annotation declared on a class, or null when it has none
+     * @return The declared scope annotation, or null
+     */
+    public static Class<? extends Annotation> scope(Class<?> beanClass, Function<Class<?>, Class<? extends Annotation>> classifier) {
+        MetadataSnapshotFile snapshot = snapshot();
+        if (snapshot == null || !recordable(beanClass)) {
+            return classifier.apply(beanClass);
+        }
+        ClassRecord record = snapshot.records.get(beanClass);
+        String recorded = record.scope;
+        if (recorded != null) {
+            Class<? extends Annotation> annotationType = record.resolve(recorded, beanClass);
+            if (recorded.equals(NONE) || annotationType != null) {
+                return annotationType;
+            }
+        }
+        Class<? extends Annotation> annotationType = classifier.apply(beanClass);
+        record.scope = annotationType == null ? NONE : annotationType.getName();
+        snapshot.changed(record);
+        return annotationType;
+    }
+
+    /**
+     * Writes the next generation of the snapshot if anything was classified since it was read or last written. The
+     * generation is written to a temporary file and moved into place, so a boot reading it concurrently sees it whole
+     * or not at all.
+     */
+    public static void save() {
+        MetadataSnapshotFile snapshot = current;
+        if (snapshot == null || !snapshot.dirty) {
+            return;
+        }
+        synchronized (snapshot) {
+            if (!snapshot.dirty) {
+                return;
+            }
+            snapshot.dirty = false;
+            try {
+                snapshot.write();
+            } catch (IOException | RuntimeException e) {
+                log.log(System.Logger.Level.WARNING, "Could not write the bean metadata snapshot " + snapshot.file, e);
+            }
+        }
+    }
+
+    private static MetadataSnapshotFile snapshot() {
+        MetadataSnapshotFile snapshot = current;
+        if (snapshot == null && location != null) {
+            synchronized (MetadataSnapshotFile.class) {
+                snapshot = current;
+                if (snapshot == null && location != null) {
+                    snapshot = current = open(location);
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private static MetadataSnapshotFile open(Path file) {
+        byte[] hash = pathHash();
+        Path generation = latestGeneration(file);
+        if (generation == null) {
+            return new MetadataSnapshotFile(file, hash, null);
+        }
+        try (FileChannel channel = FileChannel.open(generation, StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.BIG_ENDIAN);
+            if (mapped.capacity() < HEADER_LENGTH || mapped.getInt(0) != MAGIC || mapped.getShort(4) != VERSION) {
+                log.log(System.Logger.Level.WARNING, "Ignoring the bean metadata snapshot " + generation + ", it is not a snapshot of this version");
+                return new MetadataSnapshotFile(file, hash, null);
+            }
+            byte[] written = new byte[HASH_LENGTH];
+            mapped.get(6, written);
+            if (!Arrays.equals(hash, written)) {
+                log.log(System.Logger.Level.INFO, "The module path changed since the bean metadata snapshot " + generation + " was written, it will be replaced");
+                return new MetadataSnapshotFile(file, hash, null);
+            }
+            return new MetadataSnapshotFile(file, hash, mapped);
+        } catch (IOException e) {
+            log.log(System.Logger.Level.WARNING, "Could not read the bean metadata snapshot " + generation, e);
+            return new MetadataSnapshotFile(file, hash, null);
+        }
+    }
+
+    /**
+     * Finds the generations written beside a snapshot path, by generation number.
+     */
+    private static SortedMap<Long, Path> generations(Path file) {
+        SortedMap<Long, Path> generations = new TreeMap<>();
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent == null || !Files.isDirectory(parent)) {
+            return generations;
+        }
+        Pattern name = Pattern.compile(Pattern.quote(file.getFileName().toString()) + "\\.(\\d{1,18})");
+        try (Stream<Path> siblings = Files.list(parent)) {
+            siblings.forEach(sibling -> {
+                Matcher matcher = name.matcher(sibling.getFileName().toString());
+                if (matcher.matches()) {
+                    generations.put(Long.parseLong(matcher.group(1)), sibling);
+                }
+            });
+        } catch (IOException e) {
+            log.log(System.Logger.Level.WARNING, "Could not list the bean metadata snapshots beside " + file, e);
+        }
+        return generations;
+    }
+
+    private static Path latestGeneration(Path file) {
+        SortedMap<Long, Path> generations = generations(file);
+        return generations.isEmpty() ? null : generations.get(generations.lastKey());
+    }
+
+    private void changed(ClassRecord record) {
+        changed.putIfAbsent(record.className, record);
+        dirty = true;
+    }
+
+    /**
+     * Finds the record of a class in the mapped table, or null when the class is not in the snapshot.
+     */
+    private ClassRecord decode(String className) {
+        try {
+            int mask = slots - 1;
+            for (int slot = className.hashCode() & mask, probes = 0; probes < slots; slot = (slot + 1) & mask, probes++) {
+                int position = HEADER_LENGTH + slot * 8;
+                int offset = mapped.getInt(position + 4);
+                if (offset == 0) {
+                    return null;
+                }
+                if (mapped.getInt(position) == className.hashCode() && className.equals(readString(offset))) {
+                    return readRecord(offset);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.log(System.Logger.Level.WARNING, "Corrupt bean metadata snapshot " + file + ", reflecting on " + className, e);
+        }
+        return null;
+    }
+
+    private ClassRecord readRecord(int offset) {
+        int[] position = {offset};
+        ClassRecord record = new ClassRecord(readString(position), mapped.getLong(position[0]));
+        position[0] += 8;
+        byte scope = mapped.get(position[0]++);
+        record.scope = switch (scope) {
+            case SCOPE_NONE -> NONE;
+            case SCOPE_DECLARED -> readString(position);
+            default -> null;
+        };
+        int members = mapped.getInt(position[0]);
+        position[0] += 4;
+        for (int i = 0; i < members; i++) {
+            record.members.put(readString(position), readString(position));
+        }
+        return record;
+    }
+
+    private String readString(int offset) {
+        return readString(new int[]{offset});
+    }
+
+    private String readString(int[] position) {
+        int length = Short.toUnsignedInt(mapped.getShort(position[0]));
+        byte[] bytes = new byte[length];
+        mapped.get(position[0] + 2, bytes);
+        position[0] += 2 + length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets every record of the mapped table, for rewriting the snapshot with the new ones.
+     */
+    private Map<String, ClassRecord> mappedRecords() {
+        Map<String, ClassRecord> all = new TreeMap<>();
+        if (mapped == null) {
+            return all;
+        }
+        try {
+            for (int slot = 0; slot < slots; slot++) {
+                int offset = mapped.getInt(HEADER_LENGTH + slot * 8 + 4);
+                if (offset != 0) {
+                    ClassRecord record = readRecord(offset);
+                    all.put(record.className, record);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.log(System.Logger.Level.WARNING, "Corrupt bean metadata snapshot " + file + ", only this boot's metadata will be kept", e);
+            all.clear();
+        }
+        return all;
+    }
+
+    private void write() throws IOException {
+        Map<String, ClassRecord> all = mappedRecords();
+        all.keySet().removeIf(className -> !seen.contains(className) && !exists(className));
+        all.putAll(changed);
+
+        int tableSlots = Integer.highestOneBit(Math.max(1, all.size() * 2 - 1)) << 1;
+        ByteBuffer table = ByteBuffer.allocate(tableSlots * 8);
+        ByteArrayBuilder records = new ByteArrayBuilder();
+        int base = HEADER_LENGTH + tableSlots * 8;
+        for (ClassRecord record : all.values()) {
+            int offset = base + records.size();
+            if (!records.record(record)) {
+                continue;
+            }
+            int slot = record.className.hashCode() & (tableSlots - 1);
+            while (table.getInt(slot * 8 + 4) != 0) {
+                slot = (slot + 1) & (tableSlots - 1);
+            }
+            table.putInt(slot * 8, record.className.hashCode());
+            table.putInt(slot * 8 + 4, offset);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.putInt(MAGIC).putShort((short) VERSION).put(hash).putInt(all.size()).putInt(tableSlots);
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        SortedMap<Long, Path> previous = generations(file);
+        Path generation = file.resolveSibling(file.getFileName() + "." + (previous.isEmpty() ? 1 : previous.lastKey() + 1));
+        Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                out.write(header.array());
+                out.write(table.array());
+                records.writeTo(out);
+            }
+            try {
+                Files.move(temporary, generation, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, generation);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        for (Path older : previous.values()) {
+            try {
+                Files.deleteIfExists(older);
+            } catch (IOException e) {
+                // Still mapped by this or another boot, deleted by a later save
+                log.log(System.Logger.Level.DEBUG, "Could not delete the older bean metadata snapshot {0} yet", older);
+            }
+        }
+        log.log(System.Logger.Level.DEBUG, "Wrote the metadata of " + all.size() + " classes to " + generation);
+    }
+
+    /**
+     * Identifies a member within its declaring class, or returns null for members that are not snapshotted.
+     */
+    private static String memberKey(AnnotatedElement member) {
+        if (member instanceof Field field) {
+            return field.getName();
+        }
+        if (member instanceof Executable executable && !executable.isSynthetic()
+                && !(executable instanceof java.lang.reflect.Method method && method.isBridge())) {
+            StringBuilder key = new StringBuilder(executable instanceof Constructor<?> ? "<init>" : executable.getName()).append('(');
+            Class<?>[] parameterTypes = executable.getParameterTypes();
+            for (int i = 0; i < parameterTypes.length; i++) {
+                key.append(i == 0 ? "" : ",").append(parameterTypes[i].getName());
+            }
+            return key.append(')').toString();
+        }
+        return null;
+    }
+
+    /**
+     * Classes with names that change between runs, such as lambdas and generated proxies, are never recorded.
+     */
+    private static boolean recordable(Class<?> type) {
+        return !type.isHidden() && !type.isPrimitive() && !type.isArray() && !type.getName().contains("$$");
+    }
+
+    /**
+     * Checks whether the class of a record not asked about on this boot still has a class file, so the records of
+     * deleted classes are dropped rather than carried from one generation to the next.
+     */
+    private static boolean exists(String className) {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            loader = MetadataSnapshotFile.class.getClassLoader();
+        }
+        String resource = className.replace('.', '/') + ".class";
+        return loader == null ? ClassLoader.getSystemResource(resource) != null : loader.getResource(resource) != null;
+    }
+
+    /**
+     * Hashes the module path and class path entries, with the size and modification time of each jar. Exploded
+     * directories are not walked, their classes are stamped one by one instead.
+     */
+    private static byte[] pathHash() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((VERSION + ";" + Runtime.version()).getBytes(StandardCharsets.UTF_8));
+            for (String property : List.of("jdk.module.path", "java.class.path")) {
+                String path = System.getProperty(property, "");
+                for (String entry : path.split(File.pathSeparator)) {
+                    if (!entry.isBlank()) {
+                        digest.update((";" + entry + ";" + fingerprint(Path.of(entry))).getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Gets the size and modification time of a jar, or {@link #DIRECTORY} for an exploded directory.
+     */
+    private static long fingerprint(Path entry) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+            return attributes.isDirectory() ? DIRECTORY : attributes.lastModifiedTime().toMillis() * 31 + attributes.size();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Stamps a class with the size and modification time of the jar it is loaded from, or of its class file when it
+     * is loaded from an exploded directory, so a class that was rebuilt is classified again. Jars are stamped once,
+     * and classes without a file location are stamped 0.
+     */
+    private long stamp(Class<?> type) {
+        try {
+            CodeSource source = type.getProtectionDomain().getCodeSource();
+            URL location = source == null ? null : source.getLocation();
+            if (location == null || !"file".equals(location.getProtocol())) {
+                return 0;
+            }
+            Path root = Path.of(location.toURI());
+            long stamp = locations.computeIfAbsent(location, url -> fingerprint(root));
+            return stamp == DIRECTORY ? fingerprint(root.resolve(type.getName().replace('.', '/') + ".class")) : stamp;
+        } catch (URISyntaxException | RuntimeException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * The recorded metadata of one class.
+     */
+    private static final class ClassRecord {
+        private final String className;
+        /**
+         * The stamp of the jar or class file the class was loaded from, or 0.
+         */
+        private final long stamp;
+        /**
+         * The declared scope annotation name, {@link #NONE}, or null when not classified yet.
+         */
+        private volatile String scope;
+        /**
+         * The injection point annotation name, or {@link #NONE}, by member key.
+         */
+        private final Map<String, String> members = new ConcurrentHashMap<>();
+        /**
+         * The annotation types the recorded names resolved to, or {@link #UNRESOLVED}, so each name is loaded once.
+         */
+        private final Map<String, Class<?>> resolved = new ConcurrentHashMap<>();
+
+        private ClassRecord(String className, long stamp) {
+            this.className = className;
+            this.stamp = stamp;
+        }
+
+        /**
+         * Resolves a recorded annotation name through the loader of the recorded class, or returns null for
+         * {@link #NONE} and names that are no longer annotation types.
+         */
+        @SuppressWarnings("unchecked")
+        private Class<? extends Annotation> resolve(String name, Class<?> context) {
+            if (name.equals(NONE)) {
+                return null;
+            }
+            Class<?> type = resolved.get(name);
+            if (type == null) {
+                type = resolved.computeIfAbsent(name, recorded -> {
+                    try {
+                        Class<?> found = Class.forName(recorded, false, context.getClassLoader());
+                        return found.isAnnotation() ? found : UNRESOLVED;
+                    } catch (ClassNotFoundException | LinkageError e) {
+                        return UNRESOLVED;
+                    }
+                });
+            }
+            return type == UNRESOLVED ? null : (Class<? extends Annotation>) type;
+        }
+    }
+
+    /**
+     * Accumulates the encoded records of a snapshot.
+     */
+    private static final class ByteArrayBuilder extends java.io.ByteArrayOutputStream {
+
+        /**
+         * Encodes a record, or returns false without writing when a name is too long to encode.
+         */
+        boolean record(ClassRecord record) {
+            List<String> strings = new ArrayList<>();
+            strings.add(record.className);
+            String scope = record.scope;
+            if (scope != null && !scope.equals(NONE)) {
+                strings.add(scope);
+            }
+            Map<String, String> members = new TreeMap<>(record.members);
+            members.forEach((key, value) -> {
+                strings.add(key);
+                strings.add(value);
+            });
+            for (String string : strings) {
+                if (string.getBytes(StandardCharsets.UTF_8).length > 0xFFFF) {
+                    return false;
+                }
+            }
+            string(record.className);
+            writeLong(record.stamp);
+            if (scope == null) {
+                write(SCOPE_UNKNOWN);
+            } else if (scope.equals(NONE)) {
+                write(SCOPE_NONE);
+            } else {
+                write(SCOPE_DECLARED);
+                string(scope);
+            }
+            writeInt(members.size());
+            members.forEach((key, value) -> {
+                string(key);
+                string(value);
+            });
+            return true;
+        }
+
+        private void string(String string) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            write(bytes.length >>> 8);
+            write(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        private void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        private void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+    }
+}
@@ -3,6 +3,7 @@ import com.google.inject.gee.InjectionPointProvider;
 import com.guicedee.cdi.GuiceCDIModule;
 import com.guicedee.cdi.GuiceCDIProviderImpl;
 import com.guicedee.cdi.ICDIProvider;
+import com.guicedee.cdi.ITransactionSynchronizer;
 import com.guicedee.cdi.implementations.*;
 import com.guicedee.client.services.lifecycle.IGuiceModule;
 
@@ -11,6 +12,7 @@ module com.guicedee.cdi {
     requires transitive com.guicedee.client;
     requires jakarta.cdi;
     requires jakarta.el;
+    requires static java.compiler;
 
     provides ICDIProvider with GuiceCDIProviderImpl;
     provides IGuiceModule with GuiceCDIModule;
@@ -23,4 +25,5 @@ module com.guicedee.cdi {
 
 
     uses ICDIProvider;
+    uses ITransactionSynchronizer;
 }
@@ -0,0 +1,111 @@
+package com.guicedee.cdi.tests;
+
+import com.google.inject.gee.InjectionPointProvider;
+import com.google.inject.gee.InjectorAnnotationsProvider;
+import com.google.inject.gee.NamedAnnotationProvider;
+import com.google.inject.name.Names;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for the annotation provisions Guice asks about CDI annotations, and the injection point cache behind them.
+ */
+public class AnnotationProvisionTest {
+
+    private final InjectionPointProvider injectionPoints = ServiceLoader.load(InjectionPointProvider.class).findFirst().orElseThrow();
+
+    @Test
+    public void testInjectionPointsCached() throws Exception {
+        // Each lookup gets a fresh copy of the field, and the copies share one cached classification
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Inject.class, injectionPoints.injectionPoint(Sample.class.getDeclaredField("injected")));
+            assertEquals(Named.class, injectionPoints.injectionPoint(Sample.class.getDeclaredField("named")));
+            assertEquals(Inject.class, injectionPoints.injectionPoint(Sample.class.getDeclaredField("both")),
+                    "@Inject should be preferred over @Named");
+            assertEquals(PostConstruct.class, injectionPoints.injectionPoint(Sample.class.getDeclaredMethod("init")));
+            assertNull(injectionPoints.injectionPoint(Sample.class.getDeclaredField("plain")),
+                    "Members that are not injection points should be cached as such");
+        }
+        // Elements that are not members are classified without being cached
+        assertNull(injectionPoints.injectionPoint(Sample.class));
+    }
+
+    @Test
+    public void testNamedAndInjectorAnnotations() throws Exception {
+        NamedAnnotationProvider named = ServiceLoader.load(NamedAnnotationProvider.class).findFirst().orElseThrow();
+        Named value = Sample.class.getDeclaredField("named").getAnnotation(Named.class);
+        assertEquals(Names.named("sample"), named.getNamedAnnotation(value));
+        assertEquals(Names.named("bindable"), named.getNamedAnnotation(Named.class));
+        assertNull(named.getNamedAnnotation(Inject.class));
+
+        InjectorAnnotationsProvider injector = ServiceLoader.load(InjectorAnnotationsProvider.class).findFirst().orElseThrow();
+        assertTrue(injector.isInjectorAnnotation(Inject.class));
+        assertFalse(injector.isInjectorAnnotation(Named.class));
+    }
+
+    @Test
+    public void testCachedInjectionPointsDoNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        List<AnnotatedElement> all = new ArrayList<>(List.of(Sample.class.getDeclaredFields()));
+        all.addAll(List.of(Sample.class.getDeclaredMethods()));
+        AnnotatedElement[] members = all.toArray(AnnotatedElement[]::new);
+        int passes = 10_000;
+        // Classify every member once, so each lookup below is a hit
+        assertEquals(4, lookup(members, 1));
+
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        int found = lookup(members, passes);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // A hit is a map lookup, reading the declared annotations again would copy them on every pass
+        assertEquals(4 * passes, found);
+        assertTrue(allocated < passes, "Cached lookups allocated " + allocated + " bytes for " + passes + " passes");
+    }
+
+    /**
+     * Counts the injection points found over passes of the members through the injection point provision.
+     */
+    private int lookup(AnnotatedElement[] members, int passes) {
+        int found = 0;
+        for (int i = 0; i < passes; i++) {
+            for (AnnotatedElement member : members) {
+                if (injectionPoints.injectionPoint(member) != null) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
+    public static class Sample {
+        @Inject
+        Object injected;
+
+        @Named("sample")
+        Object named;
+
+        @Inject
+        @Named("both")
+        Object both;
+
+        Object plain;
+
+        @PostConstruct
+        void init() {
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.guicedee.cdi.tests;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.guicedee.cdi.ApplicationScope;
+import com.guicedee.cdi.GuiceCDIModule;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the client proxies of application scoped beans.
+ */
+public class ApplicationScopeTest {
+
+    static final AtomicInteger created = new AtomicInteger();
+    static final AtomicInteger constructed = new AtomicInteger();
+
+    private Injector injector;
+
+    @BeforeEach
+    public void setup() {
+        created.set(0);
+        constructed.set(0);
+        injector = Guice.createInjector(new GuiceCDIModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Catalog.class).to(HeavyCatalog.class).in(ApplicationScope.INSTANCE);
+                bind(PriceList.class).in(ApplicationScope.INSTANCE);
+                bind(Settings.class).in(ApplicationScope.INSTANCE);
+            }
+        });
+    }
+
+    @Test
+    public void testLazyInstantiation() {
+        Shop shop = injector.getInstance(Shop.class);
+        assertEquals(0, created.get(), "Injecting a proxy should not create the bean");
+        assertNotEquals(HeavyCatalog.class, shop.catalog.getClass());
+
+        assertEquals("item-3", shop.catalog.find(3));
+        assertEquals(1, created.get(), "The first call should create the bean");
+        assertEquals("item-4", injector.getInstance(Catalog.class).find(4));
+        assertEquals(1, created.get(), "Later calls should reuse it");
+        assertSame(shop.catalog, injector.getInstance(Catalog.class), "Every injection should get the same proxy");
+    }
+
+    @Test
+    public void testClassProxy() {
+        // The proxy runs the class's constructor too, so it is not created until the binding is injected
+        assertEquals(0, constructed.get(), "Creating the injector should not construct the proxy");
+        PriceList prices = injector.getInstance(PriceList.class);
+        assertNotEquals(PriceList.class, prices.getClass());
+        assertEquals(0, created.get());
+        assertEquals(1, constructed.get(), "Injecting should construct only the proxy");
+        assertSame(prices, injector.getInstance(PriceList.class));
+
+        // Primitive and wide arguments and results are passed through
+        assertEquals(30L, prices.total(3, 10L));
+        assertEquals(1.5d, prices.discount(3d, 0.5f));
+        prices.update("tea", 2);
+        assertEquals(2, prices.price("tea"));
+        assertEquals(1, created.get());
+        assertEquals(2, constructed.get(), "The first call should construct the bean");
+        assertEquals("PriceList", prices.toString(), "Object methods should be delegated");
+    }
+
+    @Test
+    public void testUnproxyableType() {
+        // Final classes cannot be proxied, and fall back to a plain singleton
+        Settings settings = injector.getInstance(Settings.class);
+        assertEquals(Settings.class, settings.getClass());
+        assertSame(settings, injector.getInstance(Settings.class));
+    }
+
+    @Test
+    public void testBeanScope() {
+        BeanManager beanManager = injector.getInstance(BeanManager.class);
+        Bean<?> bean = beanManager.resolve(beanManager.getBeans(PriceList.class));
+        assertEquals(ApplicationScoped.class, bean.getScope());
+        assertTrue(beanManager.isNormalScope(bean.getScope()));
+    }
+
+    public interface Catalog {
+        String find(int id);
+    }
+
+    public static class HeavyCatalog implements Catalog {
+        @Inject
+        void load() {
+            created.incrementAndGet();
+        }
+
+        @Override
+        public String find(int id) {
+            return "item-" + id;
+        }
+    }
+
+    public static class Shop {
+        @Inject
+        Catalog catalog;
+    }
+
+    public static class PriceList {
+        private final java.util.Map<String, Integer> prices = new java.util.HashMap<>();
+
+        public PriceList() {
+            constructed.incrementAndGet();
+        }
+
+        @Inject
+        void load() {
+            created.incrementAndGet();
+        }
+
+        public long total(int quantity, long price) {
+            return quantity * price;
+        }
+
+        public double discount(double price, float rate) {
+            return price * rate;
+        }
+
+        void update(String item, int price) {
+            prices.put(item, price);
+        }
+
+        protected int price(String item) {
+            return prices.get(item);
+        }
+
+        @Override
+        public String toString() {
+            return "PriceList";
+        }
+    }
+
+    public static final class Settings {
+    }
+}
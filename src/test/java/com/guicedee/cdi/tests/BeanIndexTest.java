@@ -0,0 +1,182 @@
+package com.guicedee.cdi.tests;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.guicedee.cdi.BeanIndexProcessor;
+import com.guicedee.cdi.GuiceCDIModule;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the build-time bean index written by {@link BeanIndexProcessor}.
+ */
+public class BeanIndexTest {
+
+    private static final Map<String, String> SOURCES = Map.of(
+            "sample/Calls.java", """
+                    package sample;
+
+                    public class Calls {
+                        public static final java.util.List<String> calls = new java.util.concurrent.CopyOnWriteArrayList<>();
+                    }
+                    """,
+            "sample/Logged.java", """
+                    package sample;
+
+                    @jakarta.interceptor.InterceptorBinding
+                    @java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+                    @java.lang.annotation.Target({java.lang.annotation.ElementType.TYPE, java.lang.annotation.ElementType.METHOD})
+                    public @interface Logged {
+                    }
+                    """,
+            "sample/LoggingInterceptor.java", """
+                    package sample;
+
+                    @Logged
+                    @jakarta.interceptor.Interceptor
+                    @jakarta.annotation.Priority(jakarta.interceptor.Interceptor.Priority.APPLICATION)
+                    public class LoggingInterceptor {
+                        @jakarta.interceptor.AroundInvoke
+                        public Object log(jakarta.interceptor.InvocationContext context) throws Exception {
+                            Calls.calls.add("log:" + context.getMethod().getName());
+                            return context.proceed();
+                        }
+                    }
+                    """,
+            "sample/Greeter.java", """
+                    package sample;
+
+                    public class Greeter {
+                        @Logged
+                        public String greet(String name) {
+                            return "hello " + name;
+                        }
+
+                        public void onGreeting(@jakarta.enterprise.event.Observes String name) {
+                            Calls.calls.add("observed:" + name);
+                        }
+
+                        public void notAnObserver(String name) {
+                            Calls.calls.add("unexpected:" + name);
+                        }
+                    }
+                    """);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testIndexedDiscovery() throws Exception {
+        Path classes = compile();
+        assertTrue(Files.size(classes.resolve("META-INF/guicedee/cdi.idx")) > 0, "The processor should write the index");
+
+        ClassLoader previous = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, getClass().getClassLoader())) {
+            Thread.currentThread().setContextClassLoader(loader);
+            Class<?> greeterClass = loader.loadClass("sample.Greeter");
+            List<String> calls = (List<String>) loader.loadClass("sample.Calls").getField("calls").get(null);
+
+            // The interceptor is enabled from the index, without being listed on the module
+            Injector injector = Guice.createInjector(new GuiceCDIModule(), new AbstractModule() {
+                @Override
+                protected void configure() {
+                    bind(greeterClass);
+                }
+            });
+            Object greeter = injector.getInstance(greeterClass);
+            assertEquals("hello index", greeterClass.getMethod("greet", String.class).invoke(greeter, "index"));
+            assertEquals(List.of("log:greet"), calls);
+
+            calls.clear();
+            injector.getInstance(BeanManager.class).getEvent().select(String.class).fire("index");
+            assertEquals(List.of("observed:index"), calls);
+
+            // Indexed classes with observers are bound just-in-time when no module binds them
+            calls.clear();
+            Injector unbound = Guice.createInjector(new GuiceCDIModule());
+            unbound.getInstance(BeanManager.class).getEvent().select(String.class).fire("unbound");
+            assertEquals(List.of("observed:unbound"), calls);
+        } finally {
+            Thread.currentThread().setContextClassLoader(previous);
+        }
+    }
+
+    @Test
+    public void testIncrementalBuildDropsDeletedClasses() throws Exception {
+        Path classes = compile();
+        String index = Files.readString(classes.resolve("META-INF/guicedee/cdi.idx"), StandardCharsets.ISO_8859_1);
+        assertTrue(index.contains("sample.LoggingInterceptor"));
+
+        // The interceptor's class file is deleted, though an older build still has it on the class path, then one
+        // class is recompiled against the output
+        Path previous = Files.createDirectories(directory.resolve("previous/sample"));
+        Files.copy(classes.resolve("sample/LoggingInterceptor.class"), previous.resolve("LoggingInterceptor.class"));
+        Files.delete(classes.resolve("sample/LoggingInterceptor.class"));
+        compile(Map.of("sample/Calls.java", SOURCES.get("sample/Calls.java")));
+        index = Files.readString(classes.resolve("META-INF/guicedee/cdi.idx"), StandardCharsets.ISO_8859_1);
+        assertTrue(index.contains("sample.Calls"));
+        assertTrue(index.contains("sample.Greeter"), "Classes that were not recompiled should keep their entries");
+        assertFalse(index.contains("sample.LoggingInterceptor"), "Deleted classes should be dropped from the index");
+    }
+
+    private Path compile() throws Exception {
+        return compile(SOURCES);
+    }
+
+    private Path compile(Map<String, String> compiled) throws Exception {
+        Path sources = Files.createDirectories(directory.resolve("src"));
+        Path classes = Files.createDirectories(directory.resolve("classes"));
+        List<File> files = new ArrayList<>();
+        for (Map.Entry<String, String> source : compiled.entrySet()) {
+            Path file = sources.resolve(source.getKey());
+            Files.createDirectories(file.getParent());
+            files.add(Files.writeString(file, source.getValue()).toFile());
+        }
+        String classpath = Stream.of(Inject.class, Event.class, Interceptor.class, Priority.class)
+                .map(BeanIndexTest::location)
+                .collect(Collectors.joining(File.pathSeparator)) + File.pathSeparator + classes + File.pathSeparator + directory.resolve("previous");
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null,
+                    List.of("-d", classes.toString(), "-classpath", classpath),
+                    null, fileManager.getJavaFileObjectsFromFiles(files));
+            task.setProcessors(List.of(new BeanIndexProcessor()));
+            assertTrue(task.call(), "The sample sources should compile");
+        }
+        return classes;
+    }
+
+    private static String location(Class<?> type) {
+        try {
+            return Path.of(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
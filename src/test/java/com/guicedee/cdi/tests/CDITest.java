@@ -1,12 +1,25 @@
 package com.guicedee.cdi.tests;
 
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
 import com.guicedee.client.IGuiceContext;
 import com.guicedee.cdi.CDI;
 import com.guicedee.cdi.GuiceCDIBeanManager;
+import com.guicedee.cdi.GuiceCDIModule;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 /**
  * Tests for the CDI utility class.
@@ -29,6 +42,78 @@ public class CDITest {
         assertSame(beanManager, beanManagerFromContext, "Bean manager instances should be the same");
     }
 
+    @Test
+    public void testGetBeanManagerIsCached() {
+        // Repeated lookups should return the same resolved bean manager
+        GuiceCDIBeanManager first = CDI.getBeanManager();
+        GuiceCDIBeanManager second = CDI.getBeanManager();
+        assertSame(first, second, "Bean manager should be resolved once and reused");
+    }
+
+    @Test
+    public void testLookupWhileInjectorIsBuilt() throws Exception {
+        GuiceCDIBeanManager contextManager = IGuiceContext.get(GuiceCDIBeanManager.class);
+        AtomicBoolean building = new AtomicBoolean(true);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // Lookups race with the configuration and creation of new injectors
+            List<Future<?>> lookups = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                lookups.add(executor.submit(() -> {
+                    while (building.get()) {
+                        assertNotNull(CDI.getBeanManager());
+                    }
+                }));
+            }
+            for (int i = 0; i < 20; i++) {
+                List<GuiceCDIBeanManager> seen = new ArrayList<>();
+                Injector injector = Guice.createInjector(new GuiceCDIModule(), new AbstractModule() {
+                    @Override
+                    protected void configure() {
+                        // Runs after every module is configured, before the injector is returned
+                        requestInjection(new Object() {
+                            @com.google.inject.Inject
+                            void lookup() {
+                                seen.add(CDI.getBeanManager());
+                            }
+                        });
+                    }
+                });
+                // The lookup made while the injector was built resolved the manager of the current context
+                assertEquals(List.of(contextManager), seen);
+                assertNotSame(injector.getInstance(GuiceCDIBeanManager.class), CDI.getBeanManager());
+            }
+            building.set(false);
+            for (Future<?> lookup : lookups) {
+                lookup.get();
+            }
+        }
+        // The manager resolved during the builds was never cached in place of the context's
+        assertSame(contextManager, CDI.getBeanManager());
+    }
+
+    @Test
+    public void testSideInjectorKeepsCache() {
+        GuiceCDIBeanManager contextManager = CDI.getBeanManager();
+        // An injector of its own, outside the Guice context, installing the CDI module
+        Injector side = Guice.createInjector(new GuiceCDIModule());
+        assertNotSame(contextManager, side.getInstance(GuiceCDIBeanManager.class));
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        int lookups = 10_000;
+        long threadId = Thread.currentThread().threadId();
+        assertSame(contextManager, CDI.getBeanManager());
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < lookups; i++) {
+            CDI.getBeanManager();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // A hit is a comparison of injectors, resolving the manager from the context again would allocate its key
+        assertTrue(allocated < lookups, "Lookups after a side injector allocated " + allocated + " bytes for " + lookups + " lookups");
+        assertSame(contextManager, CDI.getBeanManager());
+    }
+
     @Test
     public void testGetBean() {
         // Get a bean through the CDI utility class
@@ -52,8 +137,8 @@ public class CDITest {
     public void testContainsBean() {
         // Check if a bean exists through the CDI utility class
         assertTrue(CDI.containsBean(GuiceCDIBeanManager.class), "Bean manager should exist");
-        // When using Guice as the CDI provider, containsBean always returns true
-        assertTrue(CDI.containsBean(NonExistentBean.class), "When using Guice as the CDI provider, containsBean always returns true");
+        // Unbound classes are not reported, and asking does not create a just-in-time binding
+        assertFalse(CDI.containsBean(NonExistentBean.class), "Unbound bean should not exist");
     }
 
     /**
@@ -0,0 +1,269 @@
+package com.guicedee.cdi.tests;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Singleton;
+import com.guicedee.cdi.GuiceCDIModule;
+import jakarta.annotation.Priority;
+import jakarta.decorator.Decorator;
+import jakarta.decorator.Delegate;
+import jakarta.enterprise.inject.spi.BeanManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for CDI decorators bound in place of the bindings they decorate.
+ */
+public class DecoratorTest {
+
+    private Injector injector;
+    private BeanManager beanManager;
+
+    @BeforeEach
+    public void setup() {
+        injector = Guice.createInjector(GuiceCDIModule.decorate(
+                new GuiceCDIModule().decorators(MetricsDecorator.class, CachingDecorator.class),
+                new AbstractModule() {
+                    @Override
+                    protected void configure() {
+                        bind(Repository.class).to(InMemoryRepository.class);
+                        bind(Counter.class).toInstance(new Counter());
+                    }
+                }));
+        beanManager = injector.getInstance(BeanManager.class);
+    }
+
+    @Test
+    public void testDecoratorChain() {
+        Repository repository = injector.getInstance(Repository.class);
+        // The lower priority decorator wraps the higher one, which wraps the original
+        assertInstanceOf(MetricsDecorator.class, repository);
+        assertEquals("metrics(cached(find:1))", repository.find(1));
+        assertEquals("metrics(cached(find:1))", repository.find(1));
+        assertEquals(1, injector.getInstance(InMemoryRepository.class).lookups.get(), "The cache should answer repeated lookups");
+        assertEquals(2, injector.getInstance(Counter.class).calls.get(), "The decorator's own injections should be satisfied");
+    }
+
+    @Test
+    public void testDecoratedSingleton() {
+        // The original is a singleton, so the decorated chain is built once
+        assertSame(injector.getInstance(Repository.class), injector.getInstance(Repository.class));
+    }
+
+    @Test
+    public void testResolveDecorators() {
+        List<jakarta.enterprise.inject.spi.Decorator<?>> decorators = beanManager.resolveDecorators(Set.<Type>of(Repository.class));
+        assertEquals(List.of(MetricsDecorator.class, CachingDecorator.class),
+                decorators.stream().map(jakarta.enterprise.inject.spi.Decorator::getBeanClass).toList());
+        assertEquals(Repository.class, decorators.get(0).getDelegateType());
+        assertTrue(beanManager.resolveDecorators(Set.<Type>of(Counter.class)).isEmpty());
+    }
+
+    @Test
+    public void testDecoratorsAreNotBeans() {
+        // Only the decorated binding is a bean of the decorated type
+        assertEquals(1, beanManager.getBeans(Repository.class).size());
+        assertTrue(injector.getInstance(Repository.class) == injector.getInstance(BeanManager.class)
+                .getReference(beanManager.resolve(beanManager.getBeans(Repository.class)), Repository.class, null));
+    }
+
+    @Test
+    public void testStandardBootstrap() {
+        // Without decorate(...), the beans Guice constructs are decorated through interception
+        Injector standard = Guice.createInjector(new GuiceCDIModule().decorators(MetricsDecorator.class, CachingDecorator.class),
+                new AbstractModule() {
+                    @Override
+                    protected void configure() {
+                        bind(Repository.class).to(InMemoryRepository.class);
+                        bind(Counter.class).toInstance(new Counter());
+                    }
+                });
+        Repository repository = standard.getInstance(Repository.class);
+        assertEquals("metrics(cached(find:1))", repository.find(1));
+        assertEquals("metrics(cached(find:1))", repository.find(1));
+        assertEquals(1, standard.getInstance(InMemoryRepository.class).lookups.get(), "The cache should answer repeated lookups");
+        assertEquals(2, standard.getInstance(Counter.class).calls.get());
+
+        // Just-in-time beans are decorated too, each instance with its own decorators
+        assertEquals("metrics(cached(archived:2))", standard.getInstance(ArchiveRepository.class).find(2));
+        assertEquals("metrics(cached(archived:3))", standard.getInstance(ArchiveRepository.class).find(3));
+    }
+
+    @Test
+    public void testInterceptedDecoratorsCreatedWithInstance() {
+        Injector standard = Guice.createInjector(new GuiceCDIModule().decorators(ScalingDecorator.class), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Tally.class).to(PlainTally.class);
+            }
+        });
+        int created = ScalingDecorator.created.get();
+        Tally tally = standard.getInstance(Tally.class);
+        assertEquals(created + 1, ScalingDecorator.created.get(), "The decorators should be created as the instance is injected");
+        // The decorator's last call to its delegate is one the bean does not intercept, which must not skip the next decoration
+        assertEquals(10, tally.next());
+        assertEquals(20, tally.next());
+        assertEquals(created + 1, ScalingDecorator.created.get(), "The decorators should be reused by every call");
+    }
+
+    @Test
+    public void testAbstractDecorator() {
+        Injector standard = Guice.createInjector(new GuiceCDIModule().decorators(PoliteDecorator.class), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Greeter.class).to(PlainGreeter.class);
+            }
+        });
+        Greeter greeter = standard.getInstance(Greeter.class);
+        assertEquals("Dear hello Ann", greeter.greet("Ann"), "The decorator's own method should wrap the delegate");
+        assertEquals("bye Ann", greeter.farewell("Ann"), "The generated method should call the delegate");
+
+        Greeter decorated = Guice.createInjector(GuiceCDIModule.decorate(new GuiceCDIModule().decorators(PoliteDecorator.class),
+                new AbstractModule() {
+                    @Override
+                    protected void configure() {
+                        bind(Greeter.class).to(PlainGreeter.class);
+                    }
+                })).getInstance(Greeter.class);
+        assertInstanceOf(PoliteDecorator.class, decorated);
+        assertEquals("Dear hello Bo", decorated.greet("Bo"));
+        assertEquals("bye Bo", decorated.farewell("Bo"));
+    }
+
+    public interface Repository {
+        String find(int id);
+    }
+
+    public static class ArchiveRepository implements Repository {
+        @Override
+        public String find(int id) {
+            return "archived:" + id;
+        }
+    }
+
+    public interface Greeter {
+        String greet(String name);
+
+        String farewell(String name);
+    }
+
+    public static class PlainGreeter implements Greeter {
+        @Override
+        public String greet(String name) {
+            return "hello " + name;
+        }
+
+        @Override
+        public String farewell(String name) {
+            return "bye " + name;
+        }
+    }
+
+    @Decorator
+    @Priority(5)
+    public abstract static class PoliteDecorator implements Greeter {
+        @Inject
+        @Delegate
+        Greeter delegate;
+
+        @Override
+        public String greet(String name) {
+            return "Dear " + delegate.greet(name);
+        }
+    }
+
+    public interface Tally {
+        int next();
+    }
+
+    public static class PlainTally implements Tally {
+        private int count;
+
+        @Override
+        public int next() {
+            return ++count;
+        }
+    }
+
+    @Decorator
+    @Priority(1)
+    public static class ScalingDecorator implements Tally {
+        static final AtomicInteger created = new AtomicInteger();
+
+        @Inject
+        @Delegate
+        Tally delegate;
+
+        public ScalingDecorator() {
+            created.incrementAndGet();
+        }
+
+        @Override
+        public int next() {
+            int next = delegate.next() * 10;
+            assertNotNull(delegate.toString());
+            return next;
+        }
+    }
+
+    public static class Counter {
+        final AtomicInteger calls = new AtomicInteger();
+    }
+
+    @Singleton
+    public static class InMemoryRepository implements Repository {
+        final AtomicInteger lookups = new AtomicInteger();
+
+        @Override
+        public String find(int id) {
+            lookups.incrementAndGet();
+            return "find:" + id;
+        }
+    }
+
+    @Decorator
+    @Priority(10)
+    public static class MetricsDecorator implements Repository {
+        @Inject
+        @Delegate
+        Repository delegate;
+
+        @Inject
+        Counter counter;
+
+        @Override
+        public String find(int id) {
+            counter.calls.incrementAndGet();
+            return "metrics(" + delegate.find(id) + ")";
+        }
+    }
+
+    @Decorator
+    @Priority(20)
+    public static class CachingDecorator implements Repository {
+        private final Repository delegate;
+        private String cached;
+
+        @Inject
+        public CachingDecorator(@Delegate Repository delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String find(int id) {
+            if (cached == null) {
+                cached = "cached(" + delegate.find(id) + ")";
+            }
+            return cached;
+        }
+    }
+}
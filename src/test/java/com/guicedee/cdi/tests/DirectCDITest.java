@@ -85,8 +85,22 @@ public class DirectCDITest {
         // Check if a bean exists through the bean manager
         assertTrue(beanManager.containsBean(GuiceCDIBeanManager.class), "Bean manager should exist");
 
-        // When using Guice as the CDI provider, containsBean always returns true
-        assertTrue(beanManager.containsBean(NonExistentBean.class), "When using Guice as the CDI provider, containsBean always returns true");
+        // Unbound classes are not reported, and asking does not create a just-in-time binding
+        assertFalse(beanManager.containsBean(NonExistentBean.class), "Unbound bean should not exist");
+        assertNull(injector.getExistingBinding(Key.get(NonExistentBean.class)), "No just-in-time binding should be created");
+    }
+
+    @Test
+    public void testLegacyContainsBean() {
+        GuiceCDIBeanManager beanManager = injector.getInstance(GuiceCDIBeanManager.class);
+
+        // Legacy mode reports every class as present
+        GuiceCDIBeanManager.setLegacyContainsBean(true);
+        try {
+            assertTrue(beanManager.containsBean(NonExistentBean.class), "Legacy mode should always return true");
+        } finally {
+            GuiceCDIBeanManager.setLegacyContainsBean(false);
+        }
     }
 
     /**
@@ -0,0 +1,313 @@
+package com.guicedee.cdi.tests;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.name.Names;
+import com.guicedee.cdi.GuiceCDIModule;
+import com.guicedee.cdi.GuiceCDIProvider;
+import com.guicedee.cdi.ICDIProvider;
+import com.guicedee.client.IGuiceContext;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.inject.Alternative;
+import jakarta.enterprise.inject.AmbiguousResolutionException;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.literal.NamedLiteral;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.enterprise.util.AnnotationLiteral;
+import jakarta.enterprise.util.TypeLiteral;
+import jakarta.inject.Qualifier;
+import jakarta.inject.Singleton;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Jakarta BeanManager adapter.
+ */
+public class GuiceCDIBeanManagerAdapterTest {
+
+    @BeforeAll
+    public static void setup() {
+        TestContextInitializer.ensureInitialized();
+    }
+
+    @Test
+    public void testGetBeansWithQualifier() {
+        BeanManager beanManager = IGuiceContext.get(BeanManager.class);
+
+        // Look up a bean by type and qualifier and obtain a reference to it
+        Set<Bean<?>> beans = beanManager.getBeans(TestBean.class, Names.named("testBean"));
+        assertEquals(1, beans.size(), "One bean should match the qualifier");
+        Bean<?> bean = beans.iterator().next();
+        TestBean reference = (TestBean) beanManager.getReference(bean, TestBean.class, beanManager.createCreationalContext(bean));
+        assertEquals("test", reference.getName(), "Bean name should match");
+        assertEquals("testBean", bean.getName(), "Bean EL name should come from @Named");
+
+        // The Jakarta @Named qualifier resolves to the same bean
+        assertEquals(beans, beanManager.getBeans(TestBean.class, NamedLiteral.of("testBean")), "Jakarta @Named should match Guice @Named");
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void testResolveAmbiguous() {
+        BeanManager beanManager = IGuiceContext.get(BeanManager.class);
+
+        // Two qualified beans without alternatives cannot be resolved
+        Set<Bean<?>> beans = beanManager.getBeans(TestBean.class, Any.Literal.INSTANCE);
+        assertThrows(AmbiguousResolutionException.class, () -> beanManager.resolve((Set) beans), "Ambiguous beans should not resolve");
+    }
+
+    @Test
+    public void testGetBeansAnyAndDefault() {
+        BeanManager beanManager = IGuiceContext.get(BeanManager.class);
+
+        // Qualified beans only match @Any, never @Default
+        assertEquals(2, beanManager.getBeans(TestBean.class, Any.Literal.INSTANCE).size(), "Both named beans should match @Any");
+        assertTrue(beanManager.getBeans(TestBean.class).isEmpty(), "Qualified beans should not match @Default");
+    }
+
+    @Test
+    public void testGetBeansParameterized() {
+        BeanManager beanManager = IGuiceContext.get(BeanManager.class);
+
+        // Parameterized bean types resolve to the generic binding
+        Type listOfStrings = new TypeLiteral<List<String>>() {}.getType();
+        Set<Bean<?>> beans = beanManager.getBeans(listOfStrings);
+        assertEquals(1, beans.size(), "One generic bean should match");
+        assertEquals(List.of("first", "second"), beanManager.getReference(beans.iterator().next(), listOfStrings,
+                beanManager.createCreationalContext(null)), "Generic reference should be resolved");
+        assertTrue(beanManager.getBeans(new TypeLiteral<List<Integer>>() {}.getType()).isEmpty(), "Type arguments should be matched");
+    }
+
+    @Test
+    public void testGetBeansByName() {
+        BeanManager beanManager = IGuiceContext.get(BeanManager.class);
+
+        // Named beans are found by name alone
+        Set<Bean<?>> beans = beanManager.getBeans("otherBean");
+        assertEquals(1, beans.size(), "One bean should have the name");
+        assertEquals(TestBean.class, beans.iterator().next().getBeanClass(), "Bean class should match");
+        assertTrue(beanManager.getBeans("missingBean").isEmpty(), "Unknown names should return no beans");
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void testResolveAlternative() {
+        Injector injector = Guice.createInjector(new GuiceCDIModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(DefaultGreeter.class);
+                bind(AlternativeGreeter.class);
+                bind(LowPriorityGreeter.class);
+            }
+        });
+        BeanManager beanManager = injector.getInstance(BeanManager.class);
+
+        // The alternative with the highest priority wins over the default bean
+        Set<Bean<? extends Greeter>> beans = Set.copyOf((Set) beanManager.getBeans(Greeter.class));
+        assertEquals(3, beans.size(), "All greeters should be found");
+        assertEquals(AlternativeGreeter.class, beanManager.resolve(beans).getBeanClass(), "Highest priority alternative should be chosen");
+        assertSame(beanManager.resolve(beans), beanManager.resolve(beans), "Resolution should be stable");
+        assertNull(beanManager.resolve(Set.of()), "Empty sets should resolve to null");
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void testDisabledAlternative() {
+        Injector injector = Guice.createInjector(new GuiceCDIModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(DefaultGreeter.class);
+                bind(DisabledGreeter.class);
+            }
+        });
+        BeanManager beanManager = injector.getInstance(BeanManager.class);
+
+        // An alternative without @Priority is not enabled, so the default bean is not ambiguous with it
+        Set<Bean<? extends Greeter>> beans = Set.copyOf((Set) beanManager.getBeans(Greeter.class));
+        assertEquals(2, beans.size(), "Both greeters should be found");
+        assertEquals(DefaultGreeter.class, beanManager.resolve(beans).getBeanClass(), "The disabled alternative should not be chosen");
+        assertEquals(DefaultGreeter.class, beanManager.resolve(beanManager.getBeans(Greeter.class)).getBeanClass());
+    }
+
+    @Test
+    public void testScopedAlias() {
+        Injector injector = Guice.createInjector(new GuiceCDIModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Greeter.class).to(DefaultGreeter.class).in(Singleton.class);
+            }
+        });
+        BeanManager beanManager = injector.getInstance(BeanManager.class);
+
+        // The alias carries the scope, so the bean is the singleton rather than the unscoped implementation
+        Set<Bean<?>> beans = beanManager.getBeans(Greeter.class);
+        assertEquals(1, beans.size(), "Only the alias should be a bean");
+        Bean<?> bean = beans.iterator().next();
+        assertEquals(Singleton.class, bean.getScope(), "The bean should have the scope of the alias");
+        assertEquals(DefaultGreeter.class, bean.getBeanClass(), "Bean class should be the implementation");
+        assertEquals(beans, beanManager.getBeans(DefaultGreeter.class), "The implementation type should find the alias");
+        Greeter singleton = injector.getInstance(Greeter.class);
+        assertSame(singleton, beanManager.getReference(bean, Greeter.class, beanManager.createCreationalContext(bean)),
+                "The reference should be the scoped instance");
+        Bean<?> implementation = beanManager.resolve(beanManager.getBeans(DefaultGreeter.class));
+        assertSame(singleton, beanManager.getReference(implementation, DefaultGreeter.class, beanManager.createCreationalContext(implementation)),
+                "Looking up the implementation should return the scoped instance");
+    }
+
+    @Test
+    public void testQualifierTypeBinding() throws Exception {
+        Injector injector = Guice.createInjector(new GuiceCDIModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Greeter.class).annotatedWith(Fast.class).to(DefaultGreeter.class);
+            }
+        });
+        BeanManager beanManager = injector.getInstance(BeanManager.class);
+
+        // A key bound to the qualifier type alone is qualified with the qualifier, not only with @Any
+        Set<Bean<?>> beans = beanManager.getBeans(Greeter.class, new Fast.Literal());
+        assertEquals(1, beans.size(), "The qualifier type binding should match its qualifier");
+        Annotation declared = QualifiedField.class.getDeclaredField("greeter").getAnnotation(Fast.class);
+        assertEquals(beans, beanManager.getBeans(Greeter.class, declared), "A declared qualifier should match");
+        Bean<?> bean = beans.iterator().next();
+        assertTrue(bean.getQualifiers().contains(declared), "The bean qualifiers should contain the qualifier");
+        assertTrue(bean.getQualifiers().contains(Any.Literal.INSTANCE), "The bean should be qualified with @Any");
+        assertFalse(beanManager.getBeans(Greeter.class).contains(bean), "The qualified binding should not match @Default");
+        assertInstanceOf(DefaultGreeter.class, beanManager.getReference(bean, Greeter.class, beanManager.createCreationalContext(bean)));
+    }
+
+    @Test
+    public void testIsMatchingBean() {
+        BeanManager beanManager = IGuiceContext.get(BeanManager.class);
+        Bean<?> bean = beanManager.getBeans(TestBean.class, Names.named("testBean")).iterator().next();
+
+        // Qualifiers are matched by containment, including the CDI form of @Named
+        assertTrue(beanManager.isMatchingBean(bean.getTypes(), bean.getQualifiers(), TestBean.class, Set.of(Names.named("testBean"))),
+                "Bean should match its own qualifier");
+        assertTrue(beanManager.isMatchingBean(bean.getTypes(), bean.getQualifiers(), Object.class, Set.of(NamedLiteral.of("testBean"), Any.Literal.INSTANCE)),
+                "Bean should match a supertype with Jakarta @Named and @Any");
+        assertFalse(beanManager.isMatchingBean(bean.getTypes(), bean.getQualifiers(), TestBean.class, Set.of()),
+                "Qualified bean should not match a @Default lookup");
+        assertFalse(beanManager.isMatchingBean(bean.getTypes(), bean.getQualifiers(), TestBean.class, Set.of(NamedLiteral.of("unknown"))),
+                "Bean should not match a qualifier no bean has");
+        assertFalse(beanManager.isMatchingBean(bean.getTypes(), bean.getQualifiers(), String.class, Set.of(Names.named("testBean"))),
+                "Bean should not match a type it does not have");
+    }
+
+    @Test
+    public void testIsMatchingBeanInterned() {
+        CountingFast qualifier = new CountingFast();
+        Injector injector = Guice.createInjector(new GuiceCDIModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Greeter.class).annotatedWith(qualifier).to(DefaultGreeter.class);
+            }
+        });
+        BeanManager beanManager = injector.getInstance(BeanManager.class);
+        Bean<?> bean = beanManager.getBeans(Greeter.class, qualifier).iterator().next();
+
+        // The bean's own qualifier set carries its mask, so matching it hashes and compares no annotation
+        int hashed = qualifier.hashed.get();
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(beanManager.isMatchingBean(bean.getTypes(), bean.getQualifiers(), Greeter.class, bean.getQualifiers()),
+                    "Bean should match its own qualifiers");
+        }
+        assertEquals(hashed, qualifier.hashed.get(), "Interned qualifier sets should not be hashed");
+        assertTrue(beanManager.isMatchingBean(bean.getTypes(), Set.copyOf(bean.getQualifiers()), Greeter.class, Set.of(new Fast.Literal())),
+                "Other sets should still match by value");
+    }
+
+    @Test
+    public void testGetBeansBySupertype() {
+        BeanManager beanManager = IGuiceContext.get(BeanManager.class);
+
+        // The interface binding resolves to the implementation class
+        Set<Bean<?>> beans = beanManager.getBeans(ICDIProvider.class);
+        assertEquals(1, beans.size(), "One provider bean should be registered");
+        assertEquals(GuiceCDIProvider.class, beans.iterator().next().getBeanClass(), "Bean class should be the implementation");
+    }
+
+    /**
+     * A qualifier bound by type alone.
+     */
+    @Qualifier
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER, ElementType.TYPE})
+    public @interface Fast {
+        /**
+         * The literal of the qualifier.
+         */
+        final class Literal extends AnnotationLiteral<Fast> implements Fast {
+        }
+    }
+
+    /**
+     * A literal of the qualifier counting how often it is hashed.
+     */
+    public static final class CountingFast extends AnnotationLiteral<Fast> implements Fast {
+        final AtomicInteger hashed = new AtomicInteger();
+
+        @Override
+        public int hashCode() {
+            hashed.incrementAndGet();
+            return super.hashCode();
+        }
+    }
+
+    /**
+     * Declares the qualifier on a field.
+     */
+    public static class QualifiedField {
+        @Fast
+        Greeter greeter;
+    }
+
+    /**
+     * A greeting service with several implementations.
+     */
+    public interface Greeter {
+    }
+
+    /**
+     * The default greeter.
+     */
+    public static class DefaultGreeter implements Greeter {
+    }
+
+    /**
+     * An alternative greeter that takes precedence.
+     */
+    @Alternative
+    @Priority(100)
+    public static class AlternativeGreeter implements Greeter {
+    }
+
+    /**
+     * An alternative greeter with a lower priority.
+     */
+    @Alternative
+    @Priority(10)
+    public static class LowPriorityGreeter implements Greeter {
+    }
+
+    /**
+     * An alternative greeter without a priority, which is never enabled.
+     */
+    @Alternative
+    public static class DisabledGreeter implements Greeter {
+    }
+}
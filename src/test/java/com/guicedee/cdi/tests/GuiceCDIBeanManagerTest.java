@@ -5,7 +5,12 @@ import com.guicedee.client.IGuiceContext;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 /**
  * Tests for the GuiceCDIBeanManager class.
@@ -34,6 +39,50 @@ public class GuiceCDIBeanManagerTest {
         assertEquals("test", retrievedBean.getName(), "Bean name should match");
     }
 
+    @Test
+    public void testGetNamedProviderIsCached() {
+        GuiceCDIBeanManager beanManager = IGuiceContext.get(GuiceCDIBeanManager.class);
+
+        // Named lookups should resolve to the same provider every time
+        assertSame(beanManager.getProvider(TestBean.class, "testBean"), beanManager.getProvider(TestBean.class, "testBean"),
+                "Named provider should be cached");
+        assertEquals("test", beanManager.getProvider(TestBean.class, "testBean").get().getName(), "Bean name should match");
+    }
+
+    @Test
+    public void testNamedLookupDoesNotAllocate() {
+        GuiceCDIBeanManager beanManager = IGuiceContext.get(GuiceCDIBeanManager.class);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        int lookups = 100_000;
+        long threadId = Thread.currentThread().threadId();
+
+        // Warm the lookup up so only the steady state is measured
+        for (int i = 0; i < lookups; i++) {
+            beanManager.getProvider(TestBean.class, "testBean");
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < lookups; i++) {
+            beanManager.getProvider(TestBean.class, "testBean");
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // The interned key and cached provider are found without allocating, building the key would allocate every time
+        assertTrue(allocated < lookups, "Cached named lookups allocated " + allocated + " bytes for " + lookups + " lookups");
+    }
+
+    @Test
+    public void testGetBeans() {
+        GuiceCDIBeanManager beanManager = IGuiceContext.get(GuiceCDIBeanManager.class);
+
+        // Every qualified binding of the type should be returned
+        Set<String> names = beanManager.getBeans(TestBean.class).stream()
+                .map(TestBean::getName)
+                .collect(Collectors.toSet());
+        assertEquals(Set.of("test", "other"), names, "All named test beans should be returned");
+    }
+
     @Test
     public void testContainsBean() {
         // Get the bean manager
@@ -0,0 +1,129 @@
+package com.guicedee.cdi.tests;
+
+import com.google.inject.name.Names;
+import com.guicedee.cdi.GuiceCDIBeanManager;
+import com.guicedee.cdi.GuicedCDI;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.util.TypeLiteral;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the GuicedCDI Jakarta CDI bridge.
+ */
+public class GuicedCDITest {
+
+    @BeforeAll
+    public static void setup() {
+        TestContextInitializer.ensureInitialized();
+    }
+
+    @Test
+    public void testSelectGet() {
+        // Select a bean by type and resolve it repeatedly through the same Instance
+        Instance<GuiceCDIBeanManager> instance = GuicedCDI.getInstance().select(GuiceCDIBeanManager.class);
+        GuiceCDIBeanManager first = instance.get();
+        assertNotNull(first, "Bean manager should not be null");
+        assertSame(first, instance.get(), "Singleton should be returned on every get");
+    }
+
+    @Test
+    public void testSelectTypeLiteral() {
+        // Select a parameterized bean through a type literal
+        Instance<List<String>> instance = GuicedCDI.getInstance().select(new TypeLiteral<List<String>>() {});
+        assertEquals(List.of("first", "second"), instance.get(), "Generic bean should be resolved");
+    }
+
+    @Test
+    public void testSelectGetWithQualifier() {
+        // Select a bean with a qualifier
+        Instance<TestBean> instance = GuicedCDI.getInstance().select(TestBean.class, Names.named("testBean"));
+        TestBean bean = instance.get();
+        assertNotNull(bean, "Bean should not be null");
+        assertEquals("test", bean.getName(), "Bean name should match");
+        assertSame(bean, instance.get(), "Instance bound bean should be returned on every get");
+    }
+
+    @Test
+    public void testIterateAllMatchingBeans() {
+        // Every @Any TestBean is iterated, not just a single default bean
+        Instance<TestBean> instance = GuicedCDI.getInstance().select(TestBean.class, Any.Literal.INSTANCE);
+        assertTrue(instance.isAmbiguous(), "Two named TestBeans should be ambiguous");
+        assertFalse(instance.isUnsatisfied(), "Two named TestBeans should satisfy the instance");
+
+        Iterator<TestBean> iterator = instance.iterator();
+        Set<String> names = new HashSet<>();
+        while (iterator.hasNext()) {
+            names.add(iterator.next().getName());
+        }
+        assertEquals(Set.of("test", "other"), names, "Both named beans should be iterated");
+
+        Set<String> streamed = instance.stream().parallel().map(TestBean::getName).collect(Collectors.toSet());
+        assertEquals(names, streamed, "Stream should cover the same beans as the iterator");
+    }
+
+    @Test
+    public void testHandles() {
+        // Handles expose the bean descriptor and resolve the instance on demand
+        Instance<TestBean> instance = GuicedCDI.getInstance().select(TestBean.class, Any.Literal.INSTANCE);
+        Set<String> names = new HashSet<>();
+        for (Instance.Handle<TestBean> handle : instance.handles()) {
+            assertNotNull(handle.getBean(), "Handle should expose its bean");
+            names.add(handle.get().getName());
+        }
+        assertEquals(Set.of("test", "other"), names, "A handle should exist for each named bean");
+
+        Instance.Handle<TestBean> handle = GuicedCDI.getInstance().select(TestBean.class, Names.named("otherBean")).getHandle();
+        assertEquals("other", handle.get().getName(), "Qualified handle should resolve the single matching bean");
+    }
+
+    @Test
+    public void testJustInTimeBean() {
+        // A type only Guice can bind just-in-time satisfies the instance without being created
+        Instance<Counted> instance = GuicedCDI.getInstance().select(Counted.class);
+        int created = Counted.created.get();
+        assertFalse(instance.isUnsatisfied(), "Guice can bind the type just-in-time");
+        assertFalse(instance.isAmbiguous(), "A single just-in-time bean is not ambiguous");
+        Instance.Handle<Counted> handle = instance.getHandle();
+        assertEquals(Counted.class, handle.getBean().getBeanClass(), "The handle should describe the just-in-time bean");
+        assertEquals(created, Counted.created.get(), "Checking and resolving the handle should not create the bean");
+        assertNotNull(handle.get(), "The handle should create the bean on demand");
+        assertEquals(1, instance.stream().count(), "The just-in-time bean should be iterated");
+
+        // Failing constructors are only reported when an instance is created
+        Instance<Failing> failing = GuicedCDI.getInstance().select(Failing.class);
+        assertFalse(failing.isUnsatisfied(), "A bean that fails to construct is still satisfied");
+        assertTrue(GuicedCDI.getInstance().select(TestBean.class, Names.named("missingBean")).isUnsatisfied(),
+                "An unbound qualifier should be unsatisfied");
+    }
+
+    /**
+     * A bean bound just-in-time that counts its instances.
+     */
+    public static class Counted {
+        static final AtomicInteger created = new AtomicInteger();
+
+        public Counted() {
+            created.incrementAndGet();
+        }
+    }
+
+    /**
+     * A bean bound just-in-time whose constructor fails.
+     */
+    public static class Failing {
+        public Failing() {
+            throw new IllegalStateException("Should not be constructed");
+        }
+    }
+}
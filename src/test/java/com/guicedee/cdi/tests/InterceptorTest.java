@@ -0,0 +1,198 @@
+package com.guicedee.cdi.tests;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Singleton;
+import com.guicedee.cdi.GuiceCDIModule;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.enterprise.inject.spi.InterceptionType;
+import jakarta.enterprise.inject.spi.Interceptor;
+import jakarta.enterprise.util.AnnotationLiteral;
+import jakarta.enterprise.util.Nonbinding;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.InterceptorBinding;
+import jakarta.interceptor.InvocationContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for CDI interceptors applied through Guice AOP.
+ */
+public class InterceptorTest {
+
+    static final List<String> calls = new CopyOnWriteArrayList<>();
+
+    private Injector injector;
+    private BeanManager beanManager;
+
+    @BeforeEach
+    public void setup() {
+        calls.clear();
+        injector = Guice.createInjector(new GuiceCDIModule().interceptors(TracingInterceptor.class, AuditInterceptor.class),
+                new AbstractModule() {
+                    @Override
+                    protected void configure() {
+                        bind(PaymentService.class);
+                        bind(TracedLedger.class);
+                        bind(PlainLedger.class);
+                    }
+                });
+        beanManager = injector.getInstance(BeanManager.class);
+    }
+
+    @Test
+    public void testInterceptorChain() {
+        PaymentService service = injector.getInstance(PaymentService.class);
+        assertEquals("paid:10", service.pay(10));
+        // Lower priorities wrap higher ones, and both run around the bean method
+        assertEquals(List.of("trace:before:pay", "audit:pay", "pay:10", "trace:after:pay"), calls);
+    }
+
+    @Test
+    public void testClassLevelBinding() {
+        PaymentService service = injector.getInstance(PaymentService.class);
+        assertEquals("refunded:5", service.refund(5));
+        // Only the class level @Traced binding applies to refund
+        assertEquals(List.of("trace:before:refund", "refund:5", "trace:after:refund"), calls);
+    }
+
+    @Test
+    public void testInheritedMethodUsesBeanClassBindings() {
+        // The same inherited method is traced for the annotated bean class only
+        assertEquals("balance", injector.getInstance(TracedLedger.class).balance());
+        assertEquals(List.of("trace:before:balance", "trace:after:balance"), calls);
+        calls.clear();
+        assertEquals("balance", injector.getInstance(PlainLedger.class).balance());
+        assertEquals(List.of(), calls);
+    }
+
+    @Test
+    public void testSetParametersAndProceedAgain() {
+        PaymentService service = injector.getInstance(PaymentService.class);
+        // The audit interceptor doubles negative amounts' absolute value and retries failures once
+        assertEquals("paid:4", service.pay(-2));
+        assertEquals("retried:ok", service.flaky());
+        assertEquals(2, service.flakyCalls);
+    }
+
+    @Test
+    public void testResolveInterceptors() {
+        List<Interceptor<?>> traced = beanManager.resolveInterceptors(InterceptionType.AROUND_INVOKE, Traced.Literal.INSTANCE);
+        assertEquals(1, traced.size());
+        assertEquals(TracingInterceptor.class, traced.get(0).getBeanClass());
+
+        List<Interceptor<?>> both = beanManager.resolveInterceptors(InterceptionType.AROUND_INVOKE, Traced.Literal.INSTANCE, Audited.Literal.INSTANCE);
+        assertEquals(List.of(TracingInterceptor.class, AuditInterceptor.class), both.stream().map(Interceptor::getBeanClass).toList(),
+                "Interceptors should be resolved in priority order");
+
+        assertTrue(beanManager.resolveInterceptors(InterceptionType.POST_CONSTRUCT, Traced.Literal.INSTANCE).isEmpty());
+        assertTrue(beanManager.isInterceptorBinding(Traced.class));
+        assertFalse(beanManager.isInterceptorBinding(Priority.class));
+    }
+
+    @InterceptorBinding
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.TYPE, ElementType.METHOD})
+    public @interface Traced {
+        @Nonbinding String value() default "";
+
+        final class Literal extends AnnotationLiteral<Traced> implements Traced {
+            public static final Literal INSTANCE = new Literal();
+
+            @Override
+            public String value() {
+                return "";
+            }
+        }
+    }
+
+    @InterceptorBinding
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.TYPE, ElementType.METHOD})
+    public @interface Audited {
+        final class Literal extends AnnotationLiteral<Audited> implements Audited {
+            public static final Literal INSTANCE = new Literal();
+        }
+    }
+
+    @Traced
+    @jakarta.interceptor.Interceptor
+    @Priority(100)
+    public static class TracingInterceptor {
+        @AroundInvoke
+        Object trace(InvocationContext context) throws Exception {
+            calls.add("trace:before:" + context.getMethod().getName());
+            Object result = context.proceed();
+            calls.add("trace:after:" + context.getMethod().getName());
+            return result;
+        }
+    }
+
+    @Audited
+    @jakarta.interceptor.Interceptor
+    @Priority(200)
+    public static class AuditInterceptor {
+        @AroundInvoke
+        public Object audit(InvocationContext context) throws Exception {
+            calls.add("audit:" + context.getMethod().getName());
+            Object[] parameters = context.getParameters();
+            if (parameters.length == 1 && parameters[0] instanceof Integer amount && amount < 0) {
+                context.setParameters(new Object[]{-amount * 2});
+            }
+            try {
+                return context.proceed();
+            } catch (IllegalStateException e) {
+                return "retried:" + context.proceed();
+            }
+        }
+    }
+
+    public static class Ledger {
+        public String balance() {
+            return "balance";
+        }
+    }
+
+    @Traced
+    public static class TracedLedger extends Ledger {
+    }
+
+    public static class PlainLedger extends Ledger {
+    }
+
+    @Singleton
+    @Traced("payments")
+    public static class PaymentService {
+        int flakyCalls;
+
+        @Audited
+        public String pay(int amount) {
+            calls.add("pay:" + amount);
+            return "paid:" + amount;
+        }
+
+        public String refund(int amount) {
+            calls.add("refund:" + amount);
+            return "refunded:" + amount;
+        }
+
+        @Audited
+        public String flaky() {
+            if (flakyCalls++ == 0) {
+                throw new IllegalStateException("first call fails");
+            }
+            return "ok";
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.guicedee.cdi.tests;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.ProvisionException;
+import com.guicedee.cdi.ApplicationScope;
+import com.guicedee.cdi.GuiceCDIModule;
+import com.guicedee.cdi.LockingSingletonScope;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the locking singleton scope under virtual thread contention.
+ */
+public class LockingSingletonScopeTest {
+
+    static final AtomicInteger created = new AtomicInteger();
+    static final AtomicInteger failures = new AtomicInteger();
+    static volatile CountDownLatch release = new CountDownLatch(0);
+
+    private Injector injector;
+
+    @BeforeEach
+    public void setup() {
+        created.set(0);
+        failures.set(0);
+        release = new CountDownLatch(0);
+        injector = Guice.createInjector(new GuiceCDIModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(ColdBean.class).in(LockingSingletonScope.INSTANCE);
+                bind(FlakyBean.class).in(LockingSingletonScope.INSTANCE);
+                bind(Registry.class).to(ColdRegistry.class).in(ApplicationScope.LOCKING);
+            }
+        });
+    }
+
+    @Test
+    public void testSingleCreationWhileLockHeld() throws Exception {
+        // The first lookup holds the binding's lock while its bean blocks in creation
+        release = new CountDownLatch(1);
+        Thread creator = Thread.ofVirtual().start(() -> injector.getInstance(ColdBean.class));
+        awaitCreated(creator);
+
+        List<Thread> waiters = new ArrayList<>();
+        List<ColdBean> instances = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            waiters.add(Thread.ofVirtual().start(() -> instances.add(injector.getInstance(ColdBean.class))));
+        }
+        try {
+            // Waiters park on the lock, unmounted from their carriers, rather than blocking on a monitor
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (waiters.stream().anyMatch(waiter -> waiter.getState() != Thread.State.WAITING) && System.nanoTime() < deadline) {
+                assertTrue(waiters.stream().noneMatch(waiter -> waiter.getState() == Thread.State.BLOCKED),
+                        "Lookups should not block on a monitor while the bean is created");
+                Thread.sleep(1);
+            }
+            assertTrue(waiters.stream().allMatch(waiter -> waiter.getState() == Thread.State.WAITING),
+                    "Every lookup should wait for the bean in creation");
+            assertTrue(instances.isEmpty());
+        } finally {
+            release.countDown();
+        }
+        creator.join();
+        for (Thread waiter : waiters) {
+            waiter.join();
+        }
+        assertEquals(1, created.get(), "The bean should be created once");
+        assertEquals(100, instances.size());
+        assertTrue(instances.stream().allMatch(instance -> instance == injector.getInstance(ColdBean.class)));
+    }
+
+    private static void awaitCreated(Thread creator) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (created.get() == 0 && creator.isAlive() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, created.get(), "The bean should be in creation");
+    }
+
+    @Test
+    public void testFailedProvisionIsRetried() {
+        assertThrows(ProvisionException.class, () -> injector.getInstance(FlakyBean.class));
+        FlakyBean bean = injector.getInstance(FlakyBean.class);
+        assertSame(bean, injector.getInstance(FlakyBean.class));
+        assertEquals(2, failures.get(), "The bean should be provided again after the failure");
+    }
+
+    @Test
+    public void testLockingApplicationScope() {
+        Registry registry = injector.getInstance(Registry.class);
+        assertEquals(0, created.get(), "Application scoped beans are still proxied");
+        assertEquals("cold", registry.name());
+        assertEquals(1, created.get());
+
+        BeanManager beanManager = injector.getInstance(BeanManager.class);
+        assertEquals(Singleton.class, beanManager.resolve(beanManager.getBeans(ColdBean.class)).getScope());
+    }
+
+    public static class ColdBean {
+        @Inject
+        void load() throws InterruptedException {
+            created.incrementAndGet();
+            release.await();
+        }
+    }
+
+    public static class FlakyBean {
+        @Inject
+        void load() {
+            if (failures.getAndIncrement() == 0) {
+                throw new IllegalStateException("Not ready yet");
+            }
+        }
+    }
+
+    public interface Registry {
+        String name();
+    }
+
+    public static class ColdRegistry implements Registry {
+        @Inject
+        void load() {
+            created.incrementAndGet();
+        }
+
+        @Override
+        public String name() {
+            return "cold";
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.guicedee.cdi.tests;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.guicedee.cdi.GuiceCDIModule;
+import com.guicedee.cdi.MetadataSnapshot;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for the bean metadata snapshot reused across restarts.
+ */
+public class MetadataSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    public void cleanup() {
+        MetadataSnapshot.setLocation(null);
+    }
+
+    @Test
+    public void testReusedAcrossBoots() throws Exception {
+        Path file = directory.resolve("metadata.snapshot");
+        MetadataSnapshot.setLocation(file);
+
+        // The first boot classifies reflectively and writes the first generation once the injector is up
+        assertEquals(RequestScoped.class, scopeOf(boot()));
+        Path written = directory.resolve("metadata.snapshot.1");
+        assertEquals(List.of(written), generations());
+        String content = Files.readString(written, StandardCharsets.ISO_8859_1);
+        assertTrue(content.contains(Consumer.class.getName()) && content.contains(RequestScoped.class.getName()),
+                "The snapshot should record the scope of the bean class");
+
+        // A restart reads the classifications back, so nothing new is classified and nothing is written
+        MetadataSnapshot.setLocation(file);
+        assertEquals(RequestScoped.class, scopeOf(boot()));
+        assertEquals(List.of(written), generations(), "A restart should not write another generation");
+    }
+
+    @Test
+    public void testInvalidatedByPathHash() throws Exception {
+        Path file = directory.resolve("metadata.snapshot");
+        MetadataSnapshot.setLocation(file);
+        boot();
+
+        // Overwrite the module path hash, as if the application had been rebuilt
+        try (FileChannel channel = FileChannel.open(directory.resolve("metadata.snapshot.1"), StandardOpenOption.WRITE)) {
+            channel.write(java.nio.ByteBuffer.wrap(new byte[32]), 6);
+        }
+        MetadataSnapshot.setLocation(file);
+        assertEquals(RequestScoped.class, scopeOf(boot()));
+        assertEquals(List.of(directory.resolve("metadata.snapshot.2")), generations(),
+                "A snapshot of another module path should be replaced by the next generation");
+
+        // The new generation is read back by the next restart
+        MetadataSnapshot.setLocation(file);
+        boot();
+        assertEquals(List.of(directory.resolve("metadata.snapshot.2")), generations());
+    }
+
+    @Test
+    public void testRecompiledClassReclassified() throws Exception {
+        URL location = Consumer.class.getProtectionDomain().getCodeSource().getLocation();
+        Path classFile = Path.of(location.toURI()).resolve(Consumer.class.getName().replace('.', '/') + ".class");
+        assumeTrue(Files.isRegularFile(classFile), "The test classes should be an exploded directory");
+
+        Path file = directory.resolve("metadata.snapshot");
+        MetadataSnapshot.setLocation(file);
+        boot();
+
+        // Touch the class file, as a recompile would, without walking the whole directory at boot
+        FileTime modified = Files.getLastModifiedTime(classFile);
+        try {
+            Files.setLastModifiedTime(classFile, FileTime.fromMillis(modified.toMillis() + 60_000));
+            MetadataSnapshot.setLocation(file);
+            assertEquals(RequestScoped.class, scopeOf(boot()));
+            assertEquals(List.of(directory.resolve("metadata.snapshot.2")), generations(),
+                    "The recompiled class should be classified again");
+        } finally {
+            Files.setLastModifiedTime(classFile, modified);
+        }
+    }
+
+    @Test
+    public void testDeletedClassPruned() throws Exception {
+        Path classes = Path.of(Consumer.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        Path consumerFile = classes.resolve(Consumer.class.getName().replace('.', '/') + ".class");
+        Path removedFile = classes.resolve(Removed.class.getName().replace('.', '/') + ".class");
+        assumeTrue(Files.isRegularFile(removedFile), "The test classes should be an exploded directory");
+
+        Path file = directory.resolve("metadata.snapshot");
+        MetadataSnapshot.setLocation(file);
+        Injector injector = Guice.createInjector(new GuiceCDIModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Consumer.class).in(com.guicedee.cdi.RequestScope.INSTANCE);
+                bind(Removed.class);
+            }
+        });
+        BeanManager beanManager = injector.getInstance(BeanManager.class);
+        assertEquals(RequestScoped.class, beanManager.resolve(beanManager.getBeans(Removed.class)).getScope());
+        assertTrue(Files.readString(directory.resolve("metadata.snapshot.1"), StandardCharsets.ISO_8859_1).contains(Removed.class.getName()));
+
+        // Delete the class and rebuild another, so the next boot writes a generation without the deleted one
+        Path aside = directory.resolve("Removed.class");
+        FileTime modified = Files.getLastModifiedTime(consumerFile);
+        Files.move(removedFile, aside);
+        try {
+            Files.setLastModifiedTime(consumerFile, FileTime.fromMillis(modified.toMillis() + 60_000));
+            MetadataSnapshot.setLocation(file);
+            assertEquals(RequestScoped.class, scopeOf(boot()));
+            Path written = directory.resolve("metadata.snapshot.2");
+            assertEquals(List.of(written), generations());
+            String content = Files.readString(written, StandardCharsets.ISO_8859_1);
+            assertTrue(content.contains(Consumer.class.getName()));
+            assertFalse(content.contains(Removed.class.getName()), "The record of the deleted class should be dropped");
+        } finally {
+            Files.move(aside, removedFile);
+            Files.setLastModifiedTime(consumerFile, modified);
+        }
+    }
+
+    private List<Path> generations() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().matches("metadata\\.snapshot\\.\\d+")).sorted().toList();
+        }
+    }
+
+    private static Injector boot() {
+        return Guice.createInjector(new GuiceCDIModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Consumer.class).in(com.guicedee.cdi.RequestScope.INSTANCE);
+            }
+        });
+    }
+
+    private static Class<? extends Annotation> scopeOf(Injector injector) {
+        BeanManager beanManager = injector.getInstance(BeanManager.class);
+        Bean<?> bean = beanManager.resolve(beanManager.getBeans(Consumer.class));
+        return bean.getScope();
+    }
+
+    @RequestScoped
+    public static class Consumer {
+        @Inject
+        Service service;
+
+        Service plain;
+    }
+
+    public static class Service {
+    }
+
+    @RequestScoped
+    public static class Removed {
+    }
+}
@@ -0,0 +1,478 @@
+package com.guicedee.cdi.tests;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+import com.google.inject.name.Names;
+import com.guicedee.cdi.Batched;
+import com.guicedee.cdi.GuiceCDIBeanManager;
+import com.guicedee.cdi.GuiceCDIModule;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.NotificationOptions;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.ObservesAsync;
+import jakarta.enterprise.event.Reception;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.Default;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.enterprise.inject.spi.EventContext;
+import jakarta.enterprise.inject.spi.ObserverMethod;
+import jakarta.enterprise.util.AnnotationLiteral;
+import jakarta.inject.Qualifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for observer method discovery and event delivery.
+ */
+public class ObserverTest {
+
+    private Injector injector;
+    private BeanManager beanManager;
+    private OrderListener listener;
+
+    @BeforeEach
+    public void setup() {
+        injector = Guice.createInjector(new GuiceCDIModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(OrderListener.class);
+                bind(String.class).annotatedWith(Names.named("region")).toInstance("emea");
+            }
+        });
+        beanManager = injector.getInstance(BeanManager.class);
+        listener = injector.getInstance(OrderListener.class);
+    }
+
+    @Test
+    public void testFireEvent() {
+        // Observers of the event class and its supertypes are notified in priority order
+        beanManager.getEvent().fire(new OrderPlaced("A1"));
+        assertEquals(List.of("first:A1", "placed:A1", "any:A1"), listener.calls, "Observers should be called in priority order");
+    }
+
+    @Test
+    public void testFireEventWithQualifier() {
+        // Qualified observers only see events fired with their qualifier
+        beanManager.getEvent().select(OrderPlaced.class, Urgent.Literal.INSTANCE).fire(new OrderPlaced("B2"));
+        assertTrue(listener.calls.contains("urgent:B2@emea"), "Qualified observer should be notified with its injected parameter");
+
+        listener.calls.clear();
+        beanManager.getEvent().fire(new OrderPlaced("C3"));
+        assertFalse(listener.calls.contains("urgent:C3@emea"), "Qualified observer should not see unqualified events");
+    }
+
+    @Test
+    public void testResolveObserverMethods() {
+        // Resolution reports the matching observers in notification order
+        Set<ObserverMethod<? super OrderPlaced>> observers = beanManager.resolveObserverMethods(new OrderPlaced("D4"));
+        assertEquals(3, observers.size(), "Three observers should match an unqualified event");
+        assertEquals(10, observers.iterator().next().getPriority(), "Lowest priority value should come first");
+        assertEquals(OrderListener.class, observers.iterator().next().getBeanClass(), "Bean class should be the listener");
+    }
+
+    @Test
+    public void testAddObserverMethod() {
+        // Resolution is memoized, and adding an observer is reflected in later resolutions and events
+        OrderPlaced event = new OrderPlaced("G7");
+        assertSame(beanManager.resolveObserverMethods(event), beanManager.resolveObserverMethods(event), "Resolution should be memoized");
+
+        List<Object> received = new CopyOnWriteArrayList<>();
+        ObserverMethod<OrderPlaced> added = new ObserverMethod<>() {
+            @Override
+            public Class<?> getBeanClass() {
+                return ObserverTest.class;
+            }
+
+            @Override
+            public Type getObservedType() {
+                return OrderPlaced.class;
+            }
+
+            @Override
+            public Set<Annotation> getObservedQualifiers() {
+                return Set.of();
+            }
+
+            @Override
+            public Reception getReception() {
+                return Reception.ALWAYS;
+            }
+
+            @Override
+            public TransactionPhase getTransactionPhase() {
+                return TransactionPhase.IN_PROGRESS;
+            }
+
+            @Override
+            public void notify(EventContext<OrderPlaced> eventContext) {
+                received.add(eventContext.getEvent());
+            }
+        };
+        injector.getInstance(GuiceCDIBeanManager.class).addObserverMethod(added);
+
+        assertTrue(beanManager.resolveObserverMethods(event).contains(added), "Added observer should be resolved");
+        beanManager.getEvent().fire(event);
+        assertEquals(List.of(event), received, "Added observer should be notified");
+    }
+
+    @Test
+    public void testBatchedFire() {
+        // Batched events reach list observers as one batch, and element observers only see the latest event
+        Event<Tick> ticks = beanManager.getEvent().select(Tick.class, Batched.Literal.of(60_000, 100_000));
+        for (int i = 0; i < 10_000; i++) {
+            ticks.fire(new Tick(i));
+        }
+        assertTrue(listener.batches.isEmpty(), "Nothing should be delivered before the window passes");
+
+        injector.getInstance(GuiceCDIBeanManager.class).flushBatchedEvents();
+        assertEquals(1, listener.batches.size(), "All ticks should be delivered as a single batch");
+        assertEquals(10_000, listener.batches.get(0).size(), "The batch should hold every tick");
+        assertEquals(0, listener.batches.get(0).get(0).value(), "The batch should keep firing order");
+        assertEquals(List.of(new Tick(9_999)), listener.latest, "Element observers should only see the latest tick");
+    }
+
+    @Test
+    public void testBatchedFireBySize() throws InterruptedException {
+        // Reaching the batch size delivers without waiting for the window
+        Event<Tick> ticks = beanManager.getEvent().select(Tick.class).select(Batched.Literal.of(60_000, 100));
+        for (int i = 0; i < 1_000; i++) {
+            ticks.fire(new Tick(i));
+        }
+        // A delivery may drain ticks counted towards the next batch, so fewer than a batch of them can be left for the
+        // window, but every full batch goes out without waiting for it
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (listener.batches.stream().mapToInt(List::size).sum() <= 900 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(listener.batches.stream().mapToInt(List::size).sum() > 900, "Full batches should be delivered before the window");
+
+        injector.getInstance(GuiceCDIBeanManager.class).flushBatchedEvents();
+        assertEquals(1_000, listener.batches.stream().mapToInt(List::size).sum(), "Every tick should be delivered");
+        assertTrue(listener.batches.stream().allMatch(batch -> batch.size() <= 100), "No batch should exceed the batch size");
+    }
+
+    @Test
+    public void testBatchesDeliveredIndependently() throws Exception {
+        Injector parking = Guice.createInjector(new GuiceCDIModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Parking.class);
+                bind(OrderListener.class);
+                bind(String.class).annotatedWith(Names.named("region")).toInstance("emea");
+            }
+        });
+        BeanManager manager = parking.getInstance(BeanManager.class);
+        OrderListener ticks = parking.getInstance(OrderListener.class);
+        Parking.release = new CountDownLatch(1);
+        Parking.batches.set(0);
+
+        // A batch whose observer blocks does not hold up the delivery of other buffers
+        manager.getEvent().select(Parked.class, Batched.Literal.of(60_000, 1)).fire(new Parked(0));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (Parking.batches.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, Parking.batches.get(), "The blocking observer should have received its batch");
+
+        long started = System.nanoTime();
+        Event<Tick> events = manager.getEvent().select(Tick.class, Batched.Literal.of(10, 1_000));
+        for (int i = 0; i < 100; i++) {
+            events.fire(new Tick(i));
+        }
+        while (ticks.batches.stream().mapToInt(List::size).sum() < 100 && System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5)) {
+            Thread.sleep(5);
+        }
+        long elapsed = System.nanoTime() - started;
+        Parking.release.countDown();
+        assertEquals(100, ticks.batches.stream().mapToInt(List::size).sum(), "Ticks should be delivered while another batch is blocked");
+        assertTrue(elapsed < TimeUnit.SECONDS.toNanos(5), "Ticks should be delivered within their window, took " + elapsed / 1_000_000 + "ms");
+    }
+
+    @Test
+    public void testIsMatchingEvent() {
+        // Observed qualifiers must all be present on the event, and unqualified events carry @Default
+        assertTrue(beanManager.isMatchingEvent(OrderPlaced.class, Set.of(Urgent.Literal.INSTANCE), Record.class, Set.of(Urgent.Literal.INSTANCE)),
+                "Qualified event should match a qualified supertype observer");
+        assertTrue(beanManager.isMatchingEvent(OrderPlaced.class, Set.of(), OrderPlaced.class, Set.of(Default.Literal.INSTANCE)),
+                "Unqualified event should match a @Default observer");
+        assertFalse(beanManager.isMatchingEvent(OrderPlaced.class, Set.of(), OrderPlaced.class, Set.of(Urgent.Literal.INSTANCE)),
+                "Unqualified event should not match a qualified observer");
+        assertFalse(beanManager.isMatchingEvent(OrderPlaced.class, Set.of(Urgent.Literal.INSTANCE), OrderShipped.class, Set.of()),
+                "Event should not match an unrelated observed type");
+    }
+
+    @Test
+    public void testFireAsync() throws Exception {
+        // Asynchronous observers run on virtual threads and the stage completes with the event
+        OrderShipped event = new OrderShipped("E5");
+        OrderShipped delivered = beanManager.getEvent().select(OrderShipped.class).fireAsync(event)
+                .toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertSame(event, delivered, "Stage should complete with the fired event");
+        assertTrue(listener.calls.contains("shipped:E5:virtual"), "Async observer should run on a virtual thread");
+        assertTrue(listener.calls.contains("audited:E5"), "Every async observer should be notified");
+        assertFalse(listener.calls.contains("placed:E5"), "Synchronous observers should not see async events");
+    }
+
+    @Test
+    public void testFireAsyncWithExecutor() throws Exception {
+        // An executor given in the notification options replaces the virtual thread executor
+        AtomicInteger executions = new AtomicInteger();
+        Executor executor = command -> {
+            executions.incrementAndGet();
+            command.run();
+        };
+        beanManager.getEvent().select(OrderShipped.class).fireAsync(new OrderShipped("F6"), NotificationOptions.ofExecutor(executor))
+                .toCompletableFuture().get(10, TimeUnit.SECONDS);
+        assertEquals(2, executions.get(), "Each async observer should run on the given executor");
+        assertTrue(listener.calls.contains("shipped:F6:platform"), "Observer should run on the executor's thread");
+    }
+
+    @Test
+    public void testFireAsyncFailure() throws Exception {
+        // A failing observer does not stop the others, and its exception is reported as suppressed
+        Throwable failure = beanManager.getEvent().select(OrderShipped.class).fireAsync(new OrderShipped("fail"))
+                .handle((event, error) -> error)
+                .toCompletableFuture().get(10, TimeUnit.SECONDS);
+        CompletionException completion = assertInstanceOf(CompletionException.class, failure, "Failure should be a CompletionException");
+        assertEquals(1, completion.getSuppressed().length, "The observer exception should be suppressed");
+        assertInstanceOf(IllegalStateException.class, completion.getSuppressed()[0], "Suppressed exception should come from the observer");
+        assertTrue(listener.calls.contains("audited:fail"), "Other observers should still be notified");
+    }
+
+    @Test
+    public void testFireAsyncDoesNotBlock() throws Exception {
+        Injector parking = Guice.createInjector(new GuiceCDIModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Parking.class);
+            }
+        });
+        Event<Parked> events = parking.getInstance(BeanManager.class).getEvent().select(Parked.class);
+        Parking.release = new CountDownLatch(1);
+
+        // Firing more events than there are permits returns at once, the rest wait without a thread
+        List<CompletableFuture<Parked>> stages = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int i = 0; i < 1_000; i++) {
+            stages.add(events.fireAsync(new Parked(i)).toCompletableFuture());
+        }
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5), "Firing should not wait for observers");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (Parking.running.get() < 256 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(256, Parking.running.get(), "Only the permitted observers should run");
+
+        Parking.release.countDown();
+        CompletableFuture.allOf(stages.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+        assertEquals(256, Parking.peak.get(), "No more observers than permits should have run at once");
+        assertEquals(0, Parking.running.get(), "Every observer should have completed");
+    }
+
+    @Test
+    public void testConditionalObserver() {
+        Injector conditional = Guice.createInjector(new GuiceCDIModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Inventory.class);
+            }
+        });
+        BeanManager manager = conditional.getInstance(BeanManager.class);
+        Inventory.created.set(0);
+
+        // An IF_EXISTS observer is neither notified nor created before its bean exists
+        manager.getEvent().fire(new OrderPlaced("H8"));
+        assertEquals(0, Inventory.created.get(), "The conditional observer should not create its bean");
+
+        Inventory inventory = conditional.getInstance(Inventory.class);
+        manager.getEvent().fire(new OrderPlaced("I9"));
+        assertEquals(List.of("reserved:I9"), inventory.calls, "The conditional observer should be notified once its bean exists");
+    }
+
+    @Test
+    public void testTransactionalObserver() {
+        Injector transactional = Guice.createInjector(new GuiceCDIModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Inventory.class);
+            }
+        });
+        BeanManager manager = transactional.getInstance(BeanManager.class);
+        Inventory inventory = transactional.getInstance(Inventory.class);
+
+        // Without a transaction, transactional observers are notified immediately
+        manager.getEvent().fire(new OrderShipped("J1"));
+        assertEquals(List.of("committed:J1"), inventory.calls, "Observer should be notified without a transaction");
+
+        // Within a transaction, they are deferred to its phase
+        inventory.calls.clear();
+        TestTransactions.begin();
+        manager.getEvent().fire(new OrderShipped("K2"));
+        assertTrue(inventory.calls.isEmpty(), "Observer should wait for the transaction to complete");
+        TestTransactions.commit();
+        assertEquals(List.of("committed:K2"), inventory.calls, "Observer should be notified after the transaction succeeded");
+    }
+
+    @Test
+    public void testFireNull() {
+        // A null event is rejected as CDI requires, not with a NullPointerException
+        assertThrows(IllegalArgumentException.class, () -> beanManager.getEvent().fire(null));
+        assertThrows(IllegalArgumentException.class, () -> beanManager.getEvent().fireAsync(null));
+        assertThrows(IllegalArgumentException.class, () -> beanManager.getEvent().fireAsync(null, NotificationOptions.of("key", "value")));
+        assertThrows(IllegalArgumentException.class, () -> beanManager.resolveObserverMethods(null));
+    }
+
+    /**
+     * An event fired when an order is placed.
+     */
+    public record OrderPlaced(String id) {
+    }
+
+    /**
+     * An event fired asynchronously when an order is shipped.
+     */
+    public record OrderShipped(String id) {
+    }
+
+    /**
+     * An event whose asynchronous observer waits to be released.
+     */
+    public record Parked(int value) {
+    }
+
+    /**
+     * A high-frequency event delivered in batches.
+     */
+    public record Tick(int value) {
+    }
+
+    /**
+     * A qualifier for urgent orders.
+     */
+    @Qualifier
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.PARAMETER, ElementType.FIELD, ElementType.METHOD, ElementType.TYPE})
+    public @interface Urgent {
+        /**
+         * The literal instance of the qualifier.
+         */
+        final class Literal extends AnnotationLiteral<Urgent> implements Urgent {
+            public static final Literal INSTANCE = new Literal();
+        }
+    }
+
+    /**
+     * A bean observing order events.
+     */
+    @Singleton
+    public static class OrderListener {
+        final List<String> calls = new CopyOnWriteArrayList<>();
+        final List<List<Tick>> batches = new CopyOnWriteArrayList<>();
+        final List<Tick> latest = new CopyOnWriteArrayList<>();
+
+        void onPlaced(@Observes OrderPlaced event) {
+            calls.add("placed:" + event.id());
+        }
+
+        private void onPlacedFirst(@Observes @Priority(10) OrderPlaced event) {
+            calls.add("first:" + event.id());
+        }
+
+        void onAnything(@Observes @Priority(5000) Record event) {
+            if (event instanceof OrderPlaced placed) {
+                calls.add("any:" + placed.id());
+            }
+        }
+
+        void onUrgent(@Observes @Urgent OrderPlaced event, @Named("region") String region) {
+            calls.add("urgent:" + event.id() + "@" + region);
+        }
+
+        void onShipped(@ObservesAsync OrderShipped event) {
+            if ("fail".equals(event.id())) {
+                throw new IllegalStateException("Shipping failed");
+            }
+            calls.add("shipped:" + event.id() + ":" + (Thread.currentThread().isVirtual() ? "virtual" : "platform"));
+        }
+
+        void onTicks(@Observes List<Tick> ticks) {
+            batches.add(ticks);
+        }
+
+        void onLatestTick(@Observes Tick tick) {
+            latest.add(tick);
+        }
+
+        void onAudit(@ObservesAsync OrderShipped event) {
+            calls.add("audited:" + event.id());
+        }
+    }
+
+    /**
+     * A bean with a conditional and a transactional observer.
+     */
+    @Singleton
+    public static class Inventory {
+        static final AtomicInteger created = new AtomicInteger();
+        final List<String> calls = new CopyOnWriteArrayList<>();
+
+        public Inventory() {
+            created.incrementAndGet();
+        }
+
+        void onPlaced(@Observes(notifyObserver = Reception.IF_EXISTS) OrderPlaced event) {
+            calls.add("reserved:" + event.id());
+        }
+
+        void onShipped(@Observes(during = TransactionPhase.AFTER_SUCCESS) OrderShipped event) {
+            calls.add("committed:" + event.id());
+        }
+    }
+
+    /**
+     * A bean whose asynchronous observer blocks until released, counting the observers running at once.
+     */
+    public static class Parking {
+        static final AtomicInteger running = new AtomicInteger();
+        static final AtomicInteger peak = new AtomicInteger();
+        static final AtomicInteger batches = new AtomicInteger();
+        static volatile CountDownLatch release;
+
+        void onParked(@ObservesAsync Parked event) throws InterruptedException {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                release.await();
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+
+        void onParkedBatch(@Observes List<Parked> batch) throws InterruptedException {
+            batches.incrementAndGet();
+            release.await();
+        }
+    }
+}
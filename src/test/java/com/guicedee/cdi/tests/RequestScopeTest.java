@@ -0,0 +1,254 @@
+package com.guicedee.cdi.tests;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.ProvisionException;
+import com.guicedee.cdi.GuiceCDIModule;
+import com.guicedee.cdi.RequestScope;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ContextNotActiveException;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.context.control.RequestContextController;
+import jakarta.enterprise.context.spi.Context;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the request scope and its CDI context.
+ */
+public class RequestScopeTest {
+
+    static final List<String> destroyed = new CopyOnWriteArrayList<>();
+
+    private Injector injector;
+
+    @BeforeEach
+    public void setup() {
+        destroyed.clear();
+        injector = Guice.createInjector(new GuiceCDIModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(RequestState.class).in(RequestScope.INSTANCE);
+                bind(RequestHandler.class).in(RequestScope.INSTANCE);
+                bind(Job.class);
+            }
+        });
+    }
+
+    @AfterEach
+    public void cleanup() {
+        if (RequestScope.INSTANCE.isActive()) {
+            RequestScope.INSTANCE.deactivate();
+        }
+    }
+
+    @Test
+    public void testInstancesPerRequest() {
+        assertTrue(RequestScope.INSTANCE.activate());
+        assertFalse(RequestScope.INSTANCE.activate(), "A second activation should report the active context");
+        RequestHandler handler = injector.getInstance(RequestHandler.class);
+        assertSame(handler, injector.getInstance(RequestHandler.class));
+        assertSame(handler.state, injector.getInstance(RequestState.class));
+        RequestScope.INSTANCE.deactivate();
+
+        // Dependents are destroyed before the instances they depend on
+        assertEquals(List.of("handler", "state"), destroyed);
+
+        RequestScope.INSTANCE.activate();
+        assertNotSame(handler, injector.getInstance(RequestHandler.class));
+    }
+
+    @Test
+    public void testInactiveContext() {
+        assertFalse(RequestScope.INSTANCE.isActive());
+        ProvisionException e = assertThrows(ProvisionException.class, () -> injector.getInstance(RequestState.class));
+        assertInstanceOf(ContextNotActiveException.class, e.getCause());
+        assertThrows(ContextNotActiveException.class, RequestScope.INSTANCE::deactivate);
+    }
+
+    @Test
+    public void testRequestContextController() {
+        RequestContextController controller = injector.getInstance(RequestContextController.class);
+        assertTrue(controller.activate());
+        RequestState state = injector.getInstance(RequestState.class);
+
+        // A nested controller leaves the context it did not activate alone
+        RequestContextController nested = injector.getInstance(RequestContextController.class);
+        assertFalse(nested.activate());
+        nested.deactivate();
+        assertSame(state, injector.getInstance(RequestState.class));
+
+        controller.deactivate();
+        assertFalse(RequestScope.INSTANCE.isActive());
+        assertEquals(List.of("state"), destroyed);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCdiContext() {
+        BeanManager beanManager = injector.getInstance(BeanManager.class);
+        assertTrue(beanManager.isNormalScope(RequestScoped.class));
+        assertThrows(ContextNotActiveException.class, () -> beanManager.getContext(RequestScoped.class));
+
+        RequestScope.INSTANCE.activate();
+        Context context = beanManager.getContext(RequestScoped.class);
+        Bean<RequestState> bean = (Bean<RequestState>) beanManager.resolve(beanManager.getBeans(RequestState.class));
+        assertEquals(RequestScoped.class, bean.getScope());
+        assertNull(context.get(bean), "Nothing should be created before the bean is requested");
+
+        RequestState state = context.get(bean, beanManager.createCreationalContext(bean));
+        assertSame(state, injector.getInstance(RequestState.class));
+        assertSame(state, context.get(bean));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSlotsPerInjector() {
+        BeanManager beanManager = injector.getInstance(BeanManager.class);
+        Bean<RequestState> bean = (Bean<RequestState>) beanManager.resolve(beanManager.getBeans(RequestState.class));
+
+        // Building another injector with the same keys leaves the slots of this one as they were
+        Injector other = Guice.createInjector(new GuiceCDIModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(RequestHandler.class).in(RequestScope.INSTANCE);
+                bind(RequestState.class).in(RequestScope.INSTANCE);
+            }
+        });
+        RequestScope.INSTANCE.activate();
+        RequestState state = injector.getInstance(RequestState.class);
+        assertSame(state, beanManager.getContext(RequestScoped.class).get(bean));
+        assertNotSame(state, other.getInstance(RequestState.class), "Each injector should have its own instances");
+        assertSame(state, injector.getInstance(RequestState.class));
+    }
+
+    @Test
+    public void testActivateRequestContext() {
+        Job job = injector.getInstance(Job.class);
+        RequestState first = job.work();
+        assertNotNull(first);
+        assertFalse(RequestScope.INSTANCE.isActive(), "The context should end with the intercepted call");
+        assertEquals(List.of("state"), destroyed);
+        assertNotSame(first, job.work(), "Each call should run in a new request");
+
+        // An active context is used as is
+        RequestScope.INSTANCE.activate();
+        assertSame(injector.getInstance(RequestState.class), job.work());
+        assertEquals(List.of("state", "state"), destroyed);
+    }
+
+    @Test
+    public void testPropagation() throws Exception {
+        RequestScope.INSTANCE.run(() -> {
+            RequestState state = injector.getInstance(RequestState.class);
+            assertThrows(IllegalStateException.class, RequestScope.INSTANCE::deactivate);
+
+            // Virtual threads, executors and async continuations see the same request instances
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                Executor propagating = RequestScope.INSTANCE.propagating(executor);
+                assertSame(state, CompletableFuture.supplyAsync(() -> injector.getInstance(RequestState.class), propagating).join());
+                assertSame(state, CompletableFuture.supplyAsync(
+                        RequestScope.INSTANCE.propagate(() -> injector.getInstance(RequestState.class)), executor).join());
+                assertSame(state, CompletableFuture.completedFuture(1)
+                        .thenApplyAsync(i -> injector.getInstance(RequestState.class), propagating).join());
+
+                // Work that is not propagated has no request context
+                CompletableFuture<Boolean> active = CompletableFuture.supplyAsync(RequestScope.INSTANCE::isActive, executor);
+                assertFalse(active.join());
+            }
+            assertTrue(destroyed.isEmpty());
+        });
+        assertEquals(List.of("state"), destroyed);
+        assertFalse(RequestScope.INSTANCE.isActive());
+    }
+
+    @Test
+    public void testConcurrentCreation() throws Exception {
+        RequestScope.INSTANCE.call(() -> {
+            Supplier<RequestHandler> lookup = RequestScope.INSTANCE.propagate(() -> injector.getInstance(RequestHandler.class));
+            List<CompletableFuture<RequestHandler>> lookups = new ArrayList<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 64; i++) {
+                    lookups.add(CompletableFuture.supplyAsync(lookup, executor));
+                }
+                RequestHandler handler = lookups.get(0).join();
+                for (CompletableFuture<RequestHandler> other : lookups) {
+                    assertSame(handler, other.join(), "Threads of one request should share one instance");
+                }
+            }
+            return null;
+        });
+        assertEquals(List.of("handler", "state"), destroyed);
+    }
+
+    @Test
+    public void testNestedPropagation() throws Exception {
+        RequestScope.INSTANCE.run(() -> {
+            RequestState state = injector.getInstance(RequestState.class);
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                // Each hop propagates the next from its own thread, so the request is carried without being copied
+                assertEquals(100, hop(executor, 100).join().stream().filter(found -> found == state).count(),
+                        "Every hop should share the request's instance");
+            }
+            assertTrue(destroyed.isEmpty());
+        });
+        assertEquals(List.of("state"), destroyed, "The request should have created one instance");
+    }
+
+    /**
+     * Looks the request scoped instance up on a propagated thread, which hops on until none are left.
+     */
+    private CompletableFuture<List<RequestState>> hop(ExecutorService executor, int hops) {
+        return CompletableFuture.supplyAsync(RequestScope.INSTANCE.propagate(() -> {
+            List<RequestState> found = hops == 1 ? new ArrayList<>() : hop(executor, hops - 1).join();
+            found.add(injector.getInstance(RequestState.class));
+            return found;
+        }), executor);
+    }
+
+    public static class Job {
+        @Inject
+        Provider<RequestState> state;
+
+        @ActivateRequestContext
+        public RequestState work() {
+            assertTrue(RequestScope.INSTANCE.isActive());
+            return state.get();
+        }
+    }
+
+    public static class RequestState {
+        @PreDestroy
+        void close() {
+            destroyed.add("state");
+        }
+    }
+
+    public static class RequestHandler {
+        @Inject
+        RequestState state;
+
+        @PreDestroy
+        void close() {
+            destroyed.add("handler");
+        }
+    }
+}
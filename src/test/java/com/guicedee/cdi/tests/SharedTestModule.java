@@ -1,18 +1,24 @@
 package com.guicedee.cdi.tests;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.TypeLiteral;
 import com.google.inject.name.Names;
 import com.guicedee.client.services.lifecycle.IGuiceModule;
 
+import java.util.List;
+
 /**
  * Shared Guice module for all IGuiceContext-based CDI tests.
- * Binds a {@link TestBean} instance with the {@code @Named("testBean")} qualifier.
+ * Binds {@link TestBean} instances with the {@code @Named("testBean")} and {@code @Named("otherBean")} qualifiers,
+ * and a generic {@code List<String>} bean.
  */
 public class SharedTestModule extends AbstractModule implements IGuiceModule<SharedTestModule> {
 
     @Override
     protected void configure() {
         bind(TestBean.class).annotatedWith(Names.named("testBean")).toInstance(new TestBean("test"));
+        bind(TestBean.class).annotatedWith(Names.named("otherBean")).toInstance(new TestBean("other"));
+        bind(new TypeLiteral<List<String>>() {}).toInstance(List.of("first", "second"));
     }
 
     @Override
@@ -0,0 +1,194 @@
+package com.guicedee.cdi.tests;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.CreationException;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.guicedee.cdi.GuiceCDIModule;
+import com.guicedee.cdi.StartupReport;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.spi.DeploymentException;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the concurrent initialisation of eager beans at startup.
+ * <p>
+ * The beans rendezvous on latches instead of sleeping, so the tests check the order the graph imposes and that
+ * independent beans run at the same time without depending on how long anything takes.
+ */
+public class StartupTest {
+
+    static final Set<String> initialised = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Counted down by each independent bean as it starts, and awaited by both before they finish.
+     */
+    static CountDownLatch independentStarted;
+
+    @BeforeEach
+    public void setup() {
+        initialised.clear();
+        independentStarted = new CountDownLatch(2);
+        System.setProperty("guicedee.cdi.startupThreads", "4");
+        System.setProperty("guicedee.cdi.startupAnnotations", Startup.class.getName());
+    }
+
+    @AfterEach
+    public void cleanup() {
+        System.clearProperty("guicedee.cdi.startupThreads");
+        System.clearProperty("guicedee.cdi.startupAnnotations");
+    }
+
+    @Test
+    public void testParallelStartup() {
+        Injector injector = Guice.createInjector(new GuiceCDIModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Cache.class);
+                bind(Connections.class);
+                bind(Reports.class);
+                bind(Warmup.class);
+                bind(Unlisted.class);
+            }
+        });
+        // Cache and Connections only finish once both have started, so neither waited for the other
+        assertEquals(Set.of("cache", "connections", "reports", "warmup"), initialised,
+                "Every eager bean should be initialised while the injector is created, and only those");
+
+        StartupReport report = injector.getInstance(StartupReport.class);
+        Map<Class<?>, StartupReport.BeanStartup> beans = new java.util.HashMap<>();
+        for (StartupReport.BeanStartup bean : report.beans()) {
+            beans.put(bean.bean().getBeanClass(), bean);
+        }
+        assertEquals(Set.of(Cache.class, Connections.class, Reports.class, Warmup.class), beans.keySet());
+        assertEquals(Set.of(Cache.class), dependencyClasses(beans.get(Reports.class)), "Reports should await the cache it injects");
+        assertEquals(Set.of(), dependencyClasses(beans.get(Cache.class)));
+        assertEquals(Set.of(), dependencyClasses(beans.get(Connections.class)));
+        assertTrue(report.beans().indexOf(beans.get(Cache.class)) < report.beans().indexOf(beans.get(Reports.class)),
+                "Beans should be reported in the order they finished");
+
+        // The critical path is a chain of awaited dependencies at least as long as any bean and any other chain
+        List<StartupReport.BeanStartup> path = report.criticalPath();
+        assertFalse(path.isEmpty());
+        for (int i = 1; i < path.size(); i++) {
+            assertTrue(path.get(i).dependencies().contains(path.get(i - 1).bean()), "The critical path should follow dependencies: " + path);
+        }
+        for (StartupReport.BeanStartup bean : report.beans()) {
+            assertTrue(report.criticalPathDuration().compareTo(bean.duration()) >= 0);
+        }
+        assertTrue(report.criticalPathDuration().compareTo(beans.get(Cache.class).duration().plus(beans.get(Reports.class).duration())) >= 0);
+        assertEquals(4, report.threads());
+    }
+
+    @Test
+    public void testFailedStartup() {
+        CreationException e = assertThrows(CreationException.class, () -> Guice.createInjector(new GuiceCDIModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Broken.class);
+            }
+        }));
+        assertInstanceOf(DeploymentException.class, e.getCause());
+    }
+
+    private static Set<Class<?>> dependencyClasses(StartupReport.BeanStartup bean) {
+        Set<Class<?>> classes = new java.util.HashSet<>();
+        bean.dependencies().forEach(dependency -> classes.add(dependency.getBeanClass()));
+        return classes;
+    }
+
+    static void rendezvous(String name) {
+        independentStarted.countDown();
+        try {
+            assertTrue(independentStarted.await(30, TimeUnit.SECONDS), name + " should run while the other independent bean runs");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        initialised.add(name);
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Startup {
+    }
+
+    /**
+     * An annotation with the same simple name as the configured one, which does not make a bean eager.
+     */
+    public static final class Other {
+        @Retention(RetentionPolicy.RUNTIME)
+        public @interface Startup {
+        }
+
+        private Other() {
+        }
+    }
+
+    @Singleton
+    public static class Cache {
+        volatile boolean loaded;
+
+        void load(@Observes jakarta.enterprise.event.Startup startup) {
+            rendezvous("cache");
+            loaded = true;
+        }
+    }
+
+    @Singleton
+    public static class Connections {
+        void open(@Observes jakarta.enterprise.event.Startup startup) {
+            rendezvous("connections");
+        }
+    }
+
+    @Singleton
+    public static class Reports {
+        @Inject
+        Cache cache;
+
+        void prepare(@Observes jakarta.enterprise.event.Startup startup) {
+            assertTrue(cache.loaded, "The cache should be loaded before its dependents start");
+            initialised.add("reports");
+        }
+    }
+
+    @Startup
+    @Singleton
+    public static class Warmup {
+        @Inject
+        void warm() {
+            initialised.add("warmup");
+        }
+    }
+
+    @Other.Startup
+    @Singleton
+    public static class Unlisted {
+        @Inject
+        void warm() {
+            initialised.add("unlisted");
+        }
+    }
+
+    @Singleton
+    public static class Broken {
+        void fail(@Observes jakarta.enterprise.event.Startup startup) {
+            throw new IllegalStateException("Cannot connect");
+        }
+    }
+}
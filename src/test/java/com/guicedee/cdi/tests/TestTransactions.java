@@ -0,0 +1,43 @@
+package com.guicedee.cdi.tests;
+
+import com.guicedee.cdi.ITransactionSynchronizer;
+import jakarta.enterprise.event.TransactionPhase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A transaction integration for tests, with transactions begun and committed on the current thread.
+ */
+public class TestTransactions implements ITransactionSynchronizer {
+
+    private static final ThreadLocal<List<Runnable>> ACTIVE = new ThreadLocal<>();
+
+    /**
+     * Begins a transaction on the current thread.
+     */
+    public static void begin() {
+        ACTIVE.set(new ArrayList<>());
+    }
+
+    /**
+     * Commits the transaction of the current thread, running the notifications deferred to it.
+     */
+    public static void commit() {
+        List<Runnable> deferred = ACTIVE.get();
+        ACTIVE.remove();
+        deferred.forEach(Runnable::run);
+    }
+
+    @Override
+    public boolean defer(TransactionPhase phase, Runnable notification) {
+        List<Runnable> deferred = ACTIVE.get();
+        if (deferred == null) {
+            return false;
+        }
+        if (phase != TransactionPhase.AFTER_FAILURE) {
+            deferred.add(notification);
+        }
+        return true;
+    }
+}
@@ -1,4 +1,13 @@
 open module guiced.cdi.tests {
     requires com.guicedee.cdi;
+    requires jakarta.cdi;
     requires org.junit.jupiter.api;
-}
\ No newline at end of file
+    requires java.compiler;
+    requires jdk.management;
+
+    uses com.google.inject.gee.InjectionPointProvider;
+    uses com.google.inject.gee.InjectorAnnotationsProvider;
+    uses com.google.inject.gee.NamedAnnotationProvider;
+
+    provides com.guicedee.cdi.ITransactionSynchronizer with com.guicedee.cdi.tests.TestTransactions;
+}